@@ -0,0 +1,124 @@
+package io.github.coderodde.regex.benchmark.jmh;
+
+import io.github.coderodde.regex.DeterministicFiniteAutomaton;
+import io.github.coderodde.regex.NondeterministicFiniteAutomaton;
+import io.github.coderodde.regex.NondeterministicFiniteAutomatonCompiler;
+import io.github.coderodde.regex.RegexToolkit;
+import io.github.coderodde.regex.RegularExpressionMatcher;
+import io.github.coderodde.regex.parser.ast.RegexParser;
+import io.github.coderodde.regex.parser.ast.RegexTokenizationResult;
+import io.github.coderodde.regex.parser.ast.tree.RegexNode;
+import io.github.coderodde.regex.tokenizer.RegexTokenizer;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.apache.lucene.util.automaton.Automaton;
+import org.apache.lucene.util.automaton.Operations;
+import org.apache.lucene.util.automaton.RegExp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks the compilation phases of the regex-toolkit one by
+ * one: tokenization, parsing, Thompson's construction and the subset
+ * construction. The input of each phase is prepared in the setup, so that
+ * only the phase itself is measured. The end-to-end compilation is measured
+ * against {@code Pattern.compile} and the corresponding phases of the Lucene
+ * automaton.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class CompileBenchmark {
+
+    @Param
+    public PatternFamily family;
+
+    private String regex;
+    private RegexTokenizationResult tokenization;
+    private RegexNode syntaxTree;
+    private NondeterministicFiniteAutomaton nfa;
+    private RegExp luceneRegExp;
+    private Automaton luceneNfa;
+
+    @Setup
+    public void setup() {
+        regex = family.getRegex();
+        tokenization = new RegexTokenizer().tokenize(regex);
+        syntaxTree = new RegexParser(tokenization.tokens()).parse();
+        nfa = new NondeterministicFiniteAutomatonCompiler(syntaxTree)
+                .compile(tokenization);
+
+        luceneRegExp = new RegExp(regex);
+        luceneNfa = luceneRegExp.toAutomaton();
+    }
+
+    @Benchmark
+    public RegexTokenizationResult tokenize() {
+        return new RegexTokenizer().tokenize(regex);
+    }
+
+    @Benchmark
+    public RegexNode parse() {
+        return new RegexParser(tokenization.tokens()).parse();
+    }
+
+    @Benchmark
+    public NondeterministicFiniteAutomaton compileNfa() {
+        return new NondeterministicFiniteAutomatonCompiler(syntaxTree)
+                .compile(tokenization);
+    }
+
+    @Benchmark
+    public DeterministicFiniteAutomaton determinize() {
+        return nfa.convertToDeterministicFiniteAutomaton();
+    }
+
+    @Benchmark
+    public RegularExpressionMatcher compile() {
+        return RegexToolkit.compile(
+                regex,
+                DeterministicFiniteAutomaton.MinimizationAlgorithm.AUTO);
+    }
+
+    @Benchmark
+    public Pattern javaCompile() {
+        return Pattern.compile(regex);
+    }
+
+    @Benchmark
+    public RegExp luceneParse() {
+        return new RegExp(regex);
+    }
+
+    @Benchmark
+    public Automaton luceneCompileNfa() {
+        return luceneRegExp.toAutomaton();
+    }
+
+    @Benchmark
+    public Automaton luceneDeterminize() {
+        return Operations.determinize(
+                luceneNfa,
+                Operations.DEFAULT_DETERMINIZE_WORK_LIMIT);
+    }
+
+    @Benchmark
+    public Automaton luceneCompile() {
+        return Operations.removeDeadStates(
+                Operations.determinize(
+                        new RegExp(regex).toAutomaton(),
+                        Operations.DEFAULT_DETERMINIZE_WORK_LIMIT));
+    }
+}
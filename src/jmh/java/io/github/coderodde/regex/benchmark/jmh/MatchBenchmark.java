@@ -0,0 +1,116 @@
+package io.github.coderodde.regex.benchmark.jmh;
+
+import io.github.coderodde.regex.DeterministicFiniteAutomaton.MinimizationAlgorithm;
+import io.github.coderodde.regex.RegexToolkit;
+import io.github.coderodde.regex.RegularExpressionMatcher;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.apache.lucene.util.automaton.CharacterRunAutomaton;
+import org.apache.lucene.util.automaton.Operations;
+import org.apache.lucene.util.automaton.RegExp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks matching a whole text and searching a text for a
+ * match. The texts are generated once per trial from a fixed seed: the
+ * matched text belongs to the language of the pattern, and the searched text
+ * has its only match at its very end. Lucene has no search operation, so its
+ * search runs the DFA of {@code .*(regex).*} over the whole text.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class MatchBenchmark {
+
+    private static final long SEED = 13L;
+
+    @Param
+    public PatternFamily family;
+
+    // java.util.regex overflows the default stack on the repeated groups of
+    // much longer texts:
+    @Param({ "64", "1024", "4096" })
+    public int length;
+
+    private String matchingText;
+    private String searchText;
+    private RegularExpressionMatcher matcher;
+    private Pattern pattern;
+    private CharacterRunAutomaton luceneMatcher;
+    private CharacterRunAutomaton luceneSearcher;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(SEED);
+        String regex = family.getRegex();
+
+        matchingText = family.buildMatchingText(random, length);
+        searchText = family.buildSearchText(random, length);
+        matcher = RegexToolkit.compile(regex, MinimizationAlgorithm.AUTO);
+        pattern = Pattern.compile(regex);
+        luceneMatcher = compileLucene(regex);
+        luceneSearcher = compileLucene(".*(" + regex + ").*");
+
+        if (!matcher.matches(matchingText)
+                || !pattern.matcher(matchingText).matches()
+                || !luceneMatcher.run(matchingText)
+                || !matcher.find(searchText)
+                || !pattern.matcher(searchText).find()
+                || !luceneSearcher.run(searchText)) {
+
+            throw new IllegalStateException(
+                    "The engines disagree on the family " + family + ".");
+        }
+    }
+
+    @Benchmark
+    public boolean matches() {
+        return matcher.matches(matchingText);
+    }
+
+    @Benchmark
+    public boolean javaMatches() {
+        return pattern.matcher(matchingText).matches();
+    }
+
+    @Benchmark
+    public boolean luceneMatches() {
+        return luceneMatcher.run(matchingText);
+    }
+
+    @Benchmark
+    public boolean find() {
+        return matcher.find(searchText);
+    }
+
+    @Benchmark
+    public boolean javaFind() {
+        return pattern.matcher(searchText).find();
+    }
+
+    @Benchmark
+    public boolean luceneFind() {
+        return luceneSearcher.run(searchText);
+    }
+
+    private static CharacterRunAutomaton compileLucene(String regex) {
+        return new CharacterRunAutomaton(
+                Operations.determinize(
+                        new RegExp(regex).toAutomaton(),
+                        Operations.DEFAULT_DETERMINIZE_WORK_LIMIT));
+    }
+}
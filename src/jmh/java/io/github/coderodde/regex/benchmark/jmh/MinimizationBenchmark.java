@@ -0,0 +1,65 @@
+package io.github.coderodde.regex.benchmark.jmh;
+
+import io.github.coderodde.regex.DeterministicFiniteAutomaton;
+import io.github.coderodde.regex.DeterministicFiniteAutomaton.MinimizationAlgorithm;
+import io.github.coderodde.regex.NondeterministicFiniteAutomaton;
+import java.util.concurrent.TimeUnit;
+import org.apache.lucene.util.automaton.Automaton;
+import org.apache.lucene.util.automaton.Operations;
+import org.apache.lucene.util.automaton.RegExp;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * This class benchmarks the DFA minimization algorithms on the DFAs of the
+ * pattern families. The other algorithms may be selected via
+ * {@code -p algorithm=...}. Lucene does not ship a minimization in its core
+ * module, so the baseline is its dead state removal on the determinized
+ * automaton, which is the post-processing its own compilation does.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class MinimizationBenchmark {
+
+    @Param
+    public PatternFamily family;
+
+    @Param({ "HOPCROFT", "MOORE" })
+    public MinimizationAlgorithm algorithm;
+
+    private DeterministicFiniteAutomaton dfa;
+    private Automaton luceneDfa;
+
+    @Setup
+    public void setup() {
+        dfa = NondeterministicFiniteAutomaton.compile(family.getRegex())
+                                             .convertToDeterministicFiniteAutomaton();
+
+        luceneDfa = Operations.determinize(
+                new RegExp(family.getRegex()).toAutomaton(),
+                Operations.DEFAULT_DETERMINIZE_WORK_LIMIT);
+    }
+
+    @Benchmark
+    public DeterministicFiniteAutomaton minimize() {
+        return dfa.minimize(algorithm);
+    }
+
+    @Benchmark
+    public Automaton luceneRemoveDeadStates() {
+        return Operations.removeDeadStates(luceneDfa);
+    }
+}
@@ -0,0 +1,148 @@
+package io.github.coderodde.regex.benchmark.jmh;
+
+import java.util.Random;
+
+/**
+ * This enumeration lists the families of the benchmarked patterns. Each
+ * pattern is written in the syntax common to the regex-toolkit,
+ * {@code java.util.regex} and the Lucene {@code RegExp}, and accepts
+ * arbitrarily long texts, so that the matching benchmarks can be
+ * parameterized by the input length. The group repetitions are kept to
+ * character classes where possible, since {@code java.util.regex} recurses
+ * once per iteration of a repeated group.
+ */
+public enum PatternFamily {
+
+    /**
+     * A repeated literal word.
+     */
+    LITERAL("(abracadabra)+") {
+
+        @Override
+        String buildMatchingText(Random random, int length) {
+            StringBuilder sb = new StringBuilder(length + 11);
+
+            do {
+                sb.append("abracadabra");
+            } while (sb.length() < length);
+
+            return sb.toString();
+        }
+    },
+
+    /**
+     * A repeated alternation of keywords sharing prefixes and suffixes.
+     */
+    ALTERNATION("(foo|bar|baz|qux|quux|corge|grault|garply)+") {
+
+        private final String[] words = {
+            "foo", "bar", "baz", "qux", "quux", "corge", "grault", "garply"
+        };
+
+        @Override
+        String buildMatchingText(Random random, int length) {
+            StringBuilder sb = new StringBuilder(length + 6);
+
+            do {
+                sb.append(words[random.nextInt(words.length)]);
+            } while (sb.length() < length);
+
+            return sb.toString();
+        }
+    },
+
+    /**
+     * A sequence of character classes resembling a host name.
+     */
+    CHARACTER_CLASS("[a-z0-9_]+[.][a-z]+[.](com|org|net)") {
+
+        @Override
+        String buildMatchingText(Random random, int length) {
+            StringBuilder sb = new StringBuilder(length);
+            String alphabet = "abcdefghijklmnopqrstuvwxyz0123456789_";
+
+            while (sb.length() < length - 12) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+
+            return sb.append(".example.org").toString();
+        }
+    },
+
+    /**
+     * The textbook pattern of the strings ending with {@code abb}.
+     */
+    SUFFIX("[ab]*abb") {
+
+        @Override
+        String buildMatchingText(Random random, int length) {
+            return buildBinaryText(random, length - 3) + "abb";
+        }
+    },
+
+    /**
+     * The strings whose eighth last character is {@code a}. The minimal DFA
+     * has {@code 2^8} states, while the NFA has nine.
+     */
+    EXPONENTIAL("[ab]*a[ab][ab][ab][ab][ab][ab][ab]") {
+
+        @Override
+        String buildMatchingText(Random random, int length) {
+            return buildBinaryText(random, length - 8)
+                 + "a"
+                 + buildBinaryText(random, 7);
+        }
+    };
+
+    private final String regex;
+
+    private PatternFamily(String regex) {
+        this.regex = regex;
+    }
+
+    public String getRegex() {
+        return regex;
+    }
+
+    /**
+     * Builds a text matched by the whole pattern. The length of the text is
+     * at least {@code length} and exceeds it by less than the length of a
+     * single repeated unit of the pattern.
+     *
+     * @param random the random number generator.
+     * @param length the requested length.
+     * @return a matching text.
+     */
+    abstract String buildMatchingText(Random random, int length);
+
+    /**
+     * Builds a text of the input length containing a single match of the
+     * pattern at its very end. The rest of the text consists of characters
+     * never used by any of the patterns, so that a search has to scan the
+     * whole text.
+     *
+     * @param random the random number generator.
+     * @param length the requested length.
+     * @return a text with a trailing match.
+     */
+    String buildSearchText(Random random, int length) {
+        String match = buildMatchingText(random, 16);
+        StringBuilder sb = new StringBuilder(length);
+
+        while (sb.length() < length - match.length()) {
+            sb.append((char)('A' + random.nextInt(26)));
+        }
+
+        return sb.append(match).toString();
+    }
+
+    private static String buildBinaryText(Random random, int length) {
+        StringBuilder sb = new StringBuilder(Math.max(0, length));
+
+        for (int i = 0; i < length; i++) {
+            sb.append(random.nextBoolean() ? 'a' : 'b');
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,368 @@
+package io.github.coderodde.regex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * This class implements a partition of the entire code point space into
+ * equivalence classes. Two code points belong to the same class if and only if
+ * no input code point range tells them apart. The mapping from code points to
+ * the class IDs is a two-level lookup: a flat array for the Latin-1 code points
+ * and a compact, binary-searched range table for the rest.
+ */
+final class AlphabetPartition {
+
+    /**
+     * The number of code points looked up via the flat array.
+     */
+    static final int FLAT_TABLE_SIZE = 256;
+
+    /**
+     * The estimated size of a {@link CodePointRange} object with its reference.
+     */
+    private static final int ESTIMATED_CODE_POINT_RANGE_BYTES = 32;
+
+    /**
+     * Maps each Latin-1 code point to its class ID.
+     */
+    private final int[] flatClassIds;
+
+    /**
+     * The sorted starting code points of the intervals above the Latin-1
+     * block. The first entry is always {@link #FLAT_TABLE_SIZE}.
+     */
+    private final int[] rangeStarts;
+
+    /**
+     * The class IDs of the intervals in {@link #rangeStarts}.
+     */
+    private final int[] rangeClassIds;
+
+    /**
+     * The starting code points of all the elementary intervals.
+     */
+    private final int[] intervalStarts;
+
+    /**
+     * The class IDs of all the elementary intervals.
+     */
+    private final int[] intervalClassIds;
+
+    /**
+     * The number of classes.
+     */
+    private final int classCount;
+
+    /**
+     * Maps each class to the smallest code point belonging to it.
+     */
+    private final int[] representatives;
+
+    /**
+     * Maps each class to the maximal code point ranges it consists of.
+     */
+    private final List<List<CodePointRange>> classRanges;
+
+    private AlphabetPartition(int[] intervalStarts,
+                              int[] intervalClassIds,
+                              int classCount) {
+
+        this.intervalStarts   = intervalStarts;
+        this.intervalClassIds = intervalClassIds;
+        this.classCount       = classCount;
+        this.representatives  = new int[classCount];
+        this.flatClassIds     = new int[FLAT_TABLE_SIZE];
+
+        Arrays.fill(representatives, -1);
+
+        for (int i = intervalStarts.length - 1; i >= 0; --i) {
+            representatives[intervalClassIds[i]] = intervalStarts[i];
+        }
+
+        this.classRanges = new ArrayList<>(classCount);
+
+        for (int i = 0; i < classCount; ++i) {
+            classRanges.add(new ArrayList<>(1));
+        }
+
+        for (int i = 0; i < intervalStarts.length; ++i) {
+            int end = i + 1 < intervalStarts.length ?
+                      intervalStarts[i + 1] - 1 :
+                      Character.MAX_CODE_POINT;
+
+            classRanges.get(intervalClassIds[i])
+                       .add(new CodePointRange(intervalStarts[i], end));
+        }
+
+        int interval = 0;
+
+        for (int codePoint = 0; codePoint < FLAT_TABLE_SIZE; ++codePoint) {
+            while (interval + 1 < intervalStarts.length
+                    && intervalStarts[interval + 1] <= codePoint) {
+                ++interval;
+            }
+
+            flatClassIds[codePoint] = intervalClassIds[interval];
+        }
+
+        while (interval + 1 < intervalStarts.length
+                && intervalStarts[interval + 1] <= FLAT_TABLE_SIZE) {
+            ++interval;
+        }
+
+        int[] starts = new int[intervalStarts.length + 1];
+        int[] classIds = new int[intervalStarts.length + 1];
+        int size = 0;
+
+        starts[size] = FLAT_TABLE_SIZE;
+        classIds[size++] = intervalClassIds[interval];
+
+        for (int i = interval + 1; i < intervalStarts.length; ++i) {
+            if (intervalClassIds[i] != classIds[size - 1]) {
+                starts[size] = intervalStarts[i];
+                classIds[size++] = intervalClassIds[i];
+            }
+        }
+
+        this.rangeStarts   = Arrays.copyOf(starts, size);
+        this.rangeClassIds = Arrays.copyOf(classIds, size);
+    }
+
+    /**
+     * Computes the coarsest partition of the code point space such that every
+     * input range is a union of classes.
+     *
+     * @param ranges the ranges to respect.
+     * @return the alphabet partition.
+     */
+    static AlphabetPartition of(Collection<CodePointRange> ranges) {
+        int[] boundaries = new int[2 * ranges.size() + 1];
+        int boundaryCount = 1;
+
+        for (CodePointRange range : ranges) {
+            boundaries[boundaryCount++] = range.getMinimumCodePoint();
+            boundaries[boundaryCount++] = range.getMaximumCodePoint() + 1;
+        }
+
+        Arrays.sort(boundaries, 0, boundaryCount);
+
+        int intervalCount = 0;
+
+        for (int i = 0; i < boundaryCount; ++i) {
+            int boundary = boundaries[i];
+
+            if (boundary > Character.MAX_CODE_POINT) {
+                break;
+            }
+
+            if (intervalCount == 0
+                    || boundaries[intervalCount - 1] != boundary) {
+                boundaries[intervalCount++] = boundary;
+            }
+        }
+
+        int[] intervalStarts = Arrays.copyOf(boundaries, intervalCount);
+        int[] intervalClassIds = new int[intervalCount];
+
+        // Refine the partition with one range at a time. Each class touched by
+        // the current range is moved to a fresh class, which splits it if it
+        // has members outside of the range:
+        int nextClassId = 1;
+        int[] remap = new int[8];
+        int[] touched = new int[8];
+
+        Arrays.fill(remap, -1);
+
+        for (CodePointRange range : ranges) {
+            int first = Arrays.binarySearch(intervalStarts,
+                                            range.getMinimumCodePoint());
+            int touchedCount = 0;
+
+            for (int i = first;
+                     i < intervalCount
+                     && intervalStarts[i] <= range.getMaximumCodePoint();
+                     ++i) {
+
+                int classId = intervalClassIds[i];
+
+                if (remap[classId] == -1) {
+                    if (nextClassId == remap.length) {
+                        int oldLength = remap.length;
+                        remap = Arrays.copyOf(remap, 2 * oldLength);
+                        Arrays.fill(remap, oldLength, remap.length, -1);
+                    }
+
+                    if (touchedCount == touched.length) {
+                        touched = Arrays.copyOf(touched, 2 * touchedCount);
+                    }
+
+                    remap[classId] = nextClassId++;
+                    touched[touchedCount++] = classId;
+                }
+
+                intervalClassIds[i] = remap[classId];
+            }
+
+            for (int i = 0; i < touchedCount; ++i) {
+                remap[touched[i]] = -1;
+            }
+        }
+
+        // Renumber the classes densely in the order of their first code point:
+        Arrays.fill(remap, -1);
+        int classCount = 0;
+
+        for (int i = 0; i < intervalCount; ++i) {
+            int classId = intervalClassIds[i];
+
+            if (remap[classId] == -1) {
+                remap[classId] = classCount++;
+            }
+
+            intervalClassIds[i] = remap[classId];
+        }
+
+        return new AlphabetPartition(intervalStarts,
+                                     intervalClassIds,
+                                     classCount);
+    }
+
+    /**
+     * Returns the number of classes in this partition.
+     *
+     * @return the number of classes.
+     */
+    int getClassCount() {
+        return classCount;
+    }
+
+    /**
+     * Maps the input code point to its class ID.
+     *
+     * @param codePoint the code point to map.
+     * @return the class ID.
+     */
+    int getClassId(int codePoint) {
+        if (codePoint < FLAT_TABLE_SIZE) {
+            return flatClassIds[codePoint];
+        }
+
+        int l = 0;
+        int r = rangeStarts.length - 1;
+
+        while (l < r) {
+            int m = (l + r + 1) >>> 1;
+
+            if (rangeStarts[m] <= codePoint) {
+                l = m;
+            } else {
+                r = m - 1;
+            }
+        }
+
+        return rangeClassIds[l];
+    }
+
+    /**
+     * Returns the smallest code point of the given class.
+     *
+     * @param classId the class ID.
+     * @return a representative code point of the class.
+     */
+    int getRepresentative(int classId) {
+        return representatives[classId];
+    }
+
+    /**
+     * Returns the IDs of all the classes contained in the input range. The
+     * range must be a union of classes, which holds for every range this
+     * partition was computed from.
+     *
+     * @param range the range to decompose.
+     * @return the class IDs in ascending code point order without duplicates.
+     */
+    int[] getClassIds(CodePointRange range) {
+        return getClassIds(range.getMinimumCodePoint(),
+                           range.getMaximumCodePoint());
+    }
+
+    /**
+     * Returns the IDs of all the classes contained in the code point range 
+     * from {@code minimumCodePoint} to {@code maximumCodePoint}, both 
+     * inclusive.
+     *
+     * @param minimumCodePoint the smallest code point of the range.
+     * @param maximumCodePoint the largest code point of the range.
+     * @return the class IDs in ascending code point order without duplicates.
+     */
+    int[] getClassIds(int minimumCodePoint, int maximumCodePoint) {
+        int first = Arrays.binarySearch(intervalStarts, minimumCodePoint);
+
+        if (first < 0) {
+            throw new IllegalArgumentException(
+                "The range [" + minimumCodePoint + ", " + maximumCodePoint 
+                    + "] is not aligned with the partition.");
+        }
+
+        int[] classIds = new int[4];
+        int size = 0;
+
+        for (int i = first;
+                 i < intervalStarts.length
+                 && intervalStarts[i] <= maximumCodePoint;
+                 ++i) {
+
+            int classId = intervalClassIds[i];
+
+            // A class lies either entirely within the range or entirely
+            // outside of it, so it suffices to report each class at its first
+            // interval:
+            if (representatives[classId] == intervalStarts[i]) {
+                if (size == classIds.length) {
+                    classIds = Arrays.copyOf(classIds, 2 * size);
+                }
+
+                classIds[size++] = classId;
+            }
+        }
+
+        return Arrays.copyOf(classIds, size);
+    }
+
+    /**
+     * Returns the maximal code point ranges making up the given class.
+     *
+     * @param classId the class ID.
+     * @return the list of code point ranges in ascending order.
+     */
+    List<CodePointRange> getRanges(int classId) {
+        return Collections.unmodifiableList(classRanges.get(classId));
+    }
+
+    /**
+     * Estimates the number of bytes occupied by this partition. Only the
+     * payloads of the arrays and the code point ranges are counted.
+     *
+     * @return the estimated size in bytes.
+     */
+    long getEstimatedNumberOfBytes() {
+        long numberOfRanges = 0L;
+
+        for (List<CodePointRange> ranges : classRanges) {
+            numberOfRanges += ranges.size();
+        }
+
+        long numberOfInts = (long) flatClassIds.length
+                          + rangeStarts.length
+                          + rangeClassIds.length
+                          + intervalStarts.length
+                          + intervalClassIds.length
+                          + representatives.length;
+
+        return Integer.BYTES * numberOfInts
+             + ESTIMATED_CODE_POINT_RANGE_BYTES * numberOfRanges;
+    }
+}
@@ -0,0 +1,397 @@
+package io.github.coderodde.regex;
+
+import io.github.coderodde.regex.parser.ast.RegexParser;
+import io.github.coderodde.regex.parser.ast.RegexTokenizationResult;
+import io.github.coderodde.regex.tokenizer.RegexTokenizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * This class implements a bit-parallel simulation of the Glushkov (position)
+ * automaton of a regular expression with at most
+ * {@value #MAXIMUM_NUMBER_OF_POSITIONS} positions. The set of active positions
+ * is a single {@code long}, in which the bit {@code p - 1} stands for the
+ * position {@code p}. Reading a code point {@code c} maps the state set
+ * {@code D} to {@code (F(D) | S) & B[c]}, where {@code F(D)} is the union of
+ * the follow sets of the positions in {@code D}, {@code S} is the set of the
+ * first positions (included only where a match attempt may start), and
+ * {@code B[c]} is the set of the positions labelled with {@code c}.
+ *
+ * <p>{@code F(D)} is computed by looking up each byte of {@code D} in a
+ * precomputed table, so that a step costs at most eight table lookups
+ * regardless of the shape of the expression. For a plain string, this reduces
+ * to the classic Shift-And algorithm with {@code F(D) = D << 1}. No
+ * determinization is needed and the memory footprint is constant.
+ */
+public final class BitParallelNondeterministicFiniteAutomaton
+        implements RegularExpressionMatcher {
+
+    /**
+     * The maximum number of positions supported.
+     */
+    public static final int MAXIMUM_NUMBER_OF_POSITIONS = Long.SIZE;
+
+    private static final int BYTE_VALUES = 1 << Byte.SIZE;
+
+    private final int positionCount;
+
+    /**
+     * Maps the code points to the character classes.
+     */
+    private final AlphabetPartition alphabetPartition;
+
+    /**
+     * Maps each character class ID to the set of the positions matching it.
+     */
+    private final long[] classMasks;
+
+    /**
+     * Maps {@code k * 256 + b} to the union of the follow sets of the positions
+     * in the {@code k}th byte {@code b} of a state set.
+     */
+    private final long[] followTable;
+
+    /**
+     * The number of bytes spanned by the positions.
+     */
+    private final int chunkCount;
+
+    private final long firstMask;
+    private final long lastMask;
+    private final boolean nullable;
+    private final boolean anchoredAtStart;
+    private final boolean anchoredAtEnd;
+
+    /**
+     * Builds the bit-parallel automaton from the position data of the input
+     * compiler.
+     *
+     * @param compiler        the Glushkov compiler.
+     * @param anchoredAtStart whether the matches must start at index 0.
+     * @param anchoredAtEnd   whether the matches must end at the end of text.
+     */
+    BitParallelNondeterministicFiniteAutomaton(
+            GlushkovNondeterministicFiniteAutomatonCompiler compiler,
+            boolean anchoredAtStart,
+            boolean anchoredAtEnd) {
+
+        compiler.linearize();
+
+        this.positionCount = compiler.getPositionCount();
+
+        if (positionCount > MAXIMUM_NUMBER_OF_POSITIONS) {
+            throw new IllegalArgumentException(
+                "The regular expression has " + positionCount
+                    + " positions, the maximum is "
+                    + MAXIMUM_NUMBER_OF_POSITIONS + ".");
+        }
+
+        List<CodePointRange> ranges = new ArrayList<>();
+
+        for (int p = 1; p <= positionCount; ++p) {
+            ranges.addAll(compiler.getPositionRanges(p));
+        }
+
+        this.alphabetPartition = AlphabetPartition.of(ranges);
+        this.classMasks = new long[alphabetPartition.getClassCount()];
+
+        for (int p = 1; p <= positionCount; ++p) {
+            for (CodePointRange range : compiler.getPositionRanges(p)) {
+                for (int classId : alphabetPartition.getClassIds(range)) {
+                    classMasks[classId] |= bit(p);
+                }
+            }
+        }
+
+        this.chunkCount = Math.max(1, (positionCount + Byte.SIZE - 1)
+                                      / Byte.SIZE);
+
+        this.followTable = new long[chunkCount * BYTE_VALUES];
+
+        for (int p = 1; p <= positionCount; ++p) {
+            long followMask = toMask(compiler.getFollowSet(p));
+            int chunk = (p - 1) / Byte.SIZE;
+            int bitInChunk = 1 << ((p - 1) % Byte.SIZE);
+
+            for (int b = 0; b < BYTE_VALUES; ++b) {
+                if ((b & bitInChunk) != 0) {
+                    followTable[chunk * BYTE_VALUES + b] |= followMask;
+                }
+            }
+        }
+
+        this.firstMask       = toMask(compiler.getFollowSet(0));
+        this.lastMask        = toMask(compiler.getLastSet());
+        this.nullable        = compiler.isNullable();
+        this.anchoredAtStart = anchoredAtStart;
+        this.anchoredAtEnd   = anchoredAtEnd;
+    }
+
+    /**
+     * Compiles the input regular expression to a bit-parallel matcher.
+     *
+     * @param regex the regular expression.
+     * @return the bit-parallel matcher.
+     * @throws IllegalArgumentException if the regular expression has more than
+     *                                  {@value #MAXIMUM_NUMBER_OF_POSITIONS}
+     *                                  positions.
+     */
+    public static BitParallelNondeterministicFiniteAutomaton
+        compile(String regex) {
+
+        RegexTokenizationResult tokenization =
+            new RegexTokenizer().tokenize(regex);
+
+        GlushkovNondeterministicFiniteAutomatonCompiler compiler =
+            new GlushkovNondeterministicFiniteAutomatonCompiler(
+                new RegexParser(tokenization.tokens()).parse());
+
+        return new BitParallelNondeterministicFiniteAutomaton(
+            compiler,
+            tokenization.anchoredAtStart(),
+            tokenization.anchoredAtEnd());
+    }
+
+    /**
+     * Returns the number of positions in the underlying position automaton.
+     *
+     * @return the number of positions.
+     */
+    public int getNumberOfPositions() {
+        return positionCount;
+    }
+
+    @Override
+    public boolean matches(String text) {
+        Objects.requireNonNull(text, "The input text is null.");
+
+        int n = text.length();
+
+        if (n == 0) {
+            return nullable;
+        }
+
+        long state = firstMask;
+        int index = 0;
+
+        while (index < n) {
+            int codePoint = text.codePointAt(index);
+            state = classMask(codePoint)
+                  & (index == 0 ? firstMask : follow(state));
+
+            if (state == 0L) {
+                return false;
+            }
+
+            index += Character.charCount(codePoint);
+        }
+
+        return (state & lastMask) != 0L;
+    }
+
+    /**
+     * Checks whether some substring of the input text is accepted. Makes a
+     * single left-to-right pass over {@code text}.
+     *
+     * @param text the text to search.
+     * @return {@code true} only if {@code text} contains a match.
+     */
+    @Override
+    public boolean find(String text) {
+        Objects.requireNonNull(text, "The input text is null.");
+
+        int n = text.length();
+        long state = 0L;
+        long startMask = firstMask;
+        boolean canStart = true;
+        int index = 0;
+
+        while (true) {
+            if (!anchoredAtEnd || index == n) {
+                if ((state & lastMask) != 0L || (canStart && nullable)) {
+                    return true;
+                }
+            }
+
+            if (index == n) {
+                return false;
+            }
+
+            int codePoint = text.codePointAt(index);
+            state = (follow(state) | startMask) & classMask(codePoint);
+            index += Character.charCount(codePoint);
+
+            if (anchoredAtStart) {
+                if (state == 0L) {
+                    return false;
+                }
+
+                startMask = 0L;
+                canStart = false;
+            }
+        }
+    }
+
+    @Override
+    public MatchPosition findMatch(CharSequence text, int from) {
+        MatchPosition matchPosition = new MatchPosition(0, 0);
+        return findMatch(text, from, matchPosition) ? matchPosition : null;
+    }
+
+    @Override
+    public Iterator<MatchPosition> findAll(CharSequence text) {
+        return new MatchPositionIterator(text, this::findMatch);
+    }
+
+    @Override
+    public void forEachMatch(CharSequence text, MatchConsumer consumer) {
+        MatchPositionIterator.forEachMatch(text, this::findMatch, consumer);
+    }
+
+    /**
+     * Finds the leftmost-longest match and stores it in
+     * {@code matchPosition}. The match attempts are kept in the order of
+     * their starting indices, each with its own state set. A position reached
+     * by several attempts is kept only in the earliest one, since the later
+     * ones cannot yield a leftmost match through it. Hence, the state sets are
+     * disjoint and there are at most {@value #MAXIMUM_NUMBER_OF_POSITIONS}
+     * attempts at a time.
+     *
+     * @param text          the text to search.
+     * @param from          the index at which to start searching.
+     * @param matchPosition the object to store the match in.
+     * @return {@code true} if a match was found.
+     */
+    boolean findMatch(CharSequence text,
+                      int from,
+                      MatchPosition matchPosition) {
+
+        Objects.requireNonNull(text, "The input text is null.");
+        Objects.checkIndex(from, text.length() + 1);
+        from = MatchPositionIterator.alignToCodePoint(text, from);
+
+        if (anchoredAtStart && from > 0) {
+            return false;
+        }
+
+        int capacity = Math.max(1, positionCount);
+        long[] states = new long[capacity];
+        int[] starts = new int[capacity];
+        int size = 0;
+        int n = text.length();
+        int index = from;
+        int matchStart = -1;
+        int matchEnd = -1;
+
+        while (true) {
+            // Whether a new attempt starts at the current index:
+            boolean fresh = matchStart == -1
+                         && (index == from || !anchoredAtStart);
+
+            if (!anchoredAtEnd || index == n) {
+                for (int i = 0; i < size; ++i) {
+                    if ((states[i] & lastMask) != 0L) {
+                        matchStart = starts[i];
+                        matchEnd = index;
+
+                        // Drop the attempts started later:
+                        size = i + 1;
+                        fresh = false;
+                        break;
+                    }
+                }
+
+                if (fresh && nullable) {
+                    matchStart = index;
+                    matchEnd = index;
+                }
+            }
+
+            if (index == n) {
+                break;
+            }
+
+            int codePoint = Character.codePointAt(text, index);
+            long mask = classMask(codePoint);
+            long covered = 0L;
+            int newSize = 0;
+
+            for (int i = 0; i < size; ++i) {
+                long state = follow(states[i]) & mask & ~covered;
+
+                if (state != 0L) {
+                    states[newSize] = state;
+                    starts[newSize++] = starts[i];
+                    covered |= state;
+                }
+            }
+
+            if (fresh) {
+                long state = firstMask & mask & ~covered;
+
+                if (state != 0L) {
+                    states[newSize] = state;
+                    starts[newSize++] = index;
+                }
+            }
+
+            size = newSize;
+            index += Character.charCount(codePoint);
+
+            if (size == 0 && (matchStart != -1 || anchoredAtStart)) {
+                break;
+            }
+        }
+
+        if (matchStart == -1) {
+            return false;
+        }
+
+        matchPosition.set(matchStart, matchEnd);
+        return true;
+    }
+
+    /**
+     * Returns the union of the follow sets of all the positions in
+     * {@code state}.
+     *
+     * @param state the state set.
+     * @return the set of the following positions.
+     */
+    private long follow(long state) {
+        long result = 0L;
+
+        for (int chunk = 0;
+                 chunk < chunkCount && state != 0L;
+                 ++chunk, state >>>= Byte.SIZE) {
+
+            result |= followTable[chunk * BYTE_VALUES
+                                  + (int)(state & (BYTE_VALUES - 1))];
+        }
+
+        return result;
+    }
+
+    private long classMask(int codePoint) {
+        return classMasks[alphabetPartition.getClassId(codePoint)];
+    }
+
+    private static long bit(int position) {
+        return 1L << (position - 1);
+    }
+
+    private static long toMask(BitSet positions) {
+        long mask = 0L;
+
+        for (int p = positions.nextSetBit(1);
+                 p >= 0;
+                 p = positions.nextSetBit(p + 1)) {
+            mask |= bit(p);
+        }
+
+        return mask;
+    }
+}
@@ -0,0 +1,321 @@
+package io.github.coderodde.regex;
+
+import java.util.Arrays;
+
+/**
+ * This class implements Brzozowski's DFA minimization algorithm: the DFA is
+ * reversed and determinized twice. The reversal of a DFA is an NFA whose
+ * initial states are the accepting states of the DFA, so each pass is a subset
+ * construction over the incoming transitions of the input, grouped by the
+ * alphabet classes. The second pass yields the minimal DFA having no states
+ * from which no accepting state is reachable.
+ *
+ * <p>The intermediate DFA may be exponentially larger than the input, so the
+ * algorithm pays off when the reversal of the input is close to
+ * deterministic. Both passes are charged against a
+ * {@link DeterminizationBudget}: the states of each pass count against the
+ * state limit, while the work and the deadline are shared by the passes.
+ */
+final class BrzozowskiMinimizer {
+
+    private final IndexedDeterministicFiniteAutomaton dfa;
+    private final int classCount;
+    private final DeterminizationBudget budget;
+    private final long maximumNanos;
+    private final long startNanos;
+    private long work;
+
+    /**
+     * The incoming transitions of the state {@code q} are at the indices from
+     * {@code inverseStarts[q]} (inclusive) to {@code inverseStarts[q + 1]}
+     * (exclusive) of {@link #inverseSources} and {@link #inverseClassIds}.
+     */
+    private final int[] inverseStarts;
+    private final int[] inverseSources;
+    private final int[] inverseClassIds;
+
+    private final SubsetTable subsetTable = new SubsetTable();
+    private final SparseIntSet current;
+    private final SparseIntSet next;
+
+    // The scratch space of grouping the predecessors by class:
+    private final int[] classCounts;
+    private final int[] touchedClassIds;
+    private int[] pairClassIds = new int[16];
+    private int[] pairSources = new int[16];
+    private int[] groupedSources = new int[16];
+
+    // The table of the resulting DFA:
+    private int[] transitions;
+    private boolean[] accepting;
+
+    private BrzozowskiMinimizer(IndexedDeterministicFiniteAutomaton dfa,
+                                DeterminizationBudget budget,
+                                long startNanos,
+                                long work) {
+        int stateCount = dfa.getNumberOfStates();
+
+        this.dfa = dfa;
+        this.classCount = dfa.getClassCount();
+        this.budget = budget;
+        this.maximumNanos = budget.getMaximumNanos();
+        this.startNanos = startNanos;
+        this.work = work;
+        this.inverseStarts = new int[stateCount + 1];
+
+        for (int state = 0; state < stateCount; ++state) {
+            for (int classId = 0; classId < classCount; ++classId) {
+                int target = dfa.getTransition(state, classId);
+
+                if (target != IndexedDeterministicFiniteAutomaton.DEAD_STATE) {
+                    ++inverseStarts[target + 1];
+                }
+            }
+        }
+
+        for (int state = 0; state < stateCount; ++state) {
+            inverseStarts[state + 1] += inverseStarts[state];
+        }
+
+        this.inverseSources = new int[inverseStarts[stateCount]];
+        this.inverseClassIds = new int[inverseStarts[stateCount]];
+
+        int[] fill = Arrays.copyOf(inverseStarts, stateCount);
+
+        for (int state = 0; state < stateCount; ++state) {
+            for (int classId = 0; classId < classCount; ++classId) {
+                int target = dfa.getTransition(state, classId);
+
+                if (target != IndexedDeterministicFiniteAutomaton.DEAD_STATE) {
+                    int index = fill[target]++;
+
+                    inverseSources[index] = state;
+                    inverseClassIds[index] = classId;
+                }
+            }
+        }
+
+        this.current = new SparseIntSet(stateCount);
+        this.next = new SparseIntSet(stateCount);
+        this.classCounts = new int[classCount];
+        this.touchedClassIds = new int[classCount];
+        this.transitions = new int[16 * classCount];
+        this.accepting = new boolean[16];
+    }
+
+    /**
+     * Minimizes the input DFA.
+     *
+     * @param dfa the DFA to minimize.
+     * @return the minimal DFA.
+     */
+    static IndexedDeterministicFiniteAutomaton
+        minimize(IndexedDeterministicFiniteAutomaton dfa) {
+
+        return minimize(dfa, DeterminizationBudget.UNLIMITED);
+    }
+
+    /**
+     * Minimizes the input DFA within the input budget.
+     *
+     * @param dfa    the DFA to minimize.
+     * @param budget the resource limits of the minimization.
+     * @return the minimal DFA.
+     * @throws DeterminizationBudgetExceededException if the budget is 
+     *                                                exceeded.
+     */
+    static IndexedDeterministicFiniteAutomaton
+        minimize(IndexedDeterministicFiniteAutomaton dfa,
+                 DeterminizationBudget budget) {
+
+        BrzozowskiMinimizer firstPass =
+            new BrzozowskiMinimizer(dfa, budget, System.nanoTime(), 0L);
+
+        IndexedDeterministicFiniteAutomaton reversal = firstPass.convert();
+
+        return new BrzozowskiMinimizer(reversal,
+                                       budget,
+                                       firstPass.startNanos,
+                                       firstPass.work).convert();
+    }
+
+    /**
+     * Builds the DFA accepting the reversals of the strings accepted by the
+     * input DFA. The states are numbered in the breadth-first order.
+     *
+     * @param dfa the DFA to reverse.
+     * @return the deterministic reversal.
+     */
+    static IndexedDeterministicFiniteAutomaton
+        reverseAndDeterminize(IndexedDeterministicFiniteAutomaton dfa) {
+
+        return new BrzozowskiMinimizer(dfa,
+                                       DeterminizationBudget.UNLIMITED,
+                                       System.nanoTime(),
+                                       0L).convert();
+    }
+
+    private IndexedDeterministicFiniteAutomaton convert() {
+        for (int state = 0; state < dfa.getNumberOfStates(); ++state) {
+            if (dfa.isAcceptingState(state)) {
+                current.add(state);
+            }
+        }
+
+        addRow(subsetTable.getOrAdd(current), current);
+
+        for (int id = 0; id < subsetTable.size(); ++id) {
+            checkDuration();
+            subsetTable.getSubset(id, current);
+            subsetTable.releaseBelow(id + 1);
+
+            int touchedCount = groupPredecessorsByClass();
+            int offset = 0;
+
+            for (int k = 0; k < touchedCount; ++k) {
+                int classId = touchedClassIds[k];
+                int end = classCounts[classId];
+
+                classCounts[classId] = 0;
+                next.clear();
+
+                for (int g = offset; g < end; ++g) {
+                    next.add(groupedSources[g]);
+                }
+
+                offset = end;
+
+                int size = subsetTable.size();
+                int targetId = subsetTable.getOrAdd(next);
+
+                if (targetId == size) {
+                    addRow(targetId, next);
+                }
+
+                transitions[id * classCount + classId] = targetId;
+            }
+        }
+
+        int stateCount = subsetTable.size();
+
+        return new IndexedDeterministicFiniteAutomaton(
+            dfa.getAlphabetPartition(),
+            Arrays.copyOf(transitions, stateCount * classCount),
+            Arrays.copyOf(accepting, stateCount),
+            dfa.isAnchoredAtStart(),
+            dfa.isAnchoredAtEnd());
+    }
+
+    /**
+     * Adds the row of the state for a newly interned subset. The state is
+     * accepting if and only if the subset contains the initial state of the
+     * input DFA.
+     *
+     * @param id     the ID of the subset.
+     * @param subset the subset.
+     */
+    private void addRow(int id, SparseIntSet subset) {
+        if (id == budget.maximumNumberOfStates()) {
+            throw new DeterminizationBudgetExceededException(
+                "The Brzozowski minimization exceeded the maximum number of "
+                    + "states (" + budget.maximumNumberOfStates() + ").");
+        }
+
+        if (accepting.length == id) {
+            accepting = Arrays.copyOf(accepting, 2 * id);
+            transitions = Arrays.copyOf(transitions, 2 * id * classCount);
+        }
+
+        Arrays.fill(transitions,
+                    id * classCount,
+                    (id + 1) * classCount,
+                    IndexedDeterministicFiniteAutomaton.DEAD_STATE);
+
+        accepting[id] = subset.contains(0);
+    }
+
+    /**
+     * Collects the predecessors of the states in {@link #current}, grouped
+     * by the class of the transition. After the call, the predecessors on the
+     * {@code k}th touched class end at the index
+     * {@code classCounts[touchedClassIds[k]]} of {@link #groupedSources}.
+     *
+     * @return the number of touched classes.
+     */
+    private int groupPredecessorsByClass() {
+        int pairCount = 0;
+        int touchedCount = 0;
+
+        for (int i = 0; i < current.size(); ++i) {
+            int target = current.get(i);
+            int count = inverseStarts[target + 1] - inverseStarts[target];
+
+            if (pairCount + count > pairSources.length) {
+                int capacity = Math.max(pairCount + count,
+                                        2 * pairSources.length);
+
+                pairSources = Arrays.copyOf(pairSources, capacity);
+                pairClassIds = Arrays.copyOf(pairClassIds, capacity);
+            }
+
+            for (int j = inverseStarts[target];
+                     j < inverseStarts[target + 1];
+                     ++j) {
+
+                int classId = inverseClassIds[j];
+
+                if (classCounts[classId]++ == 0) {
+                    touchedClassIds[touchedCount++] = classId;
+                }
+
+                pairClassIds[pairCount] = classId;
+                pairSources[pairCount++] = inverseSources[j];
+            }
+        }
+
+        addWork(pairCount);
+
+        // Process the classes in the ascending order, so that the numbering
+        // of the states does not depend on the order of the subset states:
+        Arrays.sort(touchedClassIds, 0, touchedCount);
+
+        int offset = 0;
+
+        for (int k = 0; k < touchedCount; ++k) {
+            int classId = touchedClassIds[k];
+            int count = classCounts[classId];
+
+            classCounts[classId] = offset;
+            offset += count;
+        }
+
+        if (groupedSources.length < pairCount) {
+            groupedSources = new int[Math.max(pairCount,
+                                              2 * groupedSources.length)];
+        }
+
+        for (int p = 0; p < pairCount; ++p) {
+            groupedSources[classCounts[pairClassIds[p]]++] = pairSources[p];
+        }
+
+        return touchedCount;
+    }
+
+    private void addWork(int amount) {
+        work += amount;
+
+        if (work > budget.maximumWork()) {
+            throw new DeterminizationBudgetExceededException(
+                "The Brzozowski minimization exceeded the maximum work ("
+                    + budget.maximumWork() + ").");
+        }
+    }
+
+    private void checkDuration() {
+        if (System.nanoTime() - startNanos > maximumNanos) {
+            throw new DeterminizationBudgetExceededException(
+                "The Brzozowski minimization exceeded the maximum duration ("
+                    + budget.maximumDuration() + ").");
+        }
+    }
+}
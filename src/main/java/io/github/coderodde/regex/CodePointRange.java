@@ -132,6 +132,27 @@ public final class CodePointRange implements Comparable<CodePointRange>,
         return 0;
     }
     
+    /**
+     * Compares this range to the single code point range 
+     * {@code [codePoint, codePoint]} just like 
+     * {@link #compareTo(CodePointRange)} does, but without allocating it.
+     * 
+     * @param codePoint the code point to compare against.
+     * @return -1, 0 or 1 if this range is entirely below, contains or is 
+     *         entirely above the code point, respectively.
+     */
+    int compareToCodePoint(int codePoint) {
+        if (this.maximumCodePoint < codePoint) {
+            return -1;
+        }
+        
+        if (this.minimumCodePoint > codePoint) {
+            return 1;
+        }
+        
+        return 0;
+    }
+    
     @Override
     public String toString() {
         if (negated) {
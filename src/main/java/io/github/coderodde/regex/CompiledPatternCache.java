@@ -0,0 +1,416 @@
+package io.github.coderodde.regex;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * This class implements a bounded, thread-safe cache of the matchers compiled
+ * via {@link RegexToolkit#compile(String, DeterministicFiniteAutomaton.MinimizationAlgorithm, DeterminizationBudget, ForkJoinPool)},
+ * keyed by the pattern and the minimization algorithm. All the patterns are
+ * compiled under the budget and on the pool the cache was constructed with,
+ * and whatever matcher results is cached, be it a frozen DFA, an NFA or a
+ * lazy DFA.
+ *
+ * <p>The cache hits are lock-free. The concurrent requests for a pattern not
+ * in the cache are coalesced, so that only one of them compiles the pattern
+ * and the others wait for the result. Once the number of entries or their
+ * estimated total size in bytes exceeds its limit, the least recently used
+ * entries are evicted. The failed compilations are not cached.
+ *
+ * <p>A frozen DFA builds its search helper DFAs on the first search needing
+ * them, so a pattern used only for {@link RegularExpressionMatcher#matches}
+ * never pays for them. Each time a helper is built, the entry is accounted
+ * for anew, which may evict entries, the grown one included.
+ */
+public final class CompiledPatternCache {
+
+    private final int maximumNumberOfEntries;
+    private final long maximumNumberOfBytes;
+    private final DeterminizationBudget budget;
+
+    /**
+     * The pool for the compilations, or {@code null} for compiling in the
+     * requesting threads.
+     */
+    private final ForkJoinPool pool;
+
+    private final ConcurrentHashMap<Key, Entry> entries =
+        new ConcurrentHashMap<>();
+
+    /**
+     * Hands out the access stamps of the entries.
+     */
+    private final AtomicLong clock = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Guards the admission and eviction of the entries along with the three
+     * fields below.
+     */
+    private final Object evictionLock = new Object();
+    private int admittedEntries;
+    private long admittedBytes;
+
+    /**
+     * The admitted entries ordered by their queued stamps.
+     */
+    private final PriorityQueue<Entry> evictionQueue =
+        new PriorityQueue<>(
+            Comparator.comparingLong(entry -> entry.queuedStamp));
+
+    /**
+     * Constructs a cache bounded by the number of entries only.
+     *
+     * @param maximumNumberOfEntries the maximum number of cached matchers.
+     */
+    public CompiledPatternCache(int maximumNumberOfEntries) {
+        this(maximumNumberOfEntries, Long.MAX_VALUE);
+    }
+
+    /**
+     * Constructs a cache bounded by both the number of entries and their
+     * estimated total size.
+     *
+     * @param maximumNumberOfEntries the maximum number of cached matchers.
+     * @param maximumNumberOfBytes   the maximum estimated total size of the
+     *                               cached matchers in bytes.
+     */
+    public CompiledPatternCache(int maximumNumberOfEntries,
+                                long maximumNumberOfBytes) {
+        this(maximumNumberOfEntries,
+             maximumNumberOfBytes,
+             DeterminizationBudget.UNLIMITED,
+             null);
+    }
+
+    /**
+     * Constructs a cache bounded by both the number of entries and their
+     * estimated total size, compiling the patterns under the input budget.
+     *
+     * @param maximumNumberOfEntries the maximum number of cached matchers.
+     * @param maximumNumberOfBytes   the maximum estimated total size of the
+     *                               cached matchers in bytes.
+     * @param budget                 the resource limits of the subset
+     *                               constructions.
+     * @param pool                   the pool for the compilations. If set to
+     *                               {@code null}, the patterns are compiled
+     *                               in the requesting threads.
+     */
+    public CompiledPatternCache(int maximumNumberOfEntries,
+                                long maximumNumberOfBytes,
+                                DeterminizationBudget budget,
+                                ForkJoinPool pool) {
+
+        Objects.requireNonNull(budget, "The input budget is null.");
+
+        if (maximumNumberOfEntries < 1) {
+            throw new IllegalArgumentException(
+                "The maximum number of entries (" + maximumNumberOfEntries
+                    + ") is less than 1.");
+        }
+
+        if (maximumNumberOfBytes < 1L) {
+            throw new IllegalArgumentException(
+                "The maximum number of bytes (" + maximumNumberOfBytes
+                    + ") is less than 1.");
+        }
+
+        this.maximumNumberOfEntries = maximumNumberOfEntries;
+        this.maximumNumberOfBytes = maximumNumberOfBytes;
+        this.budget = budget;
+        this.pool = pool;
+    }
+
+    /**
+     * Returns the cached matcher for the input pattern and algorithm,
+     * compiling it first if needed.
+     *
+     * @param regex     the regular expression to match.
+     * @param algorithm the minimization algorithm choice. If set to
+     *                  {@code null}, no minimization on the DFA is done.
+     * @return the regex matcher.
+     * @throws DeterminizationBudgetExceededException if the budget is exceeded
+     *                                                and its policy is
+     *                                                {@code FAIL}.
+     */
+    public RegularExpressionMatcher
+        compile(String regex,
+                DeterministicFiniteAutomaton.MinimizationAlgorithm algorithm) {
+
+        Objects.requireNonNull(regex, "The input regex is null.");
+
+        Key key = new Key(regex, algorithm);
+        Entry entry = entries.get(key);
+
+        if (entry == null) {
+            Entry newEntry = new Entry(key);
+            entry = entries.putIfAbsent(key, newEntry);
+
+            if (entry == null) {
+                misses.increment();
+                return load(key, newEntry);
+            }
+        }
+
+        hits.increment();
+        entry.accessStamp = clock.incrementAndGet();
+        return await(entry);
+    }
+
+    /**
+     * Returns the current statistics of this cache.
+     *
+     * @return the statistics.
+     */
+    public Statistics getStatistics() {
+        synchronized (evictionLock) {
+            return new Statistics(hits.sum(),
+                                  misses.sum(),
+                                  evictions.sum(),
+                                  admittedEntries,
+                                  admittedBytes);
+        }
+    }
+
+    /**
+     * Removes all the compiled matchers from this cache. The compilations in
+     * flight are not affected. The statistics are kept.
+     */
+    public void clear() {
+        synchronized (evictionLock) {
+            for (Map.Entry<Key, Entry> mapEntry : entries.entrySet()) {
+                Entry entry = mapEntry.getValue();
+
+                if (entry.admitted) {
+                    entries.remove(mapEntry.getKey(), entry);
+                    entry.admitted = false;
+                    admittedEntries--;
+                    admittedBytes -= entry.numberOfBytes;
+                }
+            }
+
+            evictionQueue.clear();
+        }
+    }
+
+    private RegularExpressionMatcher load(Key key, Entry entry) {
+        RegularExpressionMatcher matcher;
+
+        try {
+            matcher = RegexToolkit.compile(key.regex(),
+                                           key.algorithm(),
+                                           budget,
+                                           pool);
+        } catch (RuntimeException | Error ex) {
+            entries.remove(key, entry);
+            entry.future.completeExceptionally(ex);
+            throw ex;
+        }
+
+        if (matcher instanceof FrozenDeterministicFiniteAutomaton dfa) {
+            dfa.setHelperListener(() -> reaccount(entry, dfa));
+        }
+
+        entry.numberOfBytes = estimateNumberOfBytes(matcher);
+        entry.accessStamp = clock.incrementAndGet();
+        entry.future.complete(matcher);
+        admit(entry);
+        return matcher;
+    }
+
+    /**
+     * Estimates the size of the input matcher produced by
+     * {@link RegexToolkit}. A frozen DFA is accounted for along with the
+     * search helpers built so far, and a lazy DFA with its state caches full.
+     *
+     * @param matcher the compiled matcher.
+     * @return the estimated size in bytes.
+     */
+    private static long estimateNumberOfBytes(
+            RegularExpressionMatcher matcher) {
+
+        if (matcher instanceof FrozenDeterministicFiniteAutomaton dfa) {
+            return dfa.getEstimatedNumberOfBytes();
+        }
+
+        if (matcher instanceof LazyDeterministicFiniteAutomaton dfa) {
+            return dfa.getEstimatedNumberOfBytes();
+        }
+
+        return ((NondeterministicFiniteAutomaton) matcher)
+                .getEstimatedNumberOfBytes();
+    }
+
+    /**
+     * Accounts for the input loaded entry and evicts the least recently used
+     * entries while any of the limits is exceeded. An entry exceeding the
+     * size limit on its own is evicted right away, yet still returned to the
+     * requests that loaded or awaited it.
+     *
+     * @param entry the loaded entry.
+     */
+    private void admit(Entry entry) {
+        synchronized (evictionLock) {
+            entry.admitted = true;
+            entry.queuedStamp = entry.accessStamp;
+            evictionQueue.add(entry);
+            admittedEntries++;
+            admittedBytes += entry.numberOfBytes;
+            evictWhileOverLimits();
+        }
+    }
+
+    /**
+     * Accounts for the input entry anew after its frozen DFA has built or
+     * dropped search helpers, and evicts the least recently used entries
+     * while any of the limits is exceeded. An entry no longer admitted only
+     * gets its size updated.
+     *
+     * @param entry the entry of the frozen DFA.
+     * @param dfa   the frozen DFA.
+     */
+    private void reaccount(Entry entry,
+                           FrozenDeterministicFiniteAutomaton dfa) {
+        synchronized (evictionLock) {
+            long numberOfBytes = dfa.getEstimatedNumberOfBytes();
+
+            if (entry.admitted) {
+                admittedBytes += numberOfBytes - entry.numberOfBytes;
+            }
+
+            entry.numberOfBytes = numberOfBytes;
+            evictWhileOverLimits();
+        }
+    }
+
+    private void evictWhileOverLimits() {
+        while (admittedEntries > maximumNumberOfEntries
+                || admittedBytes > maximumNumberOfBytes) {
+            evictLeastRecentlyUsed();
+        }
+    }
+
+    /**
+     * Evicts the admitted entry with the smallest access stamp. Since the hits
+     * update the access stamps without locking, the queue is ordered by the
+     * stamps the entries had when queued. An entry polled with a newer stamp
+     * is requeued under it, and an entry whose stamp is unchanged is the
+     * least recently used one. Each requeue follows at least one hit, so an
+     * eviction takes amortized logarithmic time.
+     */
+    private void evictLeastRecentlyUsed() {
+        while (true) {
+            Entry victim = evictionQueue.poll();
+            long accessStamp = victim.accessStamp;
+
+            if (accessStamp != victim.queuedStamp) {
+                victim.queuedStamp = accessStamp;
+                evictionQueue.add(victim);
+                continue;
+            }
+
+            entries.remove(victim.key, victim);
+            victim.admitted = false;
+            admittedEntries--;
+            admittedBytes -= victim.numberOfBytes;
+            evictions.increment();
+            return;
+        }
+    }
+
+    private static RegularExpressionMatcher await(Entry entry) {
+        try {
+            return entry.future.join();
+        } catch (CompletionException ex) {
+            Throwable cause = ex.getCause();
+
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+
+            if (cause instanceof Error error) {
+                throw error;
+            }
+
+            throw ex;
+        }
+    }
+
+    /**
+     * The statistics of a compiled pattern cache. The hits include the
+     * requests coalesced with a compilation in flight.
+     *
+     * @param hits            the number of requests served from the cache.
+     * @param misses          the number of requests that compiled a pattern.
+     * @param evictions       the number of evicted entries.
+     * @param numberOfEntries the current number of cached matchers.
+     * @param numberOfBytes   the current estimated total size of the cached
+     *                        matchers in bytes.
+     */
+    public record Statistics(long hits,
+                             long misses,
+                             long evictions,
+                             int numberOfEntries,
+                             long numberOfBytes) {
+
+        /**
+         * Returns the ratio of the hits to all the requests.
+         *
+         * @return the hit rate, or zero if there were no requests.
+         */
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0L ? 0.0 : (double) hits / requests;
+        }
+    }
+
+    private record Key(
+            String regex,
+            DeterministicFiniteAutomaton.MinimizationAlgorithm algorithm) {}
+
+    private static final class Entry {
+
+        final Key key;
+
+        final CompletableFuture<RegularExpressionMatcher> future =
+            new CompletableFuture<>();
+
+        /**
+         * The larger the stamp, the more recently the entry was used.
+         */
+        volatile long accessStamp;
+
+        /**
+         * Written before the future is completed, and later under the
+         * eviction lock as the search helpers are built.
+         */
+        volatile long numberOfBytes;
+
+        /**
+         * Whether the entry is accounted for in the limits. Guarded by the
+         * eviction lock.
+         */
+        boolean admitted;
+
+        /**
+         * The access stamp of the entry when it was last put into the
+         * eviction queue. Guarded by the eviction lock.
+         */
+        long queuedStamp;
+
+        Entry(Key key) {
+            this.key = key;
+        }
+    }
+}
@@ -1,18 +1,16 @@
     package io.github.coderodde.regex;
 
     import io.github.coderodde.regex.DeterministicFiniteAutomatonStateTransitionFunction.TransitionFunctionEntry;
-    import java.util.ArrayDeque;
     import java.util.ArrayList;
     import java.util.Collections;
-    import java.util.Deque;
     import java.util.HashMap;
     import java.util.HashSet;
-    import java.util.LinkedList;
+    import java.util.Iterator;
     import java.util.List;
-    import java.util.ListIterator;
     import java.util.Map;
     import java.util.Objects;
     import java.util.Set;
+    import java.util.concurrent.ForkJoinPool;
 
     /**
      * This class implements a deterministic finite automaton.
@@ -25,7 +23,34 @@
          */
         public enum MinimizationAlgorithm {
             HOPCROFT,
-            MOORE;
+            MOORE,
+            
+            /**
+             * Moore's algorithm with the rounds running on a 
+             * {@link ForkJoinPool}. Yields the same DFA as {@link #MOORE}.
+             */
+            PARALLEL_MOORE,
+            
+            /**
+             * The Valmari–Lehtinen algorithm, running in time proportional to
+             * the number of the existing transitions rather than the number 
+             * of states times the number of alphabet classes.
+             */
+            VALMARI_LEHTINEN,
+            
+            /**
+             * Brzozowski's algorithm: reversing and determinizing twice. 
+             * Unlike the other algorithms, it also removes the states from 
+             * which no accepting state is reachable.
+             */
+            BRZOZOWSKI,
+            
+            /**
+             * Picks one of the other algorithms from the number of states, the
+             * number of alphabet classes and the transition density of the 
+             * DFA.
+             */
+            AUTO;
         }
 
         /**
@@ -49,6 +74,21 @@
         private final Set<DeterministicFiniteAutomatonState> acceptingStateSet = 
                 new HashSet<>();
         
+        /**
+         * The cached DFA accepting all the strings having a suffix accepted by 
+         * this DFA. Used by {@link #find(java.lang.String)}. Reset on every 
+         * modification of this DFA. Volatile, since the matching methods may 
+         * build it concurrently.
+         */
+        private volatile DeterministicFiniteAutomaton unanchoredDfa;
+        
+        /**
+         * The cached frozen version of this DFA. Used by the match position 
+         * methods. Reset on every 
+         * modification of this DFA.
+         */
+        private volatile FrozenDeterministicFiniteAutomaton frozenDfa;
+        
         /**
          * Constructs an empty DFA with no states and transitions.
          */
@@ -72,6 +112,9 @@
                DeterministicFiniteAutomaton other) {
             
             Objects.requireNonNull(other, "The input DFA is null.");
+            
+            this.anchoredAtStart = other.anchoredAtStart;
+            this.anchoredAtEnd   = other.anchoredAtEnd;
 
             Map<DeterministicFiniteAutomatonState, 
                 DeterministicFiniteAutomatonState> stateMap = new HashMap<>();
@@ -166,6 +209,7 @@
                 Objects.requireNonNull(q, "The input state is null."));
 
             states.add(q);
+            invalidateCaches();
         }
 
         public void addTransition(DeterministicFiniteAutomatonState startState,
@@ -183,6 +227,7 @@
 
             states.add(startState);
             states.add(goalState);
+            invalidateCaches();
         }
 
         public void addTransition(DeterministicFiniteAutomatonState startState,
@@ -226,6 +271,15 @@
                             "The input initial state is null.");
 
             this.states.add(initialState);
+            invalidateCaches();
+        }
+
+        boolean isAnchoredAtStart() {
+            return anchoredAtStart;
+        }
+        
+        boolean isAnchoredAtEnd() {
+            return anchoredAtEnd;
         }
 
         /**
@@ -265,348 +319,214 @@
             return acceptingStateSet.contains(state);
         }
         
+        /**
+         * Checks whether some substring of the input text belongs to the 
+         * regular language recognized by this DFA. Runs in a single pass over 
+         * {@code text}: unless anchored at start, the scan is done on the 
+         * unanchored version of this DFA.
+         * 
+         * @param text the text to search.
+         * @return {@code true} only if {@code text} contains a match.
+         */
+        @Override
         public boolean find(String text) {
             Objects.requireNonNull(text, "The input text is null.");
             
-            int[] codePoints = text.codePoints().toArray();
+            DeterministicFiniteAutomaton dfa = 
+                anchoredAtStart ? this : getUnanchoredDfa();
             
-            if (anchoredAtStart) {
-                return findStartingAt(codePoints, 0);
+            if (anchoredAtEnd) {
+                DeterministicFiniteAutomatonState state = dfa.deltaStar(text);
+                return state != null && dfa.acceptingStateSet.contains(state);
             }
             
-            for (int startIndex = 0; 
-                     startIndex <= codePoints.length;
-                     startIndex++) {
-                if (findStartingAt(codePoints, startIndex)) {
-                    return true;
-                }
+            return dfa.reachesAcceptingState(text);
+        }
+        
+        /**
+         * Finds the leftmost-longest match. The search runs on the frozen 
+         * version of this DFA, which is built on the first call to any of the
+         * match position methods.
+         * 
+         * @param text the text to search.
+         * @param from the index at which to start searching.
+         * @return the position of the match, or {@code null} if there is no 
+         *         match.
+         */
+        @Override
+        public MatchPosition findMatch(CharSequence text, int from) {
+            return getFrozenDfa().findMatch(text, from);
+        }
+        
+        @Override
+        public Iterator<MatchPosition> findAll(CharSequence text) {
+            return getFrozenDfa().findAll(text);
+        }
+        
+        @Override
+        public void forEachMatch(CharSequence text, MatchConsumer consumer) {
+            getFrozenDfa().forEachMatch(text, consumer);
+        }
+        
+        private FrozenDeterministicFiniteAutomaton getFrozenDfa() {
+            FrozenDeterministicFiniteAutomaton result = frozenDfa;
+            
+            if (result == null) {
+                result = freeze();
+                frozenDfa = result;
             }
             
-            return false;
+            return result;
         }
         
-        private boolean findStartingAt(int[] codePoints, int startIndex) {
+        /**
+         * Scans the input text from the beginning and stops as soon as an 
+         * accepting state is reached.
+         * 
+         * @param text the text to scan.
+         * @return {@code true} only if some prefix of {@code text} is accepted.
+         */
+        private boolean reachesAcceptingState(String text) {
             DeterministicFiniteAutomatonState state = initialState;
+            int n = text.length();
+            int index = 0;
             
-            if (acceptingStateSet.contains(state)) {
-                return !anchoredAtEnd || startIndex == codePoints.length;
-            }
-            
-            for (int i = startIndex; i < codePoints.length; i++) {
-                state = state.traverse(codePoints[i]);
+            while (true) {
+                if (acceptingStateSet.contains(state)) {
+                    return true;
+                }
                 
-                if (state == null) {
+                if (index == n) {
                     return false;
                 }
                 
-                if (acceptingStateSet.contains(state)) {
-                    if (!anchoredAtEnd || i + 1 == codePoints.length) {
-                        return true;
-                    }
+                int codePoint = text.codePointAt(index);
+                state = state.traverse(codePoint);
+                
+                if (state == null) {
+                    return false;
                 }
-            }
-            
-            return false;
-        }
-
-        public String computeRegularExression() {
-            return new GeneralizedNondeterministicFiniteAutomaton(this)
-                .toRegularExpression();
-        }
-
-        public DeterministicFiniteAutomaton 
-            minimize(MinimizationAlgorithm algorithm) {
-
-            Objects.requireNonNull(
-                algorithm,
-                "The minimization algorithm selector is null.");
-
-            DeterministicFiniteAutomaton targetDfa = 
-                    new DeterministicFiniteAutomaton(this);
-
-            Set<DeterministicFiniteAutomatonState> reachableStateSet = 
-                targetDfa.getAllReachableStates();
-
-            targetDfa.pruneUnreachableStates(reachableStateSet);
-
-            switch (algorithm) {
-                case HOPCROFT:
-                    return buildDfaImpl(
-                        targetDfa.minimizeViaHopcroftsAlgorithmImpl());
-
-                case MOORE:
-                    return buildDfaImpl(
-                        targetDfa.minimizeViaMooresAlgorithmImpl());
-
-                default:
-                    throw new EnumConstantNotPresentException(
-                        MinimizationAlgorithm.class, 
-                        algorithm.name());
+                
+                index += Character.charCount(codePoint);
             }
         }
-
-        private DeterministicFiniteAutomaton buildDfaImpl(
-            List<Set<DeterministicFiniteAutomatonState>> equivalenceClasses) {
-
-            int stateId = 0;
-            DeterministicFiniteAutomaton dfa = new DeterministicFiniteAutomaton();
-            Map<Set<DeterministicFiniteAutomatonState>, 
-                    DeterministicFiniteAutomatonState> blockToStateMap = 
-                    new HashMap<>(equivalenceClasses.size());
+        
+        /**
+         * Returns the unanchored version of this DFA, building it on the first
+         * call. The unanchored DFA recognizes the language {@code .*L}, where 
+         * {@code L} is the language of this DFA.
+         * 
+         * @return the unanchored DFA.
+         */
+        DeterministicFiniteAutomaton getUnanchoredDfa() {
+            DeterministicFiniteAutomaton result = unanchoredDfa;
             
-            Map<DeterministicFiniteAutomatonState,
-                Set<DeterministicFiniteAutomatonState>> stateToBlockMap = 
-                    new HashMap<>();
-
-            // Create all states of the minimized DFA. Also, sets the initial state
-            // and possibly creates the accepting state set:
-            for (Set<DeterministicFiniteAutomatonState> equivalenceClass
-                    : equivalenceClasses) {
-
-                DeterministicFiniteAutomatonState newState = 
-                        new DeterministicFiniteAutomatonState(stateId++);
-
-                blockToStateMap.put(equivalenceClass, newState);
-                
-                for (DeterministicFiniteAutomatonState oldState
-                    : equivalenceClass) {
-                    
-                    stateToBlockMap.put(oldState, equivalenceClass);
+            if (result == null) {
+                if (initialState == null) {
+                    throw new IllegalStateException(
+                        "The initial state is not set.");
                 }
                 
-                if (equivalenceClass.contains(initialState)) {
-                    dfa.setInitialState(newState);
-                }
+                NondeterministicFiniteAutomaton nfa = toNFA();
                 
-                if (!Utils.intersection(
-                        equivalenceClass, 
-                        acceptingStateSet).isEmpty()) {
-                    
-                    dfa.addAcceptingState(newState);
-                }
-            }
-
-            // Builds the state transitions:
-            for (Set<DeterministicFiniteAutomatonState> equivalenceClass 
-                    : equivalenceClasses) {
-
-                DeterministicFiniteAutomatonState representativeState = 
-                    equivalenceClass.iterator().next();
+                // Prepend the '.*' loop:
+                NondeterministicFiniteAutomatonState loopState = 
+                    nfa.createState();
                 
-                DeterministicFiniteAutomatonState sourceState = 
-                    blockToStateMap.get(equivalenceClass);
+                loopState.addDotTransition(loopState);
+                loopState.addEpsilonTransition(nfa.getInitialState());
+                nfa.setInitialState(loopState);
                 
-                for (CodePointRange codePointRange 
-                    : representativeState.getTransitionFunction().getAlphabet()) {
-                    
-                    DeterministicFiniteAutomatonState oldTargetState = 
-                        representativeState.traverse(codePointRange);
-                    
-                    Set<DeterministicFiniteAutomatonState> targetBlock = 
-                        stateToBlockMap.get(oldTargetState);
-                    
-                    DeterministicFiniteAutomatonState targetState = 
-                        blockToStateMap.get(targetBlock);
-                    
-                    dfa.addTransition(sourceState, 
-                                      codePointRange,
-                                      targetState);
-                }
+                result = nfa.convertToDeterministicFiniteAutomaton();
+                unanchoredDfa = result;
             }
-
-            return dfa;
+            
+            return result;
         }
 
-        private List<Set<DeterministicFiniteAutomatonState>>
-             minimizeViaMooresAlgorithmImpl() {
-             List<Set<DeterministicFiniteAutomatonState>> p = new ArrayList<>();
-             
-             Set<DeterministicFiniteAutomatonState> bacc = 
-                     new HashSet<>(getAcceptingStates());
-             
-             Set<DeterministicFiniteAutomatonState> brej = 
-                 setminus(new HashSet<>(states),
-                          new HashSet<>(acceptingStateSet));
-
-             if (!bacc.isEmpty()) {
-                 p.add(bacc);
-             }
-
-             if (!brej.isEmpty()) {
-                 p.add(brej);
-             }
-
-             Map<DeterministicFiniteAutomatonState, Integer> blockIdMap = 
-                 buildBlockIdMap(p);
-
-             boolean changed = true;
-
-             while (changed) {
-                 changed = false;
-
-                 List<Set<DeterministicFiniteAutomatonState>> pNew = 
-                     new ArrayList<>();
-
-                 for (Set<DeterministicFiniteAutomatonState> block : p) {
-                     
-                     Map<List<Integer>, 
-                         Set<DeterministicFiniteAutomatonState>> groups =
-                             new HashMap<>();
-
-                     for (DeterministicFiniteAutomatonState q : block) {
-                         List<Integer> signature = new ArrayList<>();
-
-                         for (CodePointRange codePointRange 
-                             : getTotalAlphabet()) {
-                             
-                             DeterministicFiniteAutomatonState nextState =
-                                     q.traverse(codePointRange);
-
-                             Integer blockId = blockIdMap.get(nextState);
-                             
-                             signature.add(blockId);
-                         } 
-
-                         groups.computeIfAbsent(
-                             signature, 
-                             x -> new HashSet<>()).add(q);
-                     }
-
-                     if (groups.size() == 1) {
-                         pNew.add(block);
-                     } else {
-                         changed = true;
-                         pNew.addAll(groups.values());
-                     }
-                 }
-
-                 p = pNew;
-                 blockIdMap = buildBlockIdMap(p);
-             }
-
-             return p;
+        private void invalidateCaches() {
+            unanchoredDfa = null;
+            frozenDfa     = null;
         }
-
-        private Map<DeterministicFiniteAutomatonState, Integer>
-            buildBlockIdMap(List<Set<DeterministicFiniteAutomatonState>> p) {
-                
-            Map<DeterministicFiniteAutomatonState, Integer> blockIdMap = 
-                    new HashMap<>();
-
-            int id = 0;
-
-            for (Set<DeterministicFiniteAutomatonState> block : p) {
-                for (DeterministicFiniteAutomatonState q : block) {
-                    blockIdMap.put(q, id);
-                }
-
-                ++id;
-            }
-
-            return blockIdMap;
+        
+        /**
+         * Freezes this DFA into an immutable, table-driven matcher. Only the 
+         * states reachable from the initial state make it to the result. The 
+         * initial state receives the ID of zero.
+         * 
+         * @return the frozen version of this DFA.
+         */
+        public FrozenDeterministicFiniteAutomaton freeze() {
+            return IndexedDeterministicFiniteAutomaton.of(this).freeze();
         }
-
+        
         /**
-         * Returns the list of equivalence classes from which a minimized DFA may be
-         * built.
+         * Computes the alphabet partition induced by the transitions of all 
+         * the states in this DFA.
          * 
-         * @return the list of equivalence classes. 
+         * @return the alphabet partition.
          */
-        private List<Set<DeterministicFiniteAutomatonState>>
-             minimizeViaHopcroftsAlgorithmImpl() {
-
-            List<Set<DeterministicFiniteAutomatonState>> p = new LinkedList<>();
-             Set<Set<DeterministicFiniteAutomatonState>> w = new HashSet<>();
-
-            Set<DeterministicFiniteAutomatonState> F = getAcceptingStates();
-
-            if (!F.isEmpty()) {
-                p.add(F);
-                w.add(F);
-            }
-
-            Set<DeterministicFiniteAutomatonState> QminusF = 
-                Utils.difference(getAllStates(), F);
-
-            if (!QminusF.isEmpty()) {
-                p.add(QminusF);
-                w.add(QminusF);
-            }
-
-            while (!w.isEmpty()) {
-                Set<DeterministicFiniteAutomatonState> a = w.iterator().next();
-
-                w.remove(a);
-
-                for (CodePointRange codePoint : getTotalAlphabet()) {
-                    Set<DeterministicFiniteAutomatonState> x = 
-                        getPredecessorStates(codePoint, a);
-
-                    ListIterator<Set<DeterministicFiniteAutomatonState>>
-                            pListIterator = p.listIterator();
-
-                    while (pListIterator.hasNext()) {
-                        Set<DeterministicFiniteAutomatonState> y =
-                                pListIterator.next();
-
-                        Set<DeterministicFiniteAutomatonState> intersection = 
-                                Utils.intersection(x, y);
-
-                        if (intersection.isEmpty()) {
-                            continue;
-                        }
-
-                        Set<DeterministicFiniteAutomatonState> difference = 
-                                Utils.difference(y, x);
-
-                        if (difference.isEmpty()) {
-                            continue;
-                        }
-
-                        pListIterator.remove();
-                        pListIterator.add(intersection);
-                        pListIterator.add(difference);
-
-                        if (w.contains(y)) {
-                            w.remove(y);
-                            w.add(intersection);
-                            w.add(difference);
-                        } else {
-                            if (intersection.size() <= difference.size()) {
-                                w.add(intersection);
-                            } else {
-                                w.add(difference);
-                            }
-                        }
-                    }
+        AlphabetPartition computeAlphabetPartition() {
+            List<CodePointRange> ranges = new ArrayList<>();
+            
+            for (DeterministicFiniteAutomatonState state : states) {
+                for (TransitionFunctionEntry entry 
+                        : state.getTransitionFunction()) {
+                    ranges.add(entry.getCharacterRange());
                 }
             }
-
-            return p;
+            
+            return AlphabetPartition.of(ranges);
         }
 
-        private Set<DeterministicFiniteAutomatonState> 
-            getPredecessorStates(CodePointRange codePointRange,
-                 Set<DeterministicFiniteAutomatonState> targetSet) {
+        public String computeRegularExression() {
+            return new GeneralizedNondeterministicFiniteAutomaton(this)
+                .toRegularExpression();
+        }
 
-            Set<DeterministicFiniteAutomatonState> predecessorStateSet = 
-                    new HashSet<>();
+        /**
+         * Minimizes this DFA via the input algorithm. The parallel algorithms
+         * run on the common pool.
+         * 
+         * @param algorithm the minimization algorithm.
+         * @return the minimized DFA.
+         */
+        public DeterministicFiniteAutomaton 
+            minimize(MinimizationAlgorithm algorithm) {
+            return minimize(algorithm, ForkJoinPool.commonPool());
+        }
+            
+        /**
+         * Minimizes this DFA via the input algorithm. Only 
+         * {@link MinimizationAlgorithm#PARALLEL_MOORE} makes use of the pool.
+         * 
+         * @param algorithm the minimization algorithm.
+         * @param pool      the pool for the parallel algorithms.
+         * @return the minimized DFA.
+         */
+        public DeterministicFiniteAutomaton 
+            minimize(MinimizationAlgorithm algorithm, ForkJoinPool pool) {
 
-            for (DeterministicFiniteAutomatonState q : states) {
-                DeterministicFiniteAutomatonState nextState = 
-                        q.traverse(codePointRange);
-                
-                if (targetSet.contains(nextState)) {
-                    predecessorStateSet.add(q);
-                }
-            }
+            Objects.requireNonNull(
+                algorithm,
+                "The minimization algorithm selector is null.");
+            
+            Objects.requireNonNull(pool, "The input pool is null.");
 
-            return predecessorStateSet;
+            IndexedDeterministicFiniteAutomaton indexedDfa = 
+                IndexedDeterministicFiniteAutomaton.of(this);
+            
+            return indexedDfa.minimize(algorithm, pool)
+                             .toDeterministicFiniteAutomaton();
         }
 
+        /**
+         * Minimizes this DFA via the array-based Moore's algorithm.
+         * 
+         * @return the minimized DFA.
+         */
         public DeterministicFiniteAutomaton minimizeViaMooresAlgorithm() {
-
-            return null;
+            return minimize(MinimizationAlgorithm.MOORE);
         }
 
         /**
@@ -639,67 +559,4 @@
 
             return currentState;
         }
-
-        private List<CodePointRange> getTotalAlphabet() {
-            List<CodePointRange> alphabet = new ArrayList<>();
-
-            for (DeterministicFiniteAutomatonState q : states) {
-                alphabet.addAll(q.getTransitionFunction().getAlphabet());
-            }
-
-            return alphabet;
-        }
-
-        /**
-         * A simple, directed BFS starting from he initial state and trying to reach
-         * as many states as feasible.
-         * 
-         * @return a set of states reachable from the initial state.
-         */
-        private Set<DeterministicFiniteAutomatonState> getAllReachableStates() {
-            Deque<DeterministicFiniteAutomatonState> queue = new ArrayDeque<>();
-            Set<DeterministicFiniteAutomatonState> visited = new HashSet<>();
-
-            queue.addLast(initialState);
-            visited.add(initialState);
-
-            while (!queue.isEmpty()) {
-                DeterministicFiniteAutomatonState state = queue.removeFirst();
-                DeterministicFiniteAutomatonStateTransitionFunction 
-                    transitionMap = state.getTransitionFunction();
-
-                for (int i = 0; i != transitionMap.size(); i++) {
-                    TransitionFunctionEntry transitionMapEntry = 
-                            transitionMap.get(i);
-
-                    DeterministicFiniteAutomatonState followerState = 
-                            transitionMapEntry.getGoalState();
-
-                    if (!visited.contains(followerState)) {
-                        visited.add(followerState);
-                        queue.addLast(followerState);
-                    }
-                }
-            }
-
-            return visited;
-        }
-
-        private void pruneUnreachableStates(
-            Set<DeterministicFiniteAutomatonState> reachableStates) {
-            states.retainAll(reachableStates);
-            acceptingStateSet.retainAll(reachableStates);
-        }
-
-        /**
-         * Returns the set {@code a} setminus {@code b}.
-         * 
-         * @param a the set to minus from.
-         * @param b the set to minus.
-         * @return {@code a \setminus b}.
-         */
-        private static <T> Set<T> setminus(Set<T> a, Set<T> b) {
-            a.removeAll(b);
-            return a;
-        }
     }
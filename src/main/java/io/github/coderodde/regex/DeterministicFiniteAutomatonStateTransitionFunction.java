@@ -21,11 +21,6 @@ implements Iterable<TransitionFunctionEntry> {
      */
     private static final int DEFAULT_ENTRY_ARRAY_CAPACITY = 8;
     
-    /**
-     * Used as a sentinel in {@link #getTransitionMapEntry(int)}.
-     */
-    private static final CodePointRange CODE_POINT_RANGE = new CodePointRange();
-    
     /**
      * The number of character range mappings in this transition map.
      */
@@ -151,17 +146,13 @@ implements Iterable<TransitionFunctionEntry> {
     }
         
     TransitionFunctionEntry getTransitionMapEntry(int codePoint) {
-        
-        CODE_POINT_RANGE.setMinimumCodePoint(codePoint);
-        CODE_POINT_RANGE.setMaximumCodePoint(codePoint);
-        
         int l = 0;
         int r = size - 1;
         
         while (l <= r) {
             int m = l + (r - l) / 2;
             
-            switch (entries[m].codePointRange.compareTo(CODE_POINT_RANGE)) {
+            switch (entries[m].codePointRange.compareToCodePoint(codePoint)) {
                 case -1 -> l = m + 1;
                 case  1 -> r = m - 1;
                 default -> { return entries[m]; }
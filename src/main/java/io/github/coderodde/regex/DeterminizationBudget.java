@@ -0,0 +1,89 @@
+package io.github.coderodde.regex;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * This record specifies the resource limits of the subset construction and
+ * what to do when one of them is exceeded.
+ *
+ * @param maximumNumberOfStates the maximum number of DFA states to build.
+ * @param maximumWork           the maximum amount of work, measured as the
+ *                              total number of NFA states moved over all the
+ *                              DFA transitions built.
+ * @param maximumDuration       the maximum wall-clock time to spend.
+ * @param policy                the action to take when a limit is exceeded.
+ */
+public record DeterminizationBudget(int maximumNumberOfStates,
+                                    long maximumWork,
+                                    Duration maximumDuration,
+                                    Policy policy) {
+
+    /**
+     * This enumeration specifies what to do when the budget is exceeded.
+     */
+    public enum Policy {
+
+        /**
+         * Use the NFA simulation instead of a DFA.
+         */
+        NFA,
+
+        /**
+         * Use a lazily determinized DFA with a bounded state cache instead.
+         */
+        LAZY_DFA,
+
+        /**
+         * Throw a {@link DeterminizationBudgetExceededException}.
+         */
+        FAIL;
+    }
+
+    /**
+     * The budget imposing no limits at all.
+     */
+    public static final DeterminizationBudget UNLIMITED =
+        new DeterminizationBudget(Integer.MAX_VALUE,
+                                  Long.MAX_VALUE,
+                                  Duration.ofSeconds(Long.MAX_VALUE),
+                                  Policy.FAIL);
+
+    public DeterminizationBudget {
+        Objects.requireNonNull(maximumDuration,
+                               "The input maximum duration is null.");
+
+        Objects.requireNonNull(policy, "The input policy is null.");
+
+        if (maximumNumberOfStates < 1) {
+            throw new IllegalArgumentException(
+                "The maximum number of states (" + maximumNumberOfStates
+                    + ") is not positive.");
+        }
+
+        if (maximumWork < 1L) {
+            throw new IllegalArgumentException(
+                "The maximum work (" + maximumWork + ") is not positive.");
+        }
+
+        if (maximumDuration.isNegative()) {
+            throw new IllegalArgumentException(
+                "The maximum duration (" + maximumDuration
+                    + ") is negative.");
+        }
+    }
+
+    /**
+     * Returns the maximum duration in nanoseconds, saturating at
+     * {@link Long#MAX_VALUE}.
+     *
+     * @return the maximum duration in nanoseconds.
+     */
+    long getMaximumNanos() {
+        try {
+            return maximumDuration.toNanos();
+        } catch (ArithmeticException ex) {
+            return Long.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package io.github.coderodde.regex;
+
+/**
+ * This class defines the exception type instances of which are thrown when the
+ * subset construction exceeds its {@link DeterminizationBudget}.
+ */
+public final class DeterminizationBudgetExceededException
+        extends RuntimeException {
+
+    public DeterminizationBudgetExceededException() {
+        super();
+    }
+
+    public DeterminizationBudgetExceededException(String exceptionMessage) {
+        super(exceptionMessage);
+    }
+}
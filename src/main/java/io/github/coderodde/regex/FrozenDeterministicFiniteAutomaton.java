@@ -0,0 +1,1125 @@
+package io.github.coderodde.regex;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * This class implements an immutable, table-driven deterministic finite
+ * automaton. Instances are obtained via
+ * {@link DeterministicFiniteAutomaton#freeze()}. The states are numbered
+ * densely, the code points are mapped to alphabet equivalence classes, and the
+ * transition function is stored as a flat table indexed by
+ * {@code state * classCount + classId}. The width of a single table entry
+ * (one, two or four bytes) depends on the number of states.
+ *
+ * <p>The searches build helper DFAs on demand. Their subset constructions are
+ * limited by the {@link DeterminizationBudget} this DFA was frozen with,
+ * regardless of its policy. Once some helper exceeds the budget, the searches
+ * run this DFA from all the start indices at once instead, which takes
+ * {@code O(nm)} time on a text of length {@code n} and {@code m} states.
+ */
+public final class FrozenDeterministicFiniteAutomaton
+        implements RegularExpressionMatcher {
+
+    /**
+     * The table value denoting the absence of a transition.
+     */
+    static final int DEAD_STATE = -1;
+
+    /**
+     * Maps the code points to the character classes.
+     */
+    private final AlphabetPartition alphabetPartition;
+
+    /**
+     * The number of character classes.
+     */
+    private final int classCount;
+
+    /**
+     * The number of states.
+     */
+    private final int stateCount;
+
+    /**
+     * The transition table used when the number of states fits in a byte.
+     */
+    private final byte[] byteTable;
+
+    /**
+     * The transition table used when the number of states fits in a short.
+     */
+    private final short[] shortTable;
+
+    /**
+     * The transition table used for all other state counts.
+     */
+    private final int[] intTable;
+
+    /**
+     * The accepting state flags indexed by state IDs.
+     */
+    private final boolean[] accepting;
+
+    private final boolean anchoredAtStart;
+    private final boolean anchoredAtEnd;
+    
+    /**
+     * The frozen DFA recognizing {@code .*L}, where {@code L} is the language 
+     * of this DFA. Built on the first call to {@link #find(java.lang.String)}.
+     */
+    private volatile FrozenDeterministicFiniteAutomaton unanchored;
+    
+    /**
+     * The frozen DFA tracking the ordered list of match attempts. Its 
+     * accepting states mark the possible ends of the leftmost-longest match. 
+     * Built on the first call to {@link #findMatch(java.lang.CharSequence, int)}.
+     */
+    private volatile FrozenDeterministicFiniteAutomaton leftmostLongest;
+    
+    /**
+     * The frozen DFA recognizing the reversed language of this DFA. Built on
+     * the first call to {@link #findMatch(java.lang.CharSequence, int)}.
+     */
+    private volatile FrozenDeterministicFiniteAutomaton reverse;
+    
+    /**
+     * The limits of the subset constructions building the helper DFAs.
+     */
+    private final DeterminizationBudget budget;
+    
+    /**
+     * Set once some helper DFA exceeds {@link #budget}. From then on, no 
+     * helpers are built and the searches simulate this DFA instead.
+     */
+    private volatile boolean helpersExceedBudget;
+    
+    /**
+     * Notified each time the helper DFAs change, so that the owner of this 
+     * DFA may account for their size. May be {@code null}.
+     */
+    private volatile Runnable helperListener;
+
+    /**
+     * Constructs a frozen DFA.
+     *
+     * @param partition       the alphabet partition.
+     * @param transitions     the transition table with {@link #DEAD_STATE}
+     *                        denoting missing transitions.
+     * @param accepting       the accepting state flags.
+     * @param anchoredAtStart whether the pattern is anchored at start.
+     * @param anchoredAtEnd   whether the pattern is anchored at end.
+     */
+    FrozenDeterministicFiniteAutomaton(AlphabetPartition partition,
+                                       int[] transitions,
+                                       boolean[] accepting,
+                                       boolean anchoredAtStart,
+                                       boolean anchoredAtEnd) {
+        this(partition, 
+             transitions, 
+             accepting, 
+             anchoredAtStart, 
+             anchoredAtEnd, 
+             DeterminizationBudget.UNLIMITED);
+    }
+
+    /**
+     * Constructs a frozen DFA whose helper DFAs are limited by the input 
+     * budget.
+     *
+     * @param partition       the alphabet partition.
+     * @param transitions     the transition table with {@link #DEAD_STATE}
+     *                        denoting missing transitions.
+     * @param accepting       the accepting state flags.
+     * @param anchoredAtStart whether the pattern is anchored at start.
+     * @param anchoredAtEnd   whether the pattern is anchored at end.
+     * @param budget          the limits of the helper DFAs.
+     */
+    FrozenDeterministicFiniteAutomaton(AlphabetPartition partition,
+                                       int[] transitions,
+                                       boolean[] accepting,
+                                       boolean anchoredAtStart,
+                                       boolean anchoredAtEnd,
+                                       DeterminizationBudget budget) {
+
+        this.alphabetPartition = partition;
+        this.classCount        = partition.getClassCount();
+        this.stateCount        = accepting.length;
+        this.accepting         = accepting;
+        this.anchoredAtStart   = anchoredAtStart;
+        this.anchoredAtEnd     = anchoredAtEnd;
+        this.budget            = budget;
+
+        if (stateCount <= Byte.MAX_VALUE) {
+            byte[] table = new byte[transitions.length];
+
+            for (int i = 0; i < table.length; ++i) {
+                table[i] = (byte) transitions[i];
+            }
+
+            this.byteTable  = table;
+            this.shortTable = null;
+            this.intTable   = null;
+        } else if (stateCount <= Short.MAX_VALUE) {
+            short[] table = new short[transitions.length];
+
+            for (int i = 0; i < table.length; ++i) {
+                table[i] = (short) transitions[i];
+            }
+
+            this.byteTable  = null;
+            this.shortTable = table;
+            this.intTable   = null;
+        } else {
+            this.byteTable  = null;
+            this.shortTable = null;
+            this.intTable   = transitions;
+        }
+    }
+
+    /**
+     * Returns the number of states in this frozen DFA.
+     *
+     * @return the number of states.
+     */
+    public int getNumberOfStates() {
+        return stateCount;
+    }
+
+    /**
+     * Returns the number of character classes in this frozen DFA.
+     *
+     * @return the number of character classes.
+     */
+    public int getNumberOfCharacterClasses() {
+        return classCount;
+    }
+
+    /**
+     * Returns the number of bytes occupied by a single transition table entry.
+     *
+     * @return the table entry width in bytes.
+     */
+    int getTableEntryWidth() {
+        if (byteTable != null) {
+            return Byte.BYTES;
+        }
+
+        if (shortTable != null) {
+            return Short.BYTES;
+        }
+
+        return Integer.BYTES;
+    }
+
+    /**
+     * Estimates the number of bytes occupied by the tables of this frozen DFA
+     * and of the helper DFAs built so far, which share the alphabet partition
+     * with this DFA.
+     *
+     * @return the estimated size in bytes.
+     */
+    long getEstimatedNumberOfBytes() {
+        long numberOfBytes = getEstimatedNumberOfTableBytes()
+                           + alphabetPartition.getEstimatedNumberOfBytes();
+
+        FrozenDeterministicFiniteAutomaton[] helpers = {
+            unanchored,
+            leftmostLongest,
+            reverse,
+        };
+
+        for (FrozenDeterministicFiniteAutomaton helper : helpers) {
+            if (helper != null) {
+                numberOfBytes += helper.getEstimatedNumberOfTableBytes();
+            }
+        }
+
+        return numberOfBytes;
+    }
+
+    /**
+     * Sets the listener notified after each helper DFA is built or the 
+     * helpers are dropped for exceeding the budget. The listener runs in the
+     * searching thread, possibly concurrently with itself.
+     * 
+     * @param helperListener the listener, or {@code null} for none.
+     */
+    void setHelperListener(Runnable helperListener) {
+        this.helperListener = helperListener;
+    }
+
+    private long getEstimatedNumberOfTableBytes() {
+        return (long) getTableEntryWidth() * stateCount * classCount
+             + accepting.length;
+    }
+
+    /**
+     * Checks whether some helper DFA exceeded the budget and the searches 
+     * simulate this DFA instead.
+     *
+     * @return {@code true} if simulating this DFA in the searches.
+     */
+    boolean usesSimulation() {
+        return helpersExceedBudget;
+    }
+
+    @Override
+    public boolean matches(String text) {
+        Objects.requireNonNull(text, "The input text is null.");
+        
+        int state = deltaStar(text);
+        return state != DEAD_STATE && accepting[state];
+    }
+
+    /**
+     * Checks whether some substring of the input text is accepted. Makes a 
+     * single left-to-right pass over {@code text}.
+     * 
+     * @param text the text to search.
+     * @return {@code true} only if {@code text} contains a match.
+     */
+    @Override
+    public boolean find(String text) {
+        Objects.requireNonNull(text, "The input text is null.");
+
+        FrozenDeterministicFiniteAutomaton dfa = 
+            anchoredAtStart ? this : getUnanchored();
+        
+        if (dfa == null) {
+            return simulateFind(text);
+        }
+        
+        if (anchoredAtEnd) {
+            int state = dfa.deltaStar(text);
+            return state != DEAD_STATE && dfa.accepting[state];
+        }
+        
+        return dfa.reachesAcceptingState(text);
+    }
+    
+    /**
+     * Finds the leftmost-longest match. Unless anchored, the end of the match
+     * is found by a forward scan and its start by a backward scan from the 
+     * end. Both scans run in linear time.
+     * 
+     * @param text the text to search.
+     * @param from the index at which to start searching.
+     * @return the position of the match, or {@code null} if there is no match.
+     */
+    @Override
+    public MatchPosition findMatch(CharSequence text, int from) {
+        MatchPosition matchPosition = new MatchPosition(0, 0);
+        return findMatch(text, from, matchPosition) ? matchPosition : null;
+    }
+    
+    @Override
+    public Iterator<MatchPosition> findAll(CharSequence text) {
+        return new MatchPositionIterator(text, this::findMatch);
+    }
+    
+    @Override
+    public void forEachMatch(CharSequence text, MatchConsumer consumer) {
+        MatchPositionIterator.forEachMatch(text, this::findMatch, consumer);
+    }
+    
+    /**
+     * Finds the leftmost-longest match and stores it in 
+     * {@code matchPosition}.
+     * 
+     * @param text          the text to search.
+     * @param from          the index at which to start searching.
+     * @param matchPosition the object to store the match in.
+     * @return {@code true} if a match was found.
+     */
+    boolean findMatch(CharSequence text, 
+                      int from, 
+                      MatchPosition matchPosition) {
+        
+        Objects.requireNonNull(text, "The input text is null.");
+        Objects.checkIndex(from, text.length() + 1);
+        from = MatchPositionIterator.alignToCodePoint(text, from);
+        
+        if (anchoredAtStart && from > 0) {
+            return false;
+        }
+        
+        int n = text.length();
+        
+        if (anchoredAtEnd) {
+            FrozenDeterministicFiniteAutomaton reverseDfa = getReverse();
+            
+            if (reverseDfa == null) {
+                return simulateFindMatch(text, from, matchPosition);
+            }
+            
+            int start = reverseDfa.findSmallestMatchStart(text, n, from);
+            
+            if (start == -1 || (anchoredAtStart && start > 0)) {
+                return false;
+            }
+            
+            matchPosition.set(start, n);
+            return true;
+        }
+        
+        if (anchoredAtStart) {
+            int end = findLargestMatchEnd(text, 0);
+            
+            if (end == -1) {
+                return false;
+            }
+            
+            matchPosition.set(0, end);
+            return true;
+        }
+        
+        FrozenDeterministicFiniteAutomaton leftmostLongestDfa = 
+            getLeftmostLongest();
+        
+        FrozenDeterministicFiniteAutomaton reverseDfa = getReverse();
+        
+        if (leftmostLongestDfa == null || reverseDfa == null) {
+            return simulateFindMatch(text, from, matchPosition);
+        }
+        
+        int end = leftmostLongestDfa.findLargestMatchEnd(text, from);
+        
+        if (end == -1) {
+            return false;
+        }
+        
+        matchPosition.set(reverseDfa.findSmallestMatchStart(text, end, from),
+                          end);
+        return true;
+    }
+    
+    /**
+     * Finds the leftmost-longest match by running this DFA from all the start
+     * indices at once. The pending match attempts are kept in the order of 
+     * their start indices, and the attempts reaching the same state are 
+     * merged into the earliest one, so that there are at most as many 
+     * attempts as states. Once some attempt accepts, no attempts are started 
+     * and the ones started later than the leftmost accepting attempt are 
+     * dropped.
+     * 
+     * @param text          the text to search.
+     * @param from          the index at which to start searching.
+     * @param matchPosition the object to store the match in.
+     * @return {@code true} if a match was found.
+     */
+    private boolean simulateFindMatch(CharSequence text, 
+                                      int from, 
+                                      MatchPosition matchPosition) {
+        int n = text.length();
+        int[] states = new int[stateCount];
+        int[] starts = new int[stateCount];
+        int[] nextStates = new int[stateCount];
+        int[] nextStarts = new int[stateCount];
+        boolean[] seen = new boolean[stateCount];
+        int size = 0;
+        int matchStart = -1;
+        int matchEnd = -1;
+        int index = from;
+        
+        while (true) {
+            if (matchStart == -1 
+                    && !seen[0] 
+                    && (!anchoredAtStart || index == 0)) {
+                
+                seen[0] = true;
+                states[size] = 0;
+                starts[size++] = index;
+            }
+            
+            if (!anchoredAtEnd || index == n) {
+                for (int i = 0; i < size; ++i) {
+                    if (accepting[states[i]]) {
+                        matchStart = starts[i];
+                        matchEnd = index;
+                        
+                        for (int j = i + 1; j < size; ++j) {
+                            seen[states[j]] = false;
+                        }
+                        
+                        size = i + 1;
+                        break;
+                    }
+                }
+            }
+            
+            if (index == n 
+                    || (size == 0 && (matchStart != -1 || anchoredAtStart))) {
+                break;
+            }
+            
+            int codePoint = Character.codePointAt(text, index);
+            int nextSize = 0;
+            
+            for (int i = 0; i < size; ++i) {
+                seen[states[i]] = false;
+            }
+            
+            for (int i = 0; i < size; ++i) {
+                int nextState = step(states[i], codePoint);
+                
+                if (nextState != DEAD_STATE && !seen[nextState]) {
+                    seen[nextState] = true;
+                    nextStates[nextSize] = nextState;
+                    nextStarts[nextSize++] = starts[i];
+                }
+            }
+            
+            int[] tmp = states;
+            states = nextStates;
+            nextStates = tmp;
+            
+            tmp = starts;
+            starts = nextStarts;
+            nextStarts = tmp;
+            
+            size = nextSize;
+            index += Character.charCount(codePoint);
+        }
+        
+        if (matchStart == -1) {
+            return false;
+        }
+        
+        matchPosition.set(matchStart, matchEnd);
+        return true;
+    }
+    
+    /**
+     * Checks whether some substring of the input text is accepted by running
+     * this DFA from all the start indices at once.
+     * 
+     * @param text the text to search.
+     * @return {@code true} only if {@code text} contains a match.
+     */
+    private boolean simulateFind(String text) {
+        int n = text.length();
+        SparseIntSet states = new SparseIntSet(stateCount);
+        SparseIntSet nextStates = new SparseIntSet(stateCount);
+        int index = 0;
+        
+        while (true) {
+            states.add(0);
+            
+            if ((!anchoredAtEnd || index == n) 
+                    && containsAcceptingState(states)) {
+                return true;
+            }
+            
+            if (index == n) {
+                return false;
+            }
+            
+            int codePoint = text.codePointAt(index);
+            nextStates.clear();
+            
+            for (int i = 0; i < states.size(); ++i) {
+                int nextState = step(states.get(i), codePoint);
+                
+                if (nextState != DEAD_STATE) {
+                    nextStates.add(nextState);
+                }
+            }
+            
+            SparseIntSet tmp = states;
+            states = nextStates;
+            nextStates = tmp;
+            
+            index += Character.charCount(codePoint);
+        }
+    }
+    
+    /**
+     * Runs this DFA from the index {@code from} until the end of the text or 
+     * the dead state.
+     * 
+     * @param text the text to scan.
+     * @param from the starting index.
+     * @return the largest index at which an accepting state was visited, or 
+     *         -1 if there is no such index.
+     */
+    private int findLargestMatchEnd(CharSequence text, int from) {
+        int n = text.length();
+        int state = 0;
+        int index = from;
+        int end = -1;
+        
+        while (true) {
+            if (accepting[state]) {
+                end = index;
+            }
+            
+            if (index == n) {
+                return end;
+            }
+            
+            int codePoint = Character.codePointAt(text, index);
+            state = step(state, codePoint);
+            
+            if (state == DEAD_STATE) {
+                return end;
+            }
+            
+            index += Character.charCount(codePoint);
+        }
+    }
+    
+    /**
+     * Runs this DFA backwards from the index {@code end} down to the index 
+     * {@code limit} or until the dead state. No {@code char} before 
+     * {@code limit} is read, even if it would complete a surrogate pair.
+     * 
+     * @param text  the text to scan.
+     * @param end   the index to start scanning from.
+     * @param limit the smallest index to scan to.
+     * @return the smallest index at which an accepting state was visited, or
+     *         -1 if there is no such index.
+     */
+    private int findSmallestMatchStart(CharSequence text, int end, int limit) {
+        int state = 0;
+        int index = end;
+        int start = -1;
+        
+        while (true) {
+            if (accepting[state]) {
+                start = index;
+            }
+            
+            if (index <= limit) {
+                return start;
+            }
+            
+            int codePoint = codePointBefore(text, index, limit);
+            state = step(state, codePoint);
+            
+            if (state == DEAD_STATE) {
+                return start;
+            }
+            
+            index -= Character.charCount(codePoint);
+        }
+    }
+    
+    /**
+     * Returns the code point ending right before the input index. A surrogate
+     * pair is combined only if it starts at or after {@code limit}.
+     * 
+     * @param text  the text.
+     * @param index the index after the code point.
+     * @param limit the smallest index the code point may start at.
+     * @return the code point.
+     */
+    private static int codePointBefore(CharSequence text, 
+                                       int index, 
+                                       int limit) {
+        char low = text.charAt(index - 1);
+        
+        if (Character.isLowSurrogate(low) && index - 2 >= limit) {
+            char high = text.charAt(index - 2);
+            
+            if (Character.isHighSurrogate(high)) {
+                return Character.toCodePoint(high, low);
+            }
+        }
+        
+        return low;
+    }
+    
+    private FrozenDeterministicFiniteAutomaton getLeftmostLongest() {
+        FrozenDeterministicFiniteAutomaton dfa = leftmostLongest;
+        
+        if (dfa == null && !helpersExceedBudget) {
+            dfa = buildWithinBudget(this::buildLeftmostLongest);
+            leftmostLongest = dfa;
+            notifyHelperListener();
+        }
+        
+        return dfa;
+    }
+    
+    private FrozenDeterministicFiniteAutomaton getReverse() {
+        FrozenDeterministicFiniteAutomaton dfa = reverse;
+        
+        if (dfa == null && !helpersExceedBudget) {
+            dfa = buildWithinBudget(this::buildReverse);
+            reverse = dfa;
+            notifyHelperListener();
+        }
+        
+        return dfa;
+    }
+    
+    /**
+     * Returns the unanchored version of this DFA, building it on the first 
+     * call. Concurrent callers may build it more than once, yet all of them 
+     * obtain equivalent automata.
+     * 
+     * @return the unanchored DFA, or {@code null} if the helper DFAs exceed 
+     *         the budget.
+     */
+    private FrozenDeterministicFiniteAutomaton getUnanchored() {
+        FrozenDeterministicFiniteAutomaton dfa = unanchored;
+        
+        if (dfa == null && !helpersExceedBudget) {
+            dfa = buildWithinBudget(this::buildUnanchored);
+            unanchored = dfa;
+            notifyHelperListener();
+        }
+        
+        return dfa;
+    }
+    
+    private void notifyHelperListener() {
+        Runnable listener = helperListener;
+        
+        if (listener != null) {
+            listener.run();
+        }
+    }
+    
+    /**
+     * Runs the input builder of a helper DFA. If the helper exceeds the 
+     * budget, all the helpers built so far are dropped.
+     * 
+     * @param builder the helper builder.
+     * @return the helper DFA, or {@code null} if it exceeds the budget.
+     */
+    private FrozenDeterministicFiniteAutomaton buildWithinBudget(
+            Supplier<FrozenDeterministicFiniteAutomaton> builder) {
+        
+        try {
+            return builder.get();
+        } catch (DeterminizationBudgetExceededException ex) {
+            helpersExceedBudget = true;
+            unanchored = null;
+            leftmostLongest = null;
+            reverse = null;
+            return null;
+        }
+    }
+    
+    /**
+     * Builds the DFA whose states are ordered lists of the states of this DFA,
+     * one entry per pending match attempt, the earliest attempt first. 
+     * Attempts reaching the same state are merged into the earliest one. A new
+     * attempt is appended after each code point until some attempt accepts. 
+     * From that point on, no attempts are started and the ones started later 
+     * than the leftmost accepting attempt are dropped. The last index at which
+     * this DFA accepts is, thus, the end of the leftmost-longest match.
+     * 
+     * @return the leftmost-longest DFA.
+     * @throws DeterminizationBudgetExceededException if the budget is 
+     *                                                exceeded.
+     */
+    private FrozenDeterministicFiniteAutomaton buildLeftmostLongest() {
+        // Each key is the list of attempt states prefixed with 1 if some 
+        // attempt has already accepted, and with 0 otherwise:
+        HelperConstruction construction = new HelperConstruction();
+        int[] key = new int[stateCount + 1];
+        int[] nextKey = new int[stateCount + 1];
+        int[] attempts = new int[stateCount + 1];
+        boolean[] seen = new boolean[stateCount];
+        
+        attempts[0] = 0;
+        addLeftmostLongestState(construction, attempts, 1, false, nextKey);
+        
+        for (int keyId = 0; keyId < construction.size(); ++keyId) {
+            int keyLength = construction.loadSequence(keyId, key);
+            boolean matched = key[0] == 1;
+            
+            for (int classId = 0; classId < classCount; ++classId) {
+                int size = 0;
+                
+                for (int i = 1; i < keyLength; ++i) {
+                    int nextState = getTransition(key[i], classId);
+                    
+                    if (nextState != DEAD_STATE && !seen[nextState]) {
+                        seen[nextState] = true;
+                        attempts[size++] = nextState;
+                    }
+                }
+                
+                if (!matched && !seen[0]) {
+                    attempts[size++] = 0;
+                }
+                
+                for (int i = 0; i < size; ++i) {
+                    seen[attempts[i]] = false;
+                }
+                
+                if (size > 0) {
+                    construction.setTransition(
+                        keyId, 
+                        classId, 
+                        addLeftmostLongestState(construction, 
+                                                attempts, 
+                                                size, 
+                                                matched, 
+                                                nextKey));
+                }
+            }
+        }
+        
+        return construction.build(false);
+    }
+    
+    /**
+     * Truncates the input attempt list after its first accepting attempt and 
+     * returns the ID of the resulting leftmost-longest DFA state, creating the
+     * state if needed.
+     */
+    private int addLeftmostLongestState(HelperConstruction construction,
+                                        int[] attempts,
+                                        int size,
+                                        boolean matched,
+                                        int[] key) {
+        boolean accepts = false;
+        
+        for (int i = 0; i < size; ++i) {
+            if (accepting[attempts[i]]) {
+                size = i + 1;
+                accepts = true;
+                break;
+            }
+        }
+        
+        key[0] = matched || accepts ? 1 : 0;
+        System.arraycopy(attempts, 0, key, 1, size);
+        
+        return construction.getOrAdd(key, size + 1, accepts);
+    }
+    
+    /**
+     * Runs the subset construction on the reversal of this DFA. The initial 
+     * subset consists of all the accepting states, and a subset is accepting 
+     * if it contains the initial state of this DFA.
+     * 
+     * @return the reverse DFA.
+     * @throws DeterminizationBudgetExceededException if the budget is 
+     *                                                exceeded.
+     */
+    private FrozenDeterministicFiniteAutomaton buildReverse() {
+        // Index the predecessors of each state per character class:
+        int[] predecessorStarts = new int[stateCount * classCount + 1];
+        
+        for (int state = 0; state < stateCount; ++state) {
+            for (int classId = 0; classId < classCount; ++classId) {
+                int nextState = getTransition(state, classId);
+                
+                if (nextState != DEAD_STATE) {
+                    ++predecessorStarts[nextState * classCount + classId + 1];
+                }
+            }
+        }
+        
+        for (int i = 1; i < predecessorStarts.length; ++i) {
+            predecessorStarts[i] += predecessorStarts[i - 1];
+        }
+        
+        int[] predecessors = new int[predecessorStarts[predecessorStarts.length 
+                                                       - 1]];
+        int[] fill = Arrays.copyOf(predecessorStarts, 
+                                   predecessorStarts.length - 1);
+        
+        for (int state = 0; state < stateCount; ++state) {
+            for (int classId = 0; classId < classCount; ++classId) {
+                int nextState = getTransition(state, classId);
+                
+                if (nextState != DEAD_STATE) {
+                    predecessors[fill[nextState * classCount + classId]++] = 
+                        state;
+                }
+            }
+        }
+        
+        HelperConstruction construction = new HelperConstruction();
+        SparseIntSet subset = new SparseIntSet(stateCount);
+        SparseIntSet nextSubset = new SparseIntSet(stateCount);
+        
+        for (int state = 0; state < stateCount; ++state) {
+            if (accepting[state]) {
+                subset.add(state);
+            }
+        }
+        
+        construction.getOrAdd(subset, subset.contains(0));
+        
+        for (int subsetId = 0; subsetId < construction.size(); ++subsetId) {
+            construction.loadSubset(subsetId, subset);
+            
+            for (int classId = 0; classId < classCount; ++classId) {
+                nextSubset.clear();
+                
+                for (int i = 0; i < subset.size(); ++i) {
+                    int index = subset.get(i) * classCount + classId;
+                    
+                    for (int j = predecessorStarts[index]; 
+                             j < predecessorStarts[index + 1]; 
+                             ++j) {
+                        nextSubset.add(predecessors[j]);
+                    }
+                }
+                
+                if (!nextSubset.isEmpty()) {
+                    construction.setTransition(
+                        subsetId, 
+                        classId, 
+                        construction.getOrAdd(nextSubset, 
+                                              nextSubset.contains(0)));
+                }
+            }
+        }
+        
+        return construction.build(false);
+    }
+    
+    /**
+     * Runs the subset construction on this DFA with the initial state added to
+     * every subset. This amounts to prepending a {@code .*} loop. The 
+     * character classes stay intact.
+     * 
+     * @return the unanchored DFA.
+     * @throws DeterminizationBudgetExceededException if the budget is 
+     *                                                exceeded.
+     */
+    private FrozenDeterministicFiniteAutomaton buildUnanchored() {
+        HelperConstruction construction = new HelperConstruction();
+        SparseIntSet subset = new SparseIntSet(stateCount);
+        SparseIntSet nextSubset = new SparseIntSet(stateCount);
+        
+        subset.add(0);
+        construction.getOrAdd(subset, accepting[0]);
+        
+        for (int subsetId = 0; subsetId < construction.size(); ++subsetId) {
+            construction.loadSubset(subsetId, subset);
+            
+            for (int classId = 0; classId < classCount; ++classId) {
+                nextSubset.clear();
+                nextSubset.add(0);
+                
+                for (int i = 0; i < subset.size(); ++i) {
+                    int nextState = getTransition(subset.get(i), classId);
+                    
+                    if (nextState != DEAD_STATE) {
+                        nextSubset.add(nextState);
+                    }
+                }
+                
+                construction.setTransition(
+                    subsetId, 
+                    classId, 
+                    construction.getOrAdd(nextSubset, 
+                                          containsAcceptingState(nextSubset)));
+            }
+        }
+        
+        return construction.build(anchoredAtEnd);
+    }
+    
+    private boolean containsAcceptingState(SparseIntSet states) {
+        for (int i = 0; i < states.size(); ++i) {
+            if (accepting[states.get(i)]) {
+                return true;
+            }
+        }
+        
+        return false;
+    }
+    
+    /**
+     * Runs this DFA over the entire input text.
+     * 
+     * @param text the text to process.
+     * @return the state reached or {@link #DEAD_STATE}.
+     */
+    private int deltaStar(String text) {
+        int state = 0;
+        int n = text.length();
+        int index = 0;
+
+        while (index < n) {
+            int codePoint = text.codePointAt(index);
+            state = step(state, codePoint);
+
+            if (state == DEAD_STATE) {
+                return DEAD_STATE;
+            }
+
+            index += Character.charCount(codePoint);
+        }
+
+        return state;
+    }
+
+    /**
+     * Scans the input text from the beginning and stops as soon as an 
+     * accepting state is reached.
+     * 
+     * @param text the text to scan.
+     * @return {@code true} only if some prefix of {@code text} is accepted.
+     */
+    private boolean reachesAcceptingState(String text) {
+        int n = text.length();
+        int state = 0;
+        int index = 0;
+
+        while (true) {
+            if (accepting[state]) {
+                return true;
+            }
+
+            if (index == n) {
+                return false;
+            }
+
+            int codePoint = text.codePointAt(index);
+            state = step(state, codePoint);
+
+            if (state == DEAD_STATE) {
+                return false;
+            }
+
+            index += Character.charCount(codePoint);
+        }
+    }
+
+    /**
+     * Makes a single transition.
+     *
+     * @param state     the current state.
+     * @param codePoint the code point to read.
+     * @return the next state or {@link #DEAD_STATE}.
+     */
+    private int step(int state, int codePoint) {
+        return getTransition(state, alphabetPartition.getClassId(codePoint));
+    }
+    
+    /**
+     * Reads the transition table.
+     * 
+     * @param state   the current state.
+     * @param classId the character class ID.
+     * @return the next state or {@link #DEAD_STATE}.
+     */
+    private int getTransition(int state, int classId) {
+        int index = state * classCount + classId;
+
+        if (byteTable != null) {
+            return byteTable[index];
+        }
+
+        if (shortTable != null) {
+            return shortTable[index];
+        }
+
+        return intTable[index];
+    }
+    
+    /**
+     * This inner class collects the transition table of a helper DFA and 
+     * charges its subset construction against the budget of this DFA. The 
+     * helper states are interned in a {@link SubsetTable}, and their contents
+     * are released as soon as their transitions are computed.
+     */
+    private final class HelperConstruction {
+        
+        private final SubsetTable states = new SubsetTable();
+        private final long maximumNanos = budget.getMaximumNanos();
+        private final long startNanos = System.nanoTime();
+        private int[] transitions = new int[16 * classCount];
+        private boolean[] helperAccepting = new boolean[16];
+        private long work = 0L;
+        
+        int size() {
+            return states.size();
+        }
+        
+        void loadSubset(int id, SparseIntSet target) {
+            checkDuration();
+            states.getSubset(id, target);
+            states.releaseBelow(id + 1);
+            addWork((long) target.size() * classCount);
+        }
+        
+        int loadSequence(int id, int[] target) {
+            checkDuration();
+            int length = states.getSequence(id, target);
+            states.releaseBelow(id + 1);
+            addWork((long) length * classCount);
+            return length;
+        }
+        
+        int getOrAdd(SparseIntSet subset, boolean accepts) {
+            int size = states.size();
+            int id = states.getOrAdd(subset);
+            return id < size ? id : addState(id, accepts);
+        }
+        
+        int getOrAdd(int[] sequence, int length, boolean accepts) {
+            int size = states.size();
+            int id = states.getOrAdd(sequence, length);
+            return id < size ? id : addState(id, accepts);
+        }
+        
+        void setTransition(int sourceId, int classId, int targetId) {
+            transitions[sourceId * classCount + classId] = targetId;
+        }
+        
+        FrozenDeterministicFiniteAutomaton build(boolean anchoredAtEnd) {
+            int stateCount = states.size();
+            
+            return new FrozenDeterministicFiniteAutomaton(
+                alphabetPartition,
+                Arrays.copyOf(transitions, stateCount * classCount),
+                Arrays.copyOf(helperAccepting, stateCount),
+                false,
+                anchoredAtEnd);
+        }
+        
+        private int addState(int id, boolean accepts) {
+            if (id == budget.maximumNumberOfStates()) {
+                throw new DeterminizationBudgetExceededException(
+                    "The helper DFA exceeded the maximum number of states ("
+                        + budget.maximumNumberOfStates() + ").");
+            }
+            
+            if (helperAccepting.length == id) {
+                helperAccepting = Arrays.copyOf(helperAccepting, 2 * id);
+                transitions = Arrays.copyOf(transitions, 2 * id * classCount);
+            }
+            
+            Arrays.fill(transitions, 
+                        id * classCount, 
+                        (id + 1) * classCount, 
+                        DEAD_STATE);
+            
+            helperAccepting[id] = accepts;
+            return id;
+        }
+        
+        private void addWork(long amount) {
+            work += amount;
+            
+            if (work > budget.maximumWork()) {
+                throw new DeterminizationBudgetExceededException(
+                    "The helper DFA exceeded the maximum work ("
+                        + budget.maximumWork() + ").");
+            }
+        }
+        
+        private void checkDuration() {
+            if (System.nanoTime() - startNanos > maximumNanos) {
+                throw new DeterminizationBudgetExceededException(
+                    "The helper DFA exceeded the maximum duration ("
+                        + budget.maximumDuration() + ").");
+            }
+        }
+    }
+}
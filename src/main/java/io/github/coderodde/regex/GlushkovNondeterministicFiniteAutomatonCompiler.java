@@ -0,0 +1,258 @@
+package io.github.coderodde.regex;
+
+import io.github.coderodde.regex.parser.ast.RegexTokenizationResult;
+import io.github.coderodde.regex.parser.ast.tree.CharacterClassRegexNode;
+import io.github.coderodde.regex.parser.ast.tree.ConcatenationRegexNode;
+import io.github.coderodde.regex.parser.ast.tree.DotRegexNode;
+import io.github.coderodde.regex.parser.ast.tree.KleeneStarRegexNode;
+import io.github.coderodde.regex.parser.ast.tree.LiteralRegexNode;
+import io.github.coderodde.regex.parser.ast.tree.OptionalRegexNode;
+import io.github.coderodde.regex.parser.ast.tree.PlusRegexNode;
+import io.github.coderodde.regex.parser.ast.tree.RegexNode;
+import io.github.coderodde.regex.parser.ast.tree.UnionRegexNode;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * This class compiles a regular expression syntax tree to its Glushkov
+ * (position) automaton. Each literal, dot or character class occurring in the
+ * regular expression is a position, numbered from 1 in the order of
+ * appearance. The resulting NFA has the initial state 0 and one state per
+ * position, and contains no epsilon transitions: all the transitions entering
+ * the state {@code p} are labelled with the code points of the position
+ * {@code p}.
+ */
+public final class GlushkovNondeterministicFiniteAutomatonCompiler {
+
+    private final RegexNode syntaxTreeRoot;
+
+    /**
+     * Maps each position {@code p} to its code point ranges stored at the
+     * index {@code p}. The index 0 is unused.
+     */
+    private final List<List<CodePointRange>> positionRanges =
+        new ArrayList<>();
+
+    /**
+     * Maps each position {@code p} to the set of positions that may follow it.
+     * The index 0 holds the first positions of the entire expression.
+     */
+    private final List<BitSet> followSets = new ArrayList<>();
+
+    private Linearization root;
+
+    public GlushkovNondeterministicFiniteAutomatonCompiler(
+            RegexNode syntaxTreeRoot) {
+
+        this.syntaxTreeRoot =
+            Objects.requireNonNull(
+                syntaxTreeRoot,
+                "The abstract syntax tree root is null.");
+    }
+
+    public NondeterministicFiniteAutomaton
+        compile(RegexTokenizationResult result) {
+
+        linearize();
+
+        NondeterministicFiniteAutomaton nfa =
+            new NondeterministicFiniteAutomaton(result);
+
+        int stateCount = getPositionCount() + 1;
+
+        NondeterministicFiniteAutomatonState[] states =
+            new NondeterministicFiniteAutomatonState[stateCount];
+
+        for (int p = 0; p < stateCount; ++p) {
+            states[p] = nfa.createState();
+        }
+
+        nfa.setInitialState(states[0]);
+
+        if (root.nullable()) {
+            nfa.addAcceptingState(states[0]);
+        }
+
+        for (int p = root.lastSet().nextSetBit(0);
+                 p >= 0;
+                 p = root.lastSet().nextSetBit(p + 1)) {
+            nfa.addAcceptingState(states[p]);
+        }
+
+        for (int p = 0; p < stateCount; ++p) {
+            BitSet followSet = followSets.get(p);
+
+            for (int q = followSet.nextSetBit(0);
+                     q >= 0;
+                     q = followSet.nextSetBit(q + 1)) {
+
+                for (CodePointRange range : positionRanges.get(q)) {
+                    states[p].addTransition(range, states[q]);
+                }
+            }
+        }
+
+        return nfa;
+    }
+
+    /**
+     * Computes the positions together with the first, last and follow sets of
+     * the syntax tree. Does nothing if already computed.
+     */
+    void linearize() {
+        if (root != null) {
+            return;
+        }
+
+        positionRanges.add(List.of());
+        followSets.add(new BitSet());
+
+        root = build(syntaxTreeRoot);
+        followSets.get(0).or(root.firstSet());
+    }
+
+    /**
+     * Returns the number of positions. The automaton has one more state.
+     *
+     * @return the number of positions.
+     */
+    int getPositionCount() {
+        return positionRanges.size() - 1;
+    }
+
+    List<CodePointRange> getPositionRanges(int position) {
+        return positionRanges.get(position);
+    }
+
+    /**
+     * Returns the set of positions that may follow the input position. The
+     * follow set of the position 0 is the first set of the entire expression.
+     *
+     * @param position the position.
+     * @return the follow set.
+     */
+    BitSet getFollowSet(int position) {
+        return followSets.get(position);
+    }
+
+    BitSet getLastSet() {
+        return root.lastSet();
+    }
+
+    boolean isNullable() {
+        return root.nullable();
+    }
+
+    private Linearization build(RegexNode node) {
+        if (node instanceof LiteralRegexNode n) {
+            return position(List.of(new CodePointRange(n.codePoint())));
+        }
+
+        if (node instanceof DotRegexNode) {
+            return position(
+                List.of(new CodePointRange(0, Character.MAX_CODE_POINT)));
+        }
+
+        if (node instanceof CharacterClassRegexNode n) {
+            return position(n.ranges());
+        }
+
+        if (node instanceof ConcatenationRegexNode n) {
+            return concatenate(build(n.left()), build(n.right()));
+        }
+
+        if (node instanceof UnionRegexNode n) {
+            return union(build(n.left()), build(n.right()));
+        }
+
+        if (node instanceof KleeneStarRegexNode n) {
+            return kleeneStar(build(n.child()));
+        }
+
+        if (node instanceof PlusRegexNode n) {
+            return plus(build(n.child()));
+        }
+
+        if (node instanceof OptionalRegexNode n) {
+            return optional(build(n.child()));
+        }
+
+        throw new IllegalArgumentException("Unknown AST node: " + node);
+    }
+
+    private Linearization position(List<CodePointRange> ranges) {
+        int position = positionRanges.size();
+
+        positionRanges.add(ranges);
+        followSets.add(new BitSet());
+
+        BitSet set = new BitSet();
+        set.set(position);
+
+        return new Linearization(false, set, (BitSet) set.clone());
+    }
+
+    private Linearization concatenate(Linearization left,
+                                      Linearization right) {
+        addFollowers(left.lastSet(), right.firstSet());
+
+        BitSet firstSet = left.firstSet();
+        BitSet lastSet = right.lastSet();
+
+        if (left.nullable()) {
+            firstSet.or(right.firstSet());
+        }
+
+        if (right.nullable()) {
+            lastSet.or(left.lastSet());
+        }
+
+        return new Linearization(left.nullable() && right.nullable(),
+                                 firstSet,
+                                 lastSet);
+    }
+
+    private Linearization union(Linearization left, Linearization right) {
+        left.firstSet().or(right.firstSet());
+        left.lastSet().or(right.lastSet());
+
+        return new Linearization(left.nullable() || right.nullable(),
+                                 left.firstSet(),
+                                 left.lastSet());
+    }
+
+    private Linearization kleeneStar(Linearization child) {
+        addFollowers(child.lastSet(), child.firstSet());
+        return new Linearization(true, child.firstSet(), child.lastSet());
+    }
+
+    private Linearization plus(Linearization child) {
+        addFollowers(child.lastSet(), child.firstSet());
+        return child;
+    }
+
+    private Linearization optional(Linearization child) {
+        return new Linearization(true, child.firstSet(), child.lastSet());
+    }
+
+    private void addFollowers(BitSet positions, BitSet followers) {
+        for (int p = positions.nextSetBit(0);
+                 p >= 0;
+                 p = positions.nextSetBit(p + 1)) {
+            followSets.get(p).or(followers);
+        }
+    }
+
+    /**
+     * Describes a subexpression: whether it accepts the empty string, and the
+     * positions that may start and end its nonempty matches. The sets are
+     * reused by the enclosing subexpressions.
+     */
+    private record Linearization(boolean nullable,
+                                 BitSet firstSet,
+                                 BitSet lastSet) {
+
+    }
+}
@@ -0,0 +1,342 @@
+package io.github.coderodde.regex;
+
+import java.util.Arrays;
+
+/**
+ * This class implements Hopcroft's DFA minimization algorithm in
+ * {@code O(kn log n)} time, where {@code n} is the number of states and
+ * {@code k} the number of alphabet classes.
+ *
+ * <p>The DFA is completed with a sink state receiving all the missing
+ * transitions. The sink starts in a block of its own, so a missing transition
+ * is never considered equivalent to a transition to an explicit dead state,
+ * and no original state ends up in the block of the sink.
+ *
+ * <p>The partition is kept in the refinable partition structure: the states
+ * are stored in {@link #elements} so that each block occupies a contiguous
+ * range, and the states marked during a splitting round are moved to the
+ * beginning of the range of their block. The inverse transitions are indexed
+ * by the target state, so a splitter is processed on all the classes at once
+ * in time linear in the number of its incoming transitions.
+ */
+final class HopcroftMinimizer {
+
+    private final int stateCount;
+    private final int classCount;
+
+    /**
+     * The incoming transitions of the state {@code t} are at the indices from
+     * {@code inverseStarts[t]} (inclusive) to {@code inverseStarts[t + 1]}
+     * (exclusive) of {@link #inverseSources} and {@link #inverseClassIds}.
+     */
+    private final int[] inverseStarts;
+    private final int[] inverseSources;
+    private final int[] inverseClassIds;
+
+    // The refinable partition:
+    private final int[] elements;
+    private final int[] locations;
+    private final int[] blockOf;
+    private final int[] blockStarts;
+    private final int[] blockEnds;
+
+    /**
+     * The marked states of the block {@code b} occupy the indices from
+     * {@code blockStarts[b]} (inclusive) to {@code blockMids[b]} (exclusive)
+     * of {@link #elements}.
+     */
+    private final int[] blockMids;
+    private int blockCount;
+
+    // The worklist of the splitters:
+    private final int[] worklist;
+    private final boolean[] inWorklist;
+    private int worklistSize;
+
+    // The scratch space of a splitting round:
+    private final int[] touchedBlocks;
+    private int touchedBlockCount;
+    private final int[] classCounts;
+    private final int[] touchedClassIds;
+    private int[] pairClassIds = new int[16];
+    private int[] pairSources = new int[16];
+    private int[] groupedSources = new int[16];
+
+    private HopcroftMinimizer(IndexedDeterministicFiniteAutomaton dfa) {
+        int originalStateCount = dfa.getNumberOfStates();
+        int sink = originalStateCount;
+
+        this.stateCount = originalStateCount + 1;
+        this.classCount = dfa.getClassCount();
+
+        int transitionCount = stateCount * classCount;
+
+        this.inverseStarts   = new int[stateCount + 1];
+        this.inverseSources  = new int[transitionCount];
+        this.inverseClassIds = new int[transitionCount];
+
+        for (int state = 0; state < stateCount; ++state) {
+            for (int classId = 0; classId < classCount; ++classId) {
+                ++inverseStarts[getTarget(dfa, state, classId, sink) + 1];
+            }
+        }
+
+        for (int state = 0; state < stateCount; ++state) {
+            inverseStarts[state + 1] += inverseStarts[state];
+        }
+
+        int[] fill = Arrays.copyOf(inverseStarts, stateCount);
+
+        for (int state = 0; state < stateCount; ++state) {
+            for (int classId = 0; classId < classCount; ++classId) {
+                int index = fill[getTarget(dfa, state, classId, sink)]++;
+
+                inverseSources[index] = state;
+                inverseClassIds[index] = classId;
+            }
+        }
+
+        this.elements      = new int[stateCount];
+        this.locations     = new int[stateCount];
+        this.blockOf       = new int[stateCount];
+        this.blockStarts   = new int[stateCount];
+        this.blockEnds     = new int[stateCount];
+        this.blockMids     = new int[stateCount];
+        this.worklist      = new int[stateCount];
+        this.inWorklist    = new boolean[stateCount];
+        this.touchedBlocks = new int[stateCount];
+        this.classCounts     = new int[classCount];
+        this.touchedClassIds = new int[classCount];
+
+        // The initial partition: accepting states, rejecting states and the
+        // sink.
+        int index = 0;
+
+        for (int pass = 0; pass < 2; ++pass) {
+            boolean acceptingPass = pass == 0;
+            int start = index;
+
+            for (int state = 0; state < originalStateCount; ++state) {
+                if (dfa.isAcceptingState(state) == acceptingPass) {
+                    elements[index] = state;
+                    locations[state] = index++;
+                }
+            }
+
+            addInitialBlock(start, index);
+        }
+
+        elements[index] = sink;
+        locations[sink] = index++;
+        addInitialBlock(index - 1, index);
+    }
+
+    /**
+     * Computes the coarsest partition of the states of the input DFA into the
+     * blocks of equivalent states.
+     *
+     * @param dfa the DFA to minimize.
+     * @return the array mapping each state to its block. The blocks are
+     *         numbered densely from zero.
+     */
+    static int[] computeBlocks(IndexedDeterministicFiniteAutomaton dfa) {
+        return new HopcroftMinimizer(dfa).refine();
+    }
+
+    private static int getTarget(IndexedDeterministicFiniteAutomaton dfa,
+                                 int state,
+                                 int classId,
+                                 int sink) {
+
+        if (state == sink) {
+            return sink;
+        }
+
+        int target = dfa.getTransition(state, classId);
+        return target == IndexedDeterministicFiniteAutomaton.DEAD_STATE ?
+               sink :
+               target;
+    }
+
+    private void addInitialBlock(int start, int end) {
+        if (start == end) {
+            return;
+        }
+
+        int block = blockCount++;
+
+        blockStarts[block] = start;
+        blockMids[block]   = start;
+        blockEnds[block]   = end;
+
+        for (int i = start; i < end; ++i) {
+            blockOf[elements[i]] = block;
+        }
+
+        worklist[worklistSize++] = block;
+        inWorklist[block] = true;
+    }
+
+    private int[] refine() {
+        while (worklistSize > 0) {
+            int splitter = worklist[--worklistSize];
+            inWorklist[splitter] = false;
+
+            int touchedCount = groupPredecessorsByClass(splitter);
+            int offset = 0;
+
+            for (int k = 0; k < touchedCount; ++k) {
+                int classId = touchedClassIds[k];
+                int end = classCounts[classId];
+
+                classCounts[classId] = 0;
+
+                for (int g = offset; g < end; ++g) {
+                    mark(groupedSources[g]);
+                }
+
+                offset = end;
+                splitTouchedBlocks();
+            }
+        }
+
+        // Drop the sink, which is the only state in its block, by giving its
+        // block ID to the last block:
+        int[] result = Arrays.copyOf(blockOf, stateCount - 1);
+        int sinkBlock = blockOf[stateCount - 1];
+
+        for (int state = 0; state < result.length; ++state) {
+            if (result[state] == blockCount - 1) {
+                result[state] = sinkBlock;
+            }
+        }
+
+        return result;
+    }
+
+    /**
+     * Collects the predecessors of the states in the splitter block, grouped
+     * by the class of the transition. After the call, the predecessors on the
+     * {@code k}th touched class end at the index
+     * {@code classCounts[touchedClassIds[k]]} of {@link #groupedSources}.
+     *
+     * @param splitter the splitter block.
+     * @return the number of touched classes.
+     */
+    private int groupPredecessorsByClass(int splitter) {
+        int pairCount = 0;
+        int touchedCount = 0;
+
+        for (int i = blockStarts[splitter]; i < blockEnds[splitter]; ++i) {
+            int target = elements[i];
+            int count = inverseStarts[target + 1] - inverseStarts[target];
+
+            if (pairCount + count > pairSources.length) {
+                int capacity = Math.max(pairCount + count,
+                                        2 * pairSources.length);
+
+                pairSources = Arrays.copyOf(pairSources, capacity);
+                pairClassIds = Arrays.copyOf(pairClassIds, capacity);
+            }
+
+            for (int j = inverseStarts[target];
+                     j < inverseStarts[target + 1];
+                     ++j) {
+
+                int classId = inverseClassIds[j];
+
+                if (classCounts[classId]++ == 0) {
+                    touchedClassIds[touchedCount++] = classId;
+                }
+
+                pairClassIds[pairCount] = classId;
+                pairSources[pairCount++] = inverseSources[j];
+            }
+        }
+
+        int offset = 0;
+
+        for (int k = 0; k < touchedCount; ++k) {
+            int classId = touchedClassIds[k];
+            int count = classCounts[classId];
+
+            classCounts[classId] = offset;
+            offset += count;
+        }
+
+        if (groupedSources.length < pairCount) {
+            groupedSources = new int[Math.max(pairCount,
+                                              2 * groupedSources.length)];
+        }
+
+        for (int p = 0; p < pairCount; ++p) {
+            groupedSources[classCounts[pairClassIds[p]]++] = pairSources[p];
+        }
+
+        return touchedCount;
+    }
+
+    private void mark(int state) {
+        int block = blockOf[state];
+        int location = locations[state];
+        int mid = blockMids[block];
+
+        if (location < mid) {
+            // Already marked.
+            return;
+        }
+
+        if (mid == blockStarts[block]) {
+            touchedBlocks[touchedBlockCount++] = block;
+        }
+
+        int other = elements[mid];
+
+        elements[mid] = state;
+        locations[state] = mid;
+        elements[location] = other;
+        locations[other] = location;
+        blockMids[block] = mid + 1;
+    }
+
+    /**
+     * Splits each touched block into its marked and unmarked states. The
+     * marked states form a new block. If the old block was waiting in the
+     * worklist, both halves are; otherwise, only the smaller one is added.
+     */
+    private void splitTouchedBlocks() {
+        while (touchedBlockCount > 0) {
+            int block = touchedBlocks[--touchedBlockCount];
+            int start = blockStarts[block];
+            int mid = blockMids[block];
+
+            blockMids[block] = start;
+
+            if (mid == blockEnds[block]) {
+                // All the states were marked.
+                continue;
+            }
+
+            int newBlock = blockCount++;
+
+            blockStarts[newBlock] = start;
+            blockMids[newBlock]   = start;
+            blockEnds[newBlock]   = mid;
+            blockStarts[block]    = mid;
+            blockMids[block]      = mid;
+
+            for (int i = start; i < mid; ++i) {
+                blockOf[elements[i]] = newBlock;
+            }
+
+            if (inWorklist[block]
+                    || mid - start <= blockEnds[block] - mid) {
+                worklist[worklistSize++] = newBlock;
+                inWorklist[newBlock] = true;
+            } else {
+                worklist[worklistSize++] = block;
+                inWorklist[block] = true;
+            }
+        }
+    }
+}
@@ -0,0 +1,433 @@
+package io.github.coderodde.regex;
+
+import io.github.coderodde.regex.DeterministicFiniteAutomatonStateTransitionFunction.TransitionFunctionEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * This class implements an int-indexed snapshot of a DFA over the classes of
+ * its alphabet partition. The states are numbered from zero, the initial state
+ * being zero, and the transitions are stored in a flat table with
+ * {@link #DEAD_STATE} denoting the missing ones. The minimization algorithms
+ * and the freezing operate on this representation.
+ */
+final class IndexedDeterministicFiniteAutomaton {
+
+    /**
+     * The table value denoting the absence of a transition.
+     */
+    static final int DEAD_STATE = FrozenDeterministicFiniteAutomaton.DEAD_STATE;
+
+    // The thresholds of the automatic minimization algorithm selection:
+    private static final int SMALL_TABLE_SIZE = 4096;
+    private static final double SPARSE_DENSITY = 0.1;
+    private static final int LARGE_NUMBER_OF_STATES = 8192;
+
+    private final AlphabetPartition alphabetPartition;
+    private final int stateCount;
+    private final int classCount;
+
+    /**
+     * The target of the state {@code s} on the class {@code c} is at the index
+     * {@code s * classCount + c}.
+     */
+    private final int[] transitions;
+    private final boolean[] accepting;
+    private final boolean anchoredAtStart;
+    private final boolean anchoredAtEnd;
+
+    IndexedDeterministicFiniteAutomaton(AlphabetPartition alphabetPartition,
+                                        int[] transitions,
+                                        boolean[] accepting,
+                                        boolean anchoredAtStart,
+                                        boolean anchoredAtEnd) {
+
+        this.alphabetPartition = alphabetPartition;
+        this.stateCount        = accepting.length;
+        this.classCount        = alphabetPartition.getClassCount();
+        this.transitions       = transitions;
+        this.accepting         = accepting;
+        this.anchoredAtStart   = anchoredAtStart;
+        this.anchoredAtEnd     = anchoredAtEnd;
+    }
+
+    /**
+     * Builds the indexed snapshot of the input DFA. Only the states reachable
+     * from the initial state are included, numbered in the breadth-first
+     * order.
+     *
+     * @param dfa the DFA to index.
+     * @return the indexed DFA.
+     */
+    static IndexedDeterministicFiniteAutomaton
+        of(DeterministicFiniteAutomaton dfa) {
+
+        DeterministicFiniteAutomatonState initialState = dfa.getInitialState();
+
+        if (initialState == null) {
+            throw new IllegalStateException("The initial state is not set.");
+        }
+
+        Map<DeterministicFiniteAutomatonState, Integer> stateIndexMap =
+            new HashMap<>();
+
+        List<DeterministicFiniteAutomatonState> stateList = new ArrayList<>();
+        List<CodePointRange> ranges = new ArrayList<>();
+
+        stateIndexMap.put(initialState, 0);
+        stateList.add(initialState);
+
+        for (int i = 0; i < stateList.size(); ++i) {
+            for (TransitionFunctionEntry entry
+                    : stateList.get(i).getTransitionFunction()) {
+
+                DeterministicFiniteAutomatonState goalState =
+                    entry.getGoalState();
+
+                if (!stateIndexMap.containsKey(goalState)) {
+                    stateIndexMap.put(goalState, stateList.size());
+                    stateList.add(goalState);
+                }
+
+                ranges.add(entry.getCharacterRange());
+            }
+        }
+
+        AlphabetPartition partition = AlphabetPartition.of(ranges);
+        int classCount = partition.getClassCount();
+        int[] transitions = new int[stateList.size() * classCount];
+        boolean[] accepting = new boolean[stateList.size()];
+
+        Arrays.fill(transitions, DEAD_STATE);
+
+        for (int stateIndex = 0; stateIndex < stateList.size(); ++stateIndex) {
+            DeterministicFiniteAutomatonState state = stateList.get(stateIndex);
+
+            accepting[stateIndex] = dfa.getAcceptingStates().contains(state);
+
+            for (TransitionFunctionEntry entry
+                    : state.getTransitionFunction()) {
+
+                int goalIndex = stateIndexMap.get(entry.getGoalState());
+
+                for (int classId
+                        : partition.getClassIds(entry.getCharacterRange())) {
+                    transitions[stateIndex * classCount + classId] = goalIndex;
+                }
+            }
+        }
+
+        return new IndexedDeterministicFiniteAutomaton(partition,
+                                                       transitions,
+                                                       accepting,
+                                                       dfa.isAnchoredAtStart(),
+                                                       dfa.isAnchoredAtEnd());
+    }
+
+    AlphabetPartition getAlphabetPartition() {
+        return alphabetPartition;
+    }
+
+    int getNumberOfStates() {
+        return stateCount;
+    }
+
+    int getClassCount() {
+        return classCount;
+    }
+
+    int getTransition(int state, int classId) {
+        return transitions[state * classCount + classId];
+    }
+
+    boolean isAcceptingState(int state) {
+        return accepting[state];
+    }
+
+    boolean isAnchoredAtStart() {
+        return anchoredAtStart;
+    }
+
+    boolean isAnchoredAtEnd() {
+        return anchoredAtEnd;
+    }
+
+    /**
+     * Builds the quotient of this DFA by the input partition of its states.
+     * The blocks are renumbered in the breadth-first order from the block of
+     * the initial state, so the result does not depend on the numbering of
+     * the blocks produced by the minimization algorithm.
+     *
+     * @param blockOf maps each state to its block. The blocks are numbered
+     *                densely from zero.
+     * @return the quotient DFA.
+     */
+    IndexedDeterministicFiniteAutomaton quotient(int[] blockOf) {
+        int blockCount = 0;
+
+        for (int block : blockOf) {
+            blockCount = Math.max(blockCount, block + 1);
+        }
+
+        int[] newIds = new int[blockCount];
+        int[] representatives = new int[blockCount];
+        int newCount = 0;
+
+        Arrays.fill(newIds, DEAD_STATE);
+        newIds[blockOf[0]] = newCount;
+        representatives[newCount++] = 0;
+
+        for (int i = 0; i < newCount; ++i) {
+            int representative = representatives[i];
+
+            for (int classId = 0; classId < classCount; ++classId) {
+                int target = getTransition(representative, classId);
+
+                if (target != DEAD_STATE && newIds[blockOf[target]] < 0) {
+                    newIds[blockOf[target]] = newCount;
+                    representatives[newCount++] = target;
+                }
+            }
+        }
+
+        int[] newTransitions = new int[newCount * classCount];
+        boolean[] newAccepting = new boolean[newCount];
+
+        for (int i = 0; i < newCount; ++i) {
+            int representative = representatives[i];
+
+            newAccepting[i] = accepting[representative];
+
+            for (int classId = 0; classId < classCount; ++classId) {
+                int target = getTransition(representative, classId);
+
+                newTransitions[i * classCount + classId] =
+                    target == DEAD_STATE ? DEAD_STATE : newIds[blockOf[target]];
+            }
+        }
+
+        return new IndexedDeterministicFiniteAutomaton(alphabetPartition,
+                                                       newTransitions,
+                                                       newAccepting,
+                                                       anchoredAtStart,
+                                                       anchoredAtEnd);
+    }
+
+    /**
+     * Minimizes this DFA via the input algorithm.
+     *
+     * @param algorithm the minimization algorithm.
+     * @param pool      the pool for the parallel algorithms.
+     * @return the minimized DFA.
+     */
+    IndexedDeterministicFiniteAutomaton minimize(
+            DeterministicFiniteAutomaton.MinimizationAlgorithm algorithm,
+            ForkJoinPool pool) {
+
+        return minimize(algorithm, pool, DeterminizationBudget.UNLIMITED);
+    }
+
+    /**
+     * Minimizes this DFA via the input algorithm. Only Brzozowski's algorithm,
+     * whose subset constructions may blow up, is charged against the budget;
+     * the partition refinements run in polynomial time.
+     *
+     * @param algorithm the minimization algorithm.
+     * @param pool      the pool for the parallel algorithms.
+     * @param budget    the resource limits of the minimization.
+     * @return the minimized DFA.
+     * @throws DeterminizationBudgetExceededException if the budget is 
+     *                                                exceeded.
+     */
+    IndexedDeterministicFiniteAutomaton minimize(
+            DeterministicFiniteAutomaton.MinimizationAlgorithm algorithm,
+            ForkJoinPool pool,
+            DeterminizationBudget budget) {
+
+        switch (algorithm) {
+            case HOPCROFT:
+                return quotient(HopcroftMinimizer.computeBlocks(this));
+
+            case MOORE:
+                return quotient(MooreMinimizer.computeBlocks(this));
+
+            case PARALLEL_MOORE:
+                return quotient(
+                    ParallelMooreMinimizer.computeBlocks(this, pool));
+
+            case VALMARI_LEHTINEN:
+                return quotient(ValmariLehtinenMinimizer.computeBlocks(this));
+
+            case BRZOZOWSKI:
+                return BrzozowskiMinimizer.minimize(this, budget);
+
+            case AUTO:
+                return minimize(selectMinimizationAlgorithm(), pool, budget);
+
+            default:
+                throw new EnumConstantNotPresentException(
+                    DeterministicFiniteAutomaton.MinimizationAlgorithm.class,
+                    algorithm.name());
+        }
+    }
+
+    /**
+     * Picks the minimization algorithm for this DFA. The tables of at most
+     * {@link #SMALL_TABLE_SIZE} entries go to Moore's algorithm, whose rounds
+     * have the least overhead. Otherwise, if at most the fraction
+     * {@link #SPARSE_DENSITY} of the table entries are transitions, the
+     * Valmari–Lehtinen algorithm, which only visits the existing
+     * transitions, is picked. The dense DFAs having at least
+     * {@link #LARGE_NUMBER_OF_STATES} states go to Hopcroft's algorithm,
+     * which does not risk the many rounds of Moore's algorithm, and the rest
+     * to Moore's algorithm.
+     *
+     * <p>Brzozowski's algorithm is never picked, since the size of its
+     * intermediate DFA cannot be predicted from the statistics of the input.
+     *
+     * @return the algorithm.
+     */
+    DeterministicFiniteAutomaton.MinimizationAlgorithm
+        selectMinimizationAlgorithm() {
+
+        long tableSize = (long) stateCount * classCount;
+
+        if (tableSize <= SMALL_TABLE_SIZE) {
+            return DeterministicFiniteAutomaton.MinimizationAlgorithm.MOORE;
+        }
+
+        long transitionCount = 0;
+
+        for (int target : transitions) {
+            if (target != DEAD_STATE) {
+                ++transitionCount;
+            }
+        }
+
+        if (transitionCount <= SPARSE_DENSITY * tableSize) {
+            return DeterministicFiniteAutomaton
+                       .MinimizationAlgorithm
+                       .VALMARI_LEHTINEN;
+        }
+
+        return stateCount >= LARGE_NUMBER_OF_STATES ?
+               DeterministicFiniteAutomaton.MinimizationAlgorithm.HOPCROFT :
+               DeterministicFiniteAutomaton.MinimizationAlgorithm.MOORE;
+    }
+
+    FrozenDeterministicFiniteAutomaton freeze() {
+        return freeze(DeterminizationBudget.UNLIMITED);
+    }
+
+    /**
+     * Freezes this indexed DFA. The helper DFAs built by the searches of the
+     * result are limited by the input budget.
+     *
+     * @param budget the limits of the helper DFAs.
+     * @return the frozen DFA.
+     */
+    FrozenDeterministicFiniteAutomaton freeze(DeterminizationBudget budget) {
+        return new FrozenDeterministicFiniteAutomaton(alphabetPartition,
+                                                      transitions,
+                                                      accepting,
+                                                      anchoredAtStart,
+                                                      anchoredAtEnd,
+                                                      budget);
+    }
+
+    /**
+     * Converts this indexed DFA back to a DFA. The adjacent code point ranges
+     * leading to the same target are merged into a single transition.
+     *
+     * @return the DFA.
+     */
+    DeterministicFiniteAutomaton toDeterministicFiniteAutomaton() {
+        DeterministicFiniteAutomaton dfa =
+            new DeterministicFiniteAutomaton(anchoredAtStart, anchoredAtEnd);
+
+        DeterministicFiniteAutomatonState[] states =
+            new DeterministicFiniteAutomatonState[stateCount];
+
+        for (int state = 0; state < stateCount; ++state) {
+            states[state] = new DeterministicFiniteAutomatonState(state);
+        }
+
+        dfa.setInitialState(states[0]);
+
+        List<CodePointRange> ranges = new ArrayList<>();
+        List<Integer> targets = new ArrayList<>();
+
+        for (int state = 0; state < stateCount; ++state) {
+            if (accepting[state]) {
+                dfa.addAcceptingState(states[state]);
+            }
+
+            ranges.clear();
+            targets.clear();
+
+            for (int classId = 0; classId < classCount; ++classId) {
+                int target = getTransition(state, classId);
+
+                if (target == DEAD_STATE) {
+                    continue;
+                }
+
+                for (CodePointRange range
+                        : alphabetPartition.getRanges(classId)) {
+                    ranges.add(range);
+                    targets.add(target);
+                }
+            }
+
+            addMergedTransitions(dfa, states, states[state], ranges, targets);
+        }
+
+        return dfa;
+    }
+
+    private static void addMergedTransitions(
+            DeterministicFiniteAutomaton dfa,
+            DeterministicFiniteAutomatonState[] states,
+            DeterministicFiniteAutomatonState sourceState,
+            List<CodePointRange> ranges,
+            List<Integer> targets) {
+
+        Integer[] order = new Integer[ranges.size()];
+
+        for (int i = 0; i < order.length; ++i) {
+            order[i] = i;
+        }
+
+        Arrays.sort(order, (i, j) -> Integer.compare(
+            ranges.get(i).getMinimumCodePoint(),
+            ranges.get(j).getMinimumCodePoint()));
+
+        int k = 0;
+
+        while (k < order.length) {
+            int target = targets.get(order[k]);
+            int minimumCodePoint = ranges.get(order[k]).getMinimumCodePoint();
+            int maximumCodePoint = ranges.get(order[k]).getMaximumCodePoint();
+
+            ++k;
+
+            while (k < order.length
+                    && targets.get(order[k]) == target
+                    && ranges.get(order[k]).getMinimumCodePoint()
+                        == maximumCodePoint + 1) {
+
+                maximumCodePoint = ranges.get(order[k]).getMaximumCodePoint();
+                ++k;
+            }
+
+            dfa.addTransition(sourceState,
+                              new CodePointRange(minimumCodePoint,
+                                                 maximumCodePoint),
+                              states[target]);
+        }
+    }
+}
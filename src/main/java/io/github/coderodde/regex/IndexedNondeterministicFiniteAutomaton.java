@@ -0,0 +1,618 @@
+package io.github.coderodde.regex;
+
+import io.github.coderodde.regex.NondeterministicFiniteAutomatonState.TransitionFunctionEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * This class implements an immutable, array-based snapshot of a
+ * nondeterministic finite automaton. The states are numbered densely with the
+ * initial state receiving the ID of zero, and all the transitions are stored in
+ * compressed sparse row form. The epsilon closures are computed once, upon
+ * construction. The simulation keeps the current state sets in two 
+ * {@link SparseIntSet}s that are swapped after each code point, so that nothing
+ * is allocated per input character.
+ */
+final class IndexedNondeterministicFiniteAutomaton {
+
+    /**
+     * The value of {@link #dotTargets} denoting the absence of a dot
+     * transition.
+     */
+    private static final int NO_STATE = -1;
+
+    private final int stateCount;
+    private final boolean[] accepting;
+
+    /**
+     * The epsilon transitions of the state {@code q} are stored at the indices
+     * from {@code epsilonStarts[q]} (inclusive) to {@code epsilonStarts[q + 1]}
+     * (exclusive) of {@link #epsilonTargets}.
+     */
+    private final int[] epsilonStarts;
+    private final int[] epsilonTargets;
+    
+    /**
+     * The epsilon closure of the state {@code q} is stored at the indices from
+     * {@code closureStarts[q]} (inclusive) to {@code closureStarts[q + 1]} 
+     * (exclusive) of {@link #closureStates}. Only the important states, which
+     * are either accepting or have outgoing non-epsilon transitions, are kept,
+     * since the other ones never affect the simulation. The closures are 
+     * computed only for the initial state and the targets of the non-epsilon 
+     * transitions; the closures of all the other states are empty.
+     */
+    private final int[] closureStarts;
+    private final int[] closureStates;
+
+    /**
+     * The transitions of the state {@code q} are stored at the indices from
+     * {@code transitionStarts[q]} (inclusive) to
+     * {@code transitionStarts[q + 1]} (exclusive) of the three arrays below.
+     */
+    private final int[] transitionStarts;
+    private final int[] transitionMinimums;
+    private final int[] transitionMaximums;
+    private final int[] transitionTargets;
+
+    /**
+     * Maps each state to the target of its dot transition or to
+     * {@link #NO_STATE}.
+     */
+    private final int[] dotTargets;
+
+    private final boolean anchoredAtStart;
+    private final boolean anchoredAtEnd;
+
+    /**
+     * Indexes all the states reachable from the initial state of the input
+     * NFA.
+     *
+     * @param nfa the NFA to index.
+     */
+    IndexedNondeterministicFiniteAutomaton(
+            NondeterministicFiniteAutomaton nfa) {
+
+        Map<NondeterministicFiniteAutomatonState, Integer> stateIndexMap =
+            new HashMap<>();
+
+        List<NondeterministicFiniteAutomatonState> stateList =
+            new ArrayList<>();
+
+        stateIndexMap.put(nfa.getInitialState(), 0);
+        stateList.add(nfa.getInitialState());
+
+        int epsilonCount = 0;
+        int transitionCount = 0;
+
+        for (int i = 0; i < stateList.size(); ++i) {
+            NondeterministicFiniteAutomatonState state = stateList.get(i);
+
+            for (NondeterministicFiniteAutomatonState follower
+                    : state.getEpsilonStates()) {
+                addState(follower, stateIndexMap, stateList);
+                ++epsilonCount;
+            }
+
+            for (int j = 0; j < state.getTransitionCount(); ++j) {
+                for (NondeterministicFiniteAutomatonState follower
+                        : state.getTransition(j).getGoalStates()) {
+                    addState(follower, stateIndexMap, stateList);
+                    ++transitionCount;
+                }
+            }
+
+            if (state.getDotTransition() != null) {
+                addState(state.getDotTransition(), stateIndexMap, stateList);
+            }
+        }
+
+        this.stateCount         = stateList.size();
+        this.accepting          = new boolean[stateCount];
+        this.epsilonStarts      = new int[stateCount + 1];
+        this.epsilonTargets     = new int[epsilonCount];
+        this.transitionStarts   = new int[stateCount + 1];
+        this.transitionMinimums = new int[transitionCount];
+        this.transitionMaximums = new int[transitionCount];
+        this.transitionTargets  = new int[transitionCount];
+        this.dotTargets         = new int[stateCount];
+        this.anchoredAtStart    = nfa.isAnchoredAtStart();
+        this.anchoredAtEnd      = nfa.isAnchoredAtEnd();
+
+        Arrays.fill(dotTargets, NO_STATE);
+
+        epsilonCount = 0;
+        transitionCount = 0;
+
+        for (int i = 0; i < stateCount; ++i) {
+            NondeterministicFiniteAutomatonState state = stateList.get(i);
+
+            accepting[i] = nfa.getAcceptingStates().contains(state);
+            epsilonStarts[i] = epsilonCount;
+            transitionStarts[i] = transitionCount;
+
+            for (NondeterministicFiniteAutomatonState follower
+                    : state.getEpsilonStates()) {
+                epsilonTargets[epsilonCount++] = stateIndexMap.get(follower);
+            }
+
+            for (int j = 0; j < state.getTransitionCount(); ++j) {
+                TransitionFunctionEntry entry = state.getTransition(j);
+                CodePointRange range = entry.getCodePointRange();
+
+                for (NondeterministicFiniteAutomatonState follower
+                        : entry.getGoalStates()) {
+
+                    transitionMinimums[transitionCount] =
+                        range.getMinimumCodePoint();
+
+                    transitionMaximums[transitionCount] =
+                        range.getMaximumCodePoint();
+
+                    transitionTargets[transitionCount++] =
+                        stateIndexMap.get(follower);
+                }
+            }
+
+            if (state.getDotTransition() != null) {
+                dotTargets[i] = stateIndexMap.get(state.getDotTransition());
+            }
+        }
+
+        epsilonStarts[stateCount] = epsilonCount;
+        transitionStarts[stateCount] = transitionCount;
+        
+        this.closureStarts = new int[stateCount + 1];
+        this.closureStates = computeClosures();
+    }
+    
+    /**
+     * Computes the epsilon closures of the initial state and all the targets 
+     * of the non-epsilon transitions, and fills {@link #closureStarts}.
+     * 
+     * @return the concatenation of all the closures.
+     */
+    private int[] computeClosures() {
+        boolean[] entry = new boolean[stateCount];
+        entry[0] = true;
+        
+        for (int target : transitionTargets) {
+            entry[target] = true;
+        }
+        
+        for (int target : dotTargets) {
+            if (target != NO_STATE) {
+                entry[target] = true;
+            }
+        }
+        
+        SparseIntSet visited = new SparseIntSet(stateCount);
+        int[] stack = new int[stateCount];
+        int[] closures = new int[stateCount];
+        int size = 0;
+        
+        for (int state = 0; state < stateCount; ++state) {
+            closureStarts[state] = size;
+            
+            if (!entry[state]) {
+                continue;
+            }
+            
+            visited.clear();
+            visited.add(state);
+            
+            int top = 0;
+            stack[top++] = state;
+            
+            while (top > 0) {
+                int source = stack[--top];
+                
+                if (isImportant(source)) {
+                    if (size == closures.length) {
+                        closures = Arrays.copyOf(closures, 2 * size);
+                    }
+                    
+                    closures[size++] = source;
+                }
+                
+                for (int i = epsilonStarts[source]; 
+                         i < epsilonStarts[source + 1]; 
+                         ++i) {
+                    
+                    int target = epsilonTargets[i];
+                    
+                    if (visited.add(target)) {
+                        stack[top++] = target;
+                    }
+                }
+            }
+        }
+        
+        closureStarts[stateCount] = size;
+        return Arrays.copyOf(closures, size);
+    }
+    
+    private boolean isImportant(int state) {
+        return accepting[state] 
+            || dotTargets[state] != NO_STATE
+            || transitionStarts[state] < transitionStarts[state + 1];
+    }
+
+    int getNumberOfStates() {
+        return stateCount;
+    }
+    
+    /**
+     * Estimates the number of bytes occupied by this indexed NFA. Only the 
+     * payloads of the arrays are counted.
+     *
+     * @return the estimated size in bytes.
+     */
+    long getEstimatedNumberOfBytes() {
+        long numberOfInts = (long) epsilonStarts.length
+                          + epsilonTargets.length
+                          + closureStarts.length
+                          + closureStates.length
+                          + transitionStarts.length
+                          + transitionMinimums.length
+                          + transitionMaximums.length
+                          + transitionTargets.length
+                          + dotTargets.length;
+        
+        return Integer.BYTES * numberOfInts + accepting.length;
+    }
+    
+    boolean isAcceptingState(int state) {
+        return accepting[state];
+    }
+    
+    /**
+     * Computes the alphabet partition induced by all the transitions. A dot 
+     * transition contributes the entire code point range.
+     * 
+     * @return the alphabet partition.
+     */
+    AlphabetPartition computeAlphabetPartition() {
+        List<CodePointRange> ranges = new ArrayList<>();
+        
+        for (int i = 0; i < transitionTargets.length; ++i) {
+            ranges.add(new CodePointRange(transitionMinimums[i], 
+                                          transitionMaximums[i]));
+        }
+        
+        for (int target : dotTargets) {
+            if (target != NO_STATE) {
+                ranges.add(new CodePointRange(0, Character.MAX_CODE_POINT));
+                break;
+            }
+        }
+        
+        return AlphabetPartition.of(ranges);
+    }
+    
+    /**
+     * Computes the transitions of every state in terms of the character 
+     * classes of the input partition. A transition on a code point range 
+     * yields one pair per class contained in the range, and a dot transition
+     * yields one pair per class.
+     * 
+     * @param partition the alphabet partition of this NFA.
+     * @return the class transitions.
+     */
+    ClassTransitions computeClassTransitions(AlphabetPartition partition) {
+        int classCount = partition.getClassCount();
+        int[] starts = new int[stateCount + 1];
+        int[] classIds = new int[transitionTargets.length];
+        int[] targets = new int[transitionTargets.length];
+        int size = 0;
+        
+        for (int state = 0; state < stateCount; ++state) {
+            starts[state] = size;
+            
+            for (int j = transitionStarts[state]; 
+                     j < transitionStarts[state + 1];
+                     ++j) {
+                
+                int[] rangeClassIds = 
+                    partition.getClassIds(transitionMinimums[j],
+                                          transitionMaximums[j]);
+                
+                if (size + rangeClassIds.length > classIds.length) {
+                    int capacity = Math.max(size + rangeClassIds.length, 
+                                            2 * classIds.length);
+                    
+                    classIds = Arrays.copyOf(classIds, capacity);
+                    targets = Arrays.copyOf(targets, capacity);
+                }
+                
+                for (int classId : rangeClassIds) {
+                    classIds[size] = classId;
+                    targets[size++] = transitionTargets[j];
+                }
+            }
+            
+            if (dotTargets[state] != NO_STATE) {
+                if (size + classCount > classIds.length) {
+                    int capacity = Math.max(size + classCount, 
+                                            2 * classIds.length);
+                    
+                    classIds = Arrays.copyOf(classIds, capacity);
+                    targets = Arrays.copyOf(targets, capacity);
+                }
+                
+                for (int classId = 0; classId < classCount; ++classId) {
+                    classIds[size] = classId;
+                    targets[size++] = dotTargets[state];
+                }
+            }
+        }
+        
+        starts[stateCount] = size;
+        
+        return new ClassTransitions(starts, 
+                                    Arrays.copyOf(classIds, size),
+                                    Arrays.copyOf(targets, size));
+    }
+
+    /**
+     * Checks whether the entire input text is accepted.
+     *
+     * @param text the text to check.
+     * @return {@code true} only if {@code text} is accepted.
+     */
+    boolean matches(CharSequence text) {
+        SparseIntSet current = new SparseIntSet(stateCount);
+        SparseIntSet next = new SparseIntSet(stateCount);
+        int n = text.length();
+        int index = 0;
+
+        addClosure(current, null, 0, 0);
+
+        while (index < n) {
+            int codePoint = Character.codePointAt(text, index);
+            step(current, null, next, null, codePoint);
+
+            if (next.isEmpty()) {
+                return false;
+            }
+
+            SparseIntSet tmp = current;
+            current = next;
+            next = tmp;
+            index += Character.charCount(codePoint);
+        }
+
+        return containsAcceptingState(current);
+    }
+
+    /**
+     * Checks whether some substring of the input text is accepted. Unless
+     * anchored at start, the epsilon closure of the initial state is added at
+     * every position.
+     *
+     * @param text the text to search.
+     * @return {@code true} only if {@code text} contains a match.
+     */
+    boolean find(CharSequence text) {
+        SparseIntSet current = new SparseIntSet(stateCount);
+        SparseIntSet next = new SparseIntSet(stateCount);
+        int n = text.length();
+        int index = 0;
+
+        addClosure(current, null, 0, 0);
+
+        while (true) {
+            if (!anchoredAtEnd && containsAcceptingState(current)) {
+                return true;
+            }
+
+            if (index == n) {
+                return anchoredAtEnd && containsAcceptingState(current);
+            }
+
+            int codePoint = Character.codePointAt(text, index);
+            step(current, null, next, null, codePoint);
+
+            if (!anchoredAtStart) {
+                addClosure(next, null, 0, 0);
+            } else if (next.isEmpty()) {
+                return false;
+            }
+
+            SparseIntSet tmp = current;
+            current = next;
+            next = tmp;
+            index += Character.charCount(codePoint);
+        }
+    }
+
+    /**
+     * Finds the leftmost-longest match starting at or after {@code from}.
+     * Each state in the current set remembers the earliest index at which a
+     * match attempt leading to it started. Since the attempts are added in the
+     * order of their starting indices, the sets are ordered by the starting
+     * indices as well. Once an attempt accepts, no new attempts are started
+     * and the ones started later are dropped.
+     *
+     * @param text          the text to search.
+     * @param from          the index at which to start searching.
+     * @param matchPosition the object to store the match in.
+     * @return {@code true} if a match was found.
+     */
+    boolean findMatch(CharSequence text,
+                      int from,
+                      MatchPosition matchPosition) {
+
+        Objects.requireNonNull(text, "The input text is null.");
+        Objects.checkIndex(from, text.length() + 1);
+        from = MatchPositionIterator.alignToCodePoint(text, from);
+
+        if (anchoredAtStart && from > 0) {
+            return false;
+        }
+
+        SparseIntSet current = new SparseIntSet(stateCount);
+        SparseIntSet next = new SparseIntSet(stateCount);
+        int[] currentStarts = new int[stateCount];
+        int[] nextStarts = new int[stateCount];
+        int n = text.length();
+        int index = from;
+        int matchStart = -1;
+        int matchEnd = -1;
+
+        addClosure(current, currentStarts, 0, from);
+
+        while (true) {
+            if (!anchoredAtEnd || index == n) {
+                for (int i = 0; i < current.size(); ++i) {
+                    int state = current.get(i);
+
+                    if (accepting[state]) {
+                        matchStart = currentStarts[state];
+                        matchEnd = index;
+
+                        // Drop the attempts started later:
+                        int size = i + 1;
+
+                        while (size < current.size()
+                                && currentStarts[current.get(size)]
+                                   == matchStart) {
+                            ++size;
+                        }
+
+                        current.truncate(size);
+                        break;
+                    }
+                }
+            }
+
+            if (index == n) {
+                break;
+            }
+
+            int codePoint = Character.codePointAt(text, index);
+            step(current, currentStarts, next, nextStarts, codePoint);
+            index += Character.charCount(codePoint);
+
+            if (matchStart == -1 && !anchoredAtStart) {
+                addClosure(next, nextStarts, 0, index);
+            }
+
+            if (next.isEmpty()) {
+                break;
+            }
+
+            SparseIntSet tmpSet = current;
+            current = next;
+            next = tmpSet;
+
+            int[] tmpStarts = currentStarts;
+            currentStarts = nextStarts;
+            nextStarts = tmpStarts;
+        }
+
+        if (matchStart == -1) {
+            return false;
+        }
+
+        matchPosition.set(matchStart, matchEnd);
+        return true;
+    }
+
+    /**
+     * Computes the states reachable from {@code current} by reading the input
+     * code point, including the epsilon closures, and stores them in
+     * {@code next}.
+     *
+     * @param current       the current state set.
+     * @param currentStarts the starting indices of the current states, or
+     *                      {@code null} if not tracked.
+     * @param next          the set to store the result in.
+     * @param nextStarts    the starting indices of the next states, or
+     *                      {@code null} if not tracked.
+     * @param codePoint     the code point to read.
+     */
+    void step(SparseIntSet current,
+              int[] currentStarts,
+              SparseIntSet next,
+              int[] nextStarts,
+              int codePoint) {
+
+        next.clear();
+
+        for (int i = 0; i < current.size(); ++i) {
+            int state = current.get(i);
+            int start = currentStarts == null ? 0 : currentStarts[state];
+
+            for (int j = transitionStarts[state];
+                     j < transitionStarts[state + 1];
+                     ++j) {
+
+                if (transitionMinimums[j] <= codePoint
+                        && codePoint <= transitionMaximums[j]) {
+                    addClosure(next,
+                               nextStarts,
+                               transitionTargets[j],
+                               start);
+                }
+            }
+
+            if (dotTargets[state] != NO_STATE) {
+                addClosure(next, nextStarts, dotTargets[state], start);
+            }
+        }
+    }
+
+    /**
+     * Adds the precomputed epsilon closure of the input state to the set.
+     *
+     * @param set    the target set.
+     * @param starts the starting indices of the states, or {@code null} if
+     *               not tracked.
+     * @param state  the state whose closure to add.
+     * @param start  the starting index to assign to the added states.
+     */
+    void addClosure(SparseIntSet set, int[] starts, int state, int start) {
+        for (int i = closureStarts[state]; i < closureStarts[state + 1]; ++i) {
+            int target = closureStates[i];
+
+            if (set.add(target) && starts != null) {
+                starts[target] = start;
+            }
+        }
+    }
+
+    boolean containsAcceptingState(SparseIntSet set) {
+        for (int i = 0; i < set.size(); ++i) {
+            if (accepting[set.get(i)]) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private static void addState(
+            NondeterministicFiniteAutomatonState state,
+            Map<NondeterministicFiniteAutomatonState, Integer> stateIndexMap,
+            List<NondeterministicFiniteAutomatonState> stateList) {
+
+        if (!stateIndexMap.containsKey(state)) {
+            stateIndexMap.put(state, stateList.size());
+            stateList.add(state);
+        }
+    }
+
+    /**
+     * Holds the transitions of all the states as pairs of a character class ID
+     * and a target state. The pairs of the state {@code q} are stored at the 
+     * indices from {@code starts[q]} (inclusive) to {@code starts[q + 1]} 
+     * (exclusive) of {@code classIds} and {@code targets}.
+     */
+    record ClassTransitions(int[] starts, int[] classIds, int[] targets) {
+        
+    }
+}
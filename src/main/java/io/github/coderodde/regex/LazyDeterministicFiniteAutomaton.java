@@ -0,0 +1,573 @@
+package io.github.coderodde.regex;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Objects;
+
+/**
+ * This class implements a lazily determinized finite automaton. The DFA states
+ * are built from the NFA state subsets only when the input text reaches them,
+ * and are kept in a cache holding at most a given number of states. When the
+ * cache fills up, it is cleared and the determinization restarts from the
+ * current state. If the cache keeps getting cleared after only a few code
+ * points per cached state, the matcher falls back to the NFA simulation for
+ * good.
+ *
+ * <p>The state caches are shared by all the threads using an instance. The
+ * cached transitions are followed without locking, and only the missing ones
+ * are computed under the lock of the cache. Hence, the memory bound applies
+ * to the instance as a whole, and the states built by one thread are reused by
+ * the others.
+ */
+public final class LazyDeterministicFiniteAutomaton
+        implements RegularExpressionMatcher {
+
+    /**
+     * The default maximum number of cached states.
+     */
+    public static final int DEFAULT_MAXIMUM_NUMBER_OF_STATES = 10_000;
+
+    /**
+     * The ID of the state denoting the absence of a transition.
+     */
+    private static final int DEAD_STATE = -1;
+
+    /**
+     * The ID of the state returned once the cache has given up.
+     */
+    private static final int FALLBACK = -2;
+
+    /**
+     * A cache clear is considered premature if less than this many code points
+     * per cached state were read since the previous clear.
+     */
+    private static final int MINIMUM_CODE_POINTS_PER_STATE = 10;
+
+    /**
+     * The number of premature cache clears in a row after which the NFA
+     * simulation is used instead.
+     */
+    private static final int MAXIMUM_NUMBER_OF_PREMATURE_CLEARS = 3;
+
+    /**
+     * The state all the missing transitions lead to.
+     */
+    private static final State DEAD = new State(DEAD_STATE, false, null, 0);
+
+    /**
+     * The state returned instead of a state once the cache has given up.
+     */
+    private static final State GIVEN_UP = new State(FALLBACK, false, null, 0);
+
+    private final IndexedNondeterministicFiniteAutomaton nfa;
+    private final AlphabetPartition alphabetPartition;
+    private final int classCount;
+    private final int maximumNumberOfStates;
+    private final boolean anchoredAtStart;
+    private final boolean anchoredAtEnd;
+
+    /**
+     * The cache of the DFA recognizing exactly the language of the NFA.
+     */
+    private final StateCache anchoredCache;
+
+    /**
+     * The cache of the DFA recognizing {@code .*L}, where {@code L} is the
+     * language of the NFA.
+     */
+    private final StateCache unanchoredCache;
+
+    public LazyDeterministicFiniteAutomaton(
+            NondeterministicFiniteAutomaton nfa) {
+        this(nfa, DEFAULT_MAXIMUM_NUMBER_OF_STATES);
+    }
+
+    /**
+     * Constructs a lazy DFA for the input NFA. Later modifications of the NFA
+     * are not reflected in the lazy DFA.
+     *
+     * @param nfa                   the NFA to determinize.
+     * @param maximumNumberOfStates the maximum number of states in each of
+     *                              the state caches.
+     */
+    public LazyDeterministicFiniteAutomaton(
+            NondeterministicFiniteAutomaton nfa,
+            int maximumNumberOfStates) {
+
+        Objects.requireNonNull(nfa, "The input NFA is null.");
+
+        if (maximumNumberOfStates < 2) {
+            throw new IllegalArgumentException(
+                "The maximum number of states (" + maximumNumberOfStates
+                    + ") is less than 2.");
+        }
+
+        this.nfa                   = nfa.getIndexedNfa();
+        this.alphabetPartition     = this.nfa.computeAlphabetPartition();
+        this.classCount            = alphabetPartition.getClassCount();
+        this.maximumNumberOfStates = maximumNumberOfStates;
+        this.anchoredAtStart       = nfa.isAnchoredAtStart();
+        this.anchoredAtEnd         = nfa.isAnchoredAtEnd();
+        this.anchoredCache         = new StateCache(false);
+        this.unanchoredCache       = new StateCache(true);
+    }
+
+    /**
+     * Compiles the input regular expression to a lazy DFA.
+     *
+     * @param regex the regular expression.
+     * @return the lazy DFA.
+     */
+    public static LazyDeterministicFiniteAutomaton compile(String regex) {
+        return new LazyDeterministicFiniteAutomaton(
+            NondeterministicFiniteAutomaton.compile(regex));
+    }
+
+    @Override
+    public boolean matches(String text) {
+        Objects.requireNonNull(text, "The input text is null.");
+
+        StateCache cache = anchoredCache;
+        State state = cache.getInitialState();
+        int codePointsRead = 0;
+        int n = text.length();
+        int index = 0;
+
+        while (state.id >= 0 && index < n) {
+            int codePoint = text.codePointAt(index);
+            int classId = alphabetPartition.getClassId(codePoint);
+            State nextState = state.transitions[classId];
+
+            if (nextState == null) {
+                nextState = cache.computeTransition(state,
+                                                    classId,
+                                                    codePointsRead);
+                codePointsRead = 0;
+            }
+
+            state = nextState;
+            index += Character.charCount(codePoint);
+            ++codePointsRead;
+        }
+
+        if (state.id == FALLBACK) {
+            return nfa.matches(text);
+        }
+
+        return state.accepting;
+    }
+
+    /**
+     * Checks whether some substring of the input text is accepted. Makes a
+     * single left-to-right pass over {@code text}.
+     *
+     * @param text the text to search.
+     * @return {@code true} only if {@code text} contains a match.
+     */
+    @Override
+    public boolean find(String text) {
+        Objects.requireNonNull(text, "The input text is null.");
+
+        switch (scan(text, 0).id) {
+            case DEAD_STATE:
+                return false;
+
+            case FALLBACK:
+                return nfa.find(text);
+
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Finds the leftmost-longest match. The lazy DFA tells whether there is a
+     * match at or after {@code from} at all; only if there is one, the NFA
+     * simulation locates it.
+     *
+     * @param text the text to search.
+     * @param from the index at which to start searching.
+     * @return the position of the match, or {@code null} if there is no match.
+     */
+    @Override
+    public MatchPosition findMatch(CharSequence text, int from) {
+        MatchPosition matchPosition = new MatchPosition(0, 0);
+        return findMatch(text, from, matchPosition) ? matchPosition : null;
+    }
+
+    @Override
+    public Iterator<MatchPosition> findAll(CharSequence text) {
+        return new MatchPositionIterator(text, this::findMatch);
+    }
+
+    @Override
+    public void forEachMatch(CharSequence text, MatchConsumer consumer) {
+        MatchPositionIterator.forEachMatch(text, this::findMatch, consumer);
+    }
+
+    /**
+     * Estimates the number of bytes this lazy DFA may occupy once both of its
+     * state caches are full. A cached state takes a reference per character
+     * class, counted as compressed, and at most an {@code int} per NFA state.
+     *
+     * @return the estimated maximum size in bytes.
+     */
+    long getEstimatedNumberOfBytes() {
+        long bytesPerState =
+            (long) Integer.BYTES * (classCount + nfa.getNumberOfStates());
+
+        return nfa.getEstimatedNumberOfBytes()
+             + alphabetPartition.getEstimatedNumberOfBytes()
+             + 2L * maximumNumberOfStates * bytesPerState;
+    }
+
+    /**
+     * Returns the number of times the state caches were cleared.
+     *
+     * @return the number of cache clears.
+     */
+    int getNumberOfCacheClears() {
+        return anchoredCache.getClearCount() + unanchoredCache.getClearCount();
+    }
+
+    /**
+     * Returns the number of states currently cached.
+     *
+     * @return the number of cached states.
+     */
+    int getNumberOfCachedStates() {
+        return anchoredCache.getSize() + unanchoredCache.getSize();
+    }
+
+    /**
+     * Checks whether at least one of the state caches gave up and the NFA
+     * simulation is used instead.
+     *
+     * @return {@code true} if falling back to the NFA simulation.
+     */
+    boolean usesNfaSimulation() {
+        return anchoredCache.exhausted || unanchoredCache.exhausted;
+    }
+
+    boolean findMatch(CharSequence text,
+                      int from,
+                      MatchPosition matchPosition) {
+
+        Objects.requireNonNull(text, "The input text is null.");
+        Objects.checkIndex(from, text.length() + 1);
+        from = MatchPositionIterator.alignToCodePoint(text, from);
+
+        if (anchoredAtStart && from > 0) {
+            return false;
+        }
+
+        if (scan(text, from).id == DEAD_STATE) {
+            return false;
+        }
+
+        return nfa.findMatch(text, from, matchPosition);
+    }
+
+    /**
+     * Scans the input text from the index {@code from} until a match ends.
+     * Unless anchored at start, a match may start anywhere at or after
+     * {@code from}.
+     *
+     * @param text the text to scan.
+     * @param from the index at which to start scanning.
+     * @return {@link #DEAD} if there is no match, {@link #GIVEN_UP} if the
+     *         state cache gave up, or the accepting state otherwise.
+     */
+    private State scan(CharSequence text, int from) {
+        StateCache cache = anchoredAtStart ? anchoredCache : unanchoredCache;
+        State state = cache.getInitialState();
+        int codePointsRead = 0;
+        int n = text.length();
+        int index = from;
+
+        while (state.id >= 0) {
+            if ((!anchoredAtEnd || index == n) && state.accepting) {
+                return state;
+            }
+
+            if (index == n) {
+                return DEAD;
+            }
+
+            int codePoint = Character.codePointAt(text, index);
+            int classId = alphabetPartition.getClassId(codePoint);
+            State nextState = state.transitions[classId];
+
+            if (nextState == null) {
+                nextState = cache.computeTransition(state,
+                                                    classId,
+                                                    codePointsRead);
+                codePointsRead = 0;
+            }
+
+            state = nextState;
+            index += Character.charCount(codePoint);
+            ++codePointsRead;
+        }
+
+        return state;
+    }
+
+    /**
+     * This class implements a cached DFA state. All its fields are final and
+     * each entry of its transition row is written at most once, from
+     * {@code null} to the target state. A thread following the transitions
+     * without locking thus sees either {@code null}, meaning the transition is
+     * not computed yet, or a fully constructed target state.
+     */
+    private static final class State {
+
+        /**
+         * The ID of the state within its generation, or a negative value for
+         * the special states.
+         */
+        final int id;
+        final boolean accepting;
+
+        /**
+         * The generation of the cache the state was created in.
+         */
+        final Generation generation;
+
+        /**
+         * The target states indexed by the character classes.
+         */
+        final State[] transitions;
+
+        State(int id,
+              boolean accepting,
+              Generation generation,
+              int classCount) {
+
+            this.id          = id;
+            this.accepting   = accepting;
+            this.generation  = generation;
+            this.transitions = new State[classCount];
+        }
+    }
+
+    /**
+     * This class holds the states cached since the last clear of a state
+     * cache. A clear replaces the whole generation, so that the threads still
+     * scanning through the states of the previous one are not disturbed. The
+     * previous generation becomes garbage once they are done.
+     */
+    private static final class Generation {
+
+        /**
+         * Interns the NFA state subsets. The ID of each subset equals the ID
+         * of its DFA state.
+         */
+        final SubsetTable subsets = new SubsetTable();
+
+        State[] states = new State[16];
+        int size;
+    }
+
+    /**
+     * This class implements a bounded cache of the DFA states shared by all
+     * the threads. The states are numbered densely in the order of creation.
+     * The missing transitions are computed under the lock of the cache.
+     */
+    private final class StateCache {
+
+        /**
+         * Whether the epsilon closure of the initial NFA state is added to
+         * every subset, which makes a match attempt start at every index.
+         */
+        private final boolean unanchored;
+
+        private final SparseIntSet currentSet;
+        private final SparseIntSet nextSet;
+
+        /**
+         * The current generation. Guarded by the lock of this cache.
+         */
+        private Generation generation = new Generation();
+
+        /**
+         * The initial state of the current generation, {@link #GIVEN_UP} once
+         * the cache has given up, or {@code null} if not built yet.
+         */
+        private volatile State initialState;
+
+        private long codePointsSinceClear;
+        private int prematureClears;
+        private int clearCount;
+        private volatile boolean exhausted;
+
+        StateCache(boolean unanchored) {
+            this.unanchored = unanchored;
+            this.currentSet = new SparseIntSet(nfa.getNumberOfStates());
+            this.nextSet    = new SparseIntSet(nfa.getNumberOfStates());
+        }
+
+        State getInitialState() {
+            State state = initialState;
+            return state != null ? state : computeInitialState();
+        }
+
+        synchronized int getClearCount() {
+            return clearCount;
+        }
+
+        synchronized int getSize() {
+            return generation.size;
+        }
+
+        private synchronized State computeInitialState() {
+            if (initialState != null) {
+                return initialState;
+            }
+
+            nextSet.clear();
+            nfa.addClosure(nextSet, null, 0, 0);
+
+            State state = getOrAddState(nextSet);
+
+            if (state == null) {
+                if (!clear()) {
+                    return GIVEN_UP;
+                }
+
+                state = getOrAddState(nextSet);
+            }
+
+            initialState = state;
+            return state;
+        }
+
+        /**
+         * Computes and caches the transition from the input state on the
+         * input character class. Clears the cache first if it is full. If the
+         * input state belongs to an earlier generation, its subset is added
+         * to the current one, and the scan continues in the current
+         * generation.
+         *
+         * @param state          the source state.
+         * @param classId        the character class ID.
+         * @param codePointsRead the number of code points read since the last
+         *                       call.
+         * @return the target state, {@link #DEAD} or {@link #GIVEN_UP}.
+         */
+        synchronized State computeTransition(State state,
+                                             int classId,
+                                             int codePointsRead) {
+            if (exhausted) {
+                return GIVEN_UP;
+            }
+
+            codePointsSinceClear += codePointsRead;
+
+            boolean current = state.generation == generation;
+
+            // Another thread may have computed the transition meanwhile:
+            if (current && state.transitions[classId] != null) {
+                return state.transitions[classId];
+            }
+
+            state.generation.subsets.getSubset(state.id, currentSet);
+
+            nfa.step(currentSet,
+                     null,
+                     nextSet,
+                     null,
+                     alphabetPartition.getRepresentative(classId));
+
+            if (unanchored) {
+                nfa.addClosure(nextSet, null, 0, 0);
+            }
+
+            if (nextSet.isEmpty()) {
+                if (current) {
+                    state.transitions[classId] = DEAD;
+                }
+
+                return DEAD;
+            }
+
+            State sourceState = current ? state : getOrAddState(currentSet);
+            State nextState = getOrAddState(nextSet);
+
+            if (sourceState == null || nextState == null) {
+                if (!clear()) {
+                    return GIVEN_UP;
+                }
+
+                sourceState = getOrAddState(currentSet);
+                nextState = getOrAddState(nextSet);
+            }
+
+            sourceState.transitions[classId] = nextState;
+            return nextState;
+        }
+
+        /**
+         * Returns the state of the input subset, adding the state if the
+         * cache is not full.
+         *
+         * @param set the subset of NFA states.
+         * @return the state, or {@code null} if the subset is new and the
+         *         cache is full.
+         */
+        private State getOrAddState(SparseIntSet set) {
+            int id = generation.subsets.getOrAdd(set);
+
+            if (id < generation.size) {
+                return generation.states[id];
+            }
+
+            if (generation.size == maximumNumberOfStates) {
+                return null;
+            }
+
+            if (generation.size == generation.states.length) {
+                generation.states =
+                    Arrays.copyOf(generation.states,
+                                  Math.min(2 * generation.size,
+                                           maximumNumberOfStates));
+            }
+
+            State state = new State(id,
+                                    nfa.containsAcceptingState(set),
+                                    generation,
+                                    classCount);
+
+            generation.states[generation.size++] = state;
+            return state;
+        }
+
+        /**
+         * Clears the cache unless it has been cleared prematurely too many
+         * times in a row, in which case the cache gives up.
+         *
+         * @return {@code true} if the cache was cleared.
+         */
+        private boolean clear() {
+            if (codePointsSinceClear
+                    < (long) MINIMUM_CODE_POINTS_PER_STATE
+                             * maximumNumberOfStates) {
+
+                if (++prematureClears == MAXIMUM_NUMBER_OF_PREMATURE_CLEARS) {
+                    exhausted = true;
+                    generation = new Generation();
+                    initialState = GIVEN_UP;
+                    return false;
+                }
+            } else {
+                prematureClears = 0;
+            }
+
+            generation = new Generation();
+            codePointsSinceClear = 0;
+            initialState = null;
+            ++clearCount;
+            return true;
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package io.github.coderodde.regex;
+
+/**
+ * This interface defines the callback receiving the matches found by
+ * {@link RegularExpressionMatcher#forEachMatch(java.lang.CharSequence, 
+ * io.github.coderodde.regex.MatchConsumer)}.
+ */
+@FunctionalInterface
+public interface MatchConsumer {
+    
+    /**
+     * Receives a single match.
+     * 
+     * @param start the index of the first {@code char} of the match.
+     * @param end   the index one past the last {@code char} of the match.
+     */
+    public void accept(int start, int end);
+}
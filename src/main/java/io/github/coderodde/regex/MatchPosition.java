@@ -0,0 +1,67 @@
+package io.github.coderodde.regex;
+
+/**
+ * This class holds the position of a single match within a text. The match
+ * covers the {@code char} indices from {@link #getStart()} (inclusive) to
+ * {@link #getEnd()} (exclusive).
+ */
+public final class MatchPosition {
+
+    private int start;
+    private int end;
+
+    MatchPosition(int start, int end) {
+        set(start, end);
+    }
+
+    /**
+     * Returns the index of the first {@code char} of the match.
+     *
+     * @return the starting index.
+     */
+    public int getStart() {
+        return start;
+    }
+
+    /**
+     * Returns the index one past the last {@code char} of the match.
+     *
+     * @return the ending index.
+     */
+    public int getEnd() {
+        return end;
+    }
+
+    /**
+     * Returns the number of {@code char}s in the match.
+     *
+     * @return the match length.
+     */
+    public int getLength() {
+        return end - start;
+    }
+
+    void set(int start, int end) {
+        this.start = start;
+        this.end   = end;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof MatchPosition other) {
+            return start == other.start && end == other.end;
+        }
+
+        return false;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * start + end;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + start + ", " + end + ")";
+    }
+}
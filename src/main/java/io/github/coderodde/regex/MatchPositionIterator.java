@@ -0,0 +1,156 @@
+package io.github.coderodde.regex;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * This class implements an iterator over all the non-overlapping 
+ * leftmost-longest matches in a text. The scan resumes at the end of the 
+ * previous match; after an empty match it advances by one code point. The same 
+ * {@link MatchPosition} object is returned on every call to {@link #next()}.
+ * Since the scan starts at zero and the matchers round each search index via
+ * {@link #alignToCodePoint(CharSequence, int)}, no reported position splits a
+ * surrogate pair.
+ */
+final class MatchPositionIterator implements Iterator<MatchPosition> {
+    
+    /**
+     * This interface defines the API for finding a single match without 
+     * allocating.
+     */
+    @FunctionalInterface
+    interface MatchFinder {
+        
+        /**
+         * Finds the leftmost-longest match starting at or after {@code from}.
+         * 
+         * @param text          the text to search.
+         * @param from          the index at which to start searching.
+         * @param matchPosition the object to store the match in.
+         * @return {@code true} if a match was found.
+         */
+        boolean findMatch(CharSequence text, 
+                          int from, 
+                          MatchPosition matchPosition);
+    }
+    
+    private final CharSequence text;
+    private final MatchFinder matchFinder;
+    private final MatchPosition matchPosition = new MatchPosition(0, 0);
+    
+    /**
+     * The index at which the next search starts, or -1 if the text is 
+     * exhausted.
+     */
+    private int from;
+    
+    /**
+     * Whether {@link #matchPosition} holds a match not yet returned.
+     */
+    private boolean hasPending;
+    
+    MatchPositionIterator(CharSequence text, MatchFinder matchFinder) {
+        this.text        = Objects.requireNonNull(text, 
+                                                  "The input text is null.");
+        this.matchFinder = matchFinder;
+    }
+    
+    @Override
+    public boolean hasNext() {
+        if (hasPending) {
+            return true;
+        }
+        
+        if (from == -1) {
+            return false;
+        }
+        
+        if (matchFinder.findMatch(text, from, matchPosition)) {
+            hasPending = true;
+            from = getResumeIndex(text, matchPosition);
+            return true;
+        }
+        
+        from = -1;
+        return false;
+    }
+    
+    @Override
+    public MatchPosition next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more matches.");
+        }
+        
+        hasPending = false;
+        return matchPosition;
+    }
+    
+    /**
+     * Reports all the non-overlapping leftmost-longest matches to the 
+     * consumer. Allocates nothing per match.
+     * 
+     * @param text        the text to search.
+     * @param matchFinder the match finder.
+     * @param consumer    the match consumer.
+     */
+    static void forEachMatch(CharSequence text,
+                             MatchFinder matchFinder,
+                             MatchConsumer consumer) {
+        
+        Objects.requireNonNull(text, "The input text is null.");
+        Objects.requireNonNull(consumer, "The input consumer is null.");
+        
+        MatchPosition matchPosition = new MatchPosition(0, 0);
+        int from = 0;
+        
+        while (from != -1 && matchFinder.findMatch(text, from, matchPosition)) {
+            consumer.accept(matchPosition.getStart(), matchPosition.getEnd());
+            from = getResumeIndex(text, matchPosition);
+        }
+    }
+    
+    /**
+     * Rounds the input index up to a code point boundary. An index between 
+     * the two {@code char}s of a surrogate pair is moved past the pair, since
+     * no match starts inside a code point.
+     * 
+     * @param text  the text.
+     * @param index the index to round.
+     * @return the rounded index.
+     */
+    static int alignToCodePoint(CharSequence text, int index) {
+        if (index > 0 
+                && index < text.length()
+                && Character.isHighSurrogate(text.charAt(index - 1))
+                && Character.isLowSurrogate(text.charAt(index))) {
+            return index + 1;
+        }
+        
+        return index;
+    }
+    
+    /**
+     * Returns the index at which to search for the match following the input
+     * one, or -1 if there is no room for another match.
+     * 
+     * @param text          the text being searched.
+     * @param matchPosition the previous match.
+     * @return the index at which to resume searching.
+     */
+    private static int getResumeIndex(CharSequence text, 
+                                      MatchPosition matchPosition) {
+        
+        int end = matchPosition.getEnd();
+        
+        if (end > matchPosition.getStart()) {
+            return end;
+        }
+        
+        if (end == text.length()) {
+            return -1;
+        }
+        
+        return end + Character.charCount(Character.codePointAt(text, end));
+    }
+}
@@ -0,0 +1,207 @@
+package io.github.coderodde.regex;
+
+import java.util.Arrays;
+
+/**
+ * This class implements Moore's DFA minimization algorithm over the alphabet
+ * classes. Each round assigns every state the signature consisting of its
+ * current block and the blocks of its targets on all the classes, with a
+ * missing transition contributing {@code -1}, and the states with equal
+ * signatures form the blocks of the next round. The signatures are never
+ * materialized: the states are hashed by their class-indexed rows into an
+ * open-addressing table, and two rows are compared in place. The rounds stop
+ * once the number of blocks no longer grows.
+ *
+ * <p>All the buffers are allocated once and reused by the rounds.
+ */
+final class MooreMinimizer {
+
+    private static final int EMPTY_SLOT = -1;
+
+    private final IndexedDeterministicFiniteAutomaton dfa;
+    private final int stateCount;
+
+    private int[] blocks;
+    private int[] newBlocks;
+
+    /**
+     * Maps the hash slots to the new block IDs.
+     */
+    private final int[] slots;
+
+    /**
+     * Maps each new block to the first state assigned to it.
+     */
+    private final int[] representatives;
+
+    private MooreMinimizer(IndexedDeterministicFiniteAutomaton dfa) {
+        this.dfa             = dfa;
+        this.stateCount      = dfa.getNumberOfStates();
+        this.blocks          = new int[stateCount];
+        this.newBlocks       = new int[stateCount];
+        this.slots           = new int[Integer.highestOneBit(stateCount) * 4];
+        this.representatives = new int[stateCount];
+    }
+
+    /**
+     * Computes the coarsest partition of the states of the input DFA into the
+     * blocks of equivalent states.
+     *
+     * @param dfa the DFA to minimize.
+     * @return the array mapping each state to its block. The blocks are
+     *         numbered densely from zero.
+     */
+    static int[] computeBlocks(IndexedDeterministicFiniteAutomaton dfa) {
+        return new MooreMinimizer(dfa).refine();
+    }
+
+    private int[] refine() {
+        int blockCount = computeInitialBlocks(dfa, blocks);
+
+        while (true) {
+            int newBlockCount = computeNextBlocks();
+
+            int[] swap = blocks;
+            blocks = newBlocks;
+            newBlocks = swap;
+
+            if (newBlockCount == blockCount) {
+                return blocks;
+            }
+
+            blockCount = newBlockCount;
+        }
+    }
+
+    /**
+     * Splits the states into the accepting and the rejecting ones.
+     *
+     * @param dfa    the DFA being minimized.
+     * @param blocks the array to receive the block of each state.
+     * @return the number of the initial blocks.
+     */
+    static int computeInitialBlocks(IndexedDeterministicFiniteAutomaton dfa,
+                                    int[] blocks) {
+        int acceptingBlock = -1;
+        int rejectingBlock = -1;
+        int blockCount = 0;
+
+        for (int state = 0; state < blocks.length; ++state) {
+            if (dfa.isAcceptingState(state)) {
+                if (acceptingBlock < 0) {
+                    acceptingBlock = blockCount++;
+                }
+
+                blocks[state] = acceptingBlock;
+            } else {
+                if (rejectingBlock < 0) {
+                    rejectingBlock = blockCount++;
+                }
+
+                blocks[state] = rejectingBlock;
+            }
+        }
+
+        return blockCount;
+    }
+
+    /**
+     * Assigns the blocks of the next round to {@link #newBlocks}.
+     *
+     * @return the number of the new blocks.
+     */
+    private int computeNextBlocks() {
+        Arrays.fill(slots, EMPTY_SLOT);
+
+        int mask = slots.length - 1;
+        int blockCount = 0;
+
+        for (int state = 0; state < stateCount; ++state) {
+            int slot = hashRow(dfa, blocks, state) & mask;
+
+            while (true) {
+                int block = slots[slot];
+
+                if (block == EMPTY_SLOT) {
+                    slots[slot] = blockCount;
+                    representatives[blockCount] = state;
+                    newBlocks[state] = blockCount++;
+                    break;
+                }
+
+                if (rowsEqual(dfa, blocks, state, representatives[block])) {
+                    newBlocks[state] = block;
+                    break;
+                }
+
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        return blockCount;
+    }
+
+    private static int targetBlock(IndexedDeterministicFiniteAutomaton dfa,
+                                   int[] blocks,
+                                   int state,
+                                   int classId) {
+
+        int target = dfa.getTransition(state, classId);
+        return target == IndexedDeterministicFiniteAutomaton.DEAD_STATE ?
+               -1 :
+               blocks[target];
+    }
+
+    /**
+     * Hashes the block of the input state together with the blocks of its
+     * targets on all the classes.
+     *
+     * @param dfa    the DFA being minimized.
+     * @param blocks the blocks of the current round.
+     * @param state  the state whose row to hash.
+     * @return the hash of the row.
+     */
+    static int hashRow(IndexedDeterministicFiniteAutomaton dfa,
+                       int[] blocks,
+                       int state) {
+
+        long hash = 0x9E3779B97F4A7C15L ^ blocks[state];
+
+        for (int classId = 0; classId < dfa.getClassCount(); ++classId) {
+            hash = (hash ^ targetBlock(dfa, blocks, state, classId))
+                 * 0xBF58476D1CE4E5B9L;
+            hash ^= hash >>> 31;
+        }
+
+        return (int)(hash ^ (hash >>> 32));
+    }
+
+    /**
+     * Checks whether the two input states have the same block and the same
+     * target blocks on all the classes.
+     *
+     * @param dfa    the DFA being minimized.
+     * @param blocks the blocks of the current round.
+     * @param state1 the first state.
+     * @param state2 the second state.
+     * @return {@code true} if the rows are equal.
+     */
+    static boolean rowsEqual(IndexedDeterministicFiniteAutomaton dfa,
+                             int[] blocks,
+                             int state1,
+                             int state2) {
+
+        if (blocks[state1] != blocks[state2]) {
+            return false;
+        }
+
+        for (int classId = 0; classId < dfa.getClassCount(); ++classId) {
+            if (targetBlock(dfa, blocks, state1, classId)
+                    != targetBlock(dfa, blocks, state2, classId)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
@@ -6,14 +6,18 @@ import io.github.coderodde.regex.parser.ast.RegexTokenizationResult;
 import io.github.coderodde.regex.tokenizer.RegexTokenizer;
 import io.github.coderodde.regex.parser.ast.tree.RegexNode;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
 
 /**
  * This class implements a 
@@ -31,6 +35,14 @@ public final class NondeterministicFiniteAutomaton
     private boolean anchoredAtStart;
     private boolean anchoredAtEnd;
     private int stateCounter;
+    
+    /**
+     * The cached indexed snapshot of this NFA used for matching. Built on the
+     * first match and reset whenever states are added to this NFA. 
+     * Transitions must not be added to the states after matching has begun.
+     * Volatile, since the matching methods may build it concurrently.
+     */
+    private volatile IndexedNondeterministicFiniteAutomaton indexedNfa;
 
     public NondeterministicFiniteAutomaton(RegexTokenizationResult result) {
         this.anchoredAtStart = result.anchoredAtStart();
@@ -103,6 +115,7 @@ public final class NondeterministicFiniteAutomaton
             new NondeterministicFiniteAutomatonState(stateCounter++);
         
         this.states.add(state);
+        this.indexedNfa = null;
         return state;
     }
     
@@ -244,6 +257,7 @@ public final class NondeterministicFiniteAutomaton
                         "The input initial state is null.");
         
         this.states.add(initialState);
+        this.indexedNfa = null;
     }
     
     public void addAcceptingState(
@@ -251,6 +265,7 @@ public final class NondeterministicFiniteAutomaton
         
         this.acceptingStates.add(acceptingState);
         this.states.add(acceptingState);
+        this.indexedNfa = null;
     }
     
     public int getNumberOfStates() {
@@ -299,45 +314,121 @@ public final class NondeterministicFiniteAutomaton
         return visited;
     }
         
+    @Override
     public boolean matches(String text) {
         Objects.requireNonNull(text, "The input text is null.");
+        return getIndexedNfa().matches(text);
+    }
+    
+    boolean isAnchoredAtStart() {
+        return anchoredAtStart;
+    }
+    
+    /**
+     * Estimates the number of bytes occupied by the indexed snapshot of this 
+     * NFA, which does all the matching. The state objects are not counted.
+     * 
+     * @return the estimated size in bytes.
+     */
+    long getEstimatedNumberOfBytes() {
+        return getIndexedNfa().getEstimatedNumberOfBytes();
+    }
+    
+    boolean isAnchoredAtEnd() {
+        return anchoredAtEnd;
+    }
+    
+    /**
+     * Returns the indexed snapshot of this NFA, building it if needed.
+     * 
+     * @return the indexed NFA.
+     */
+    IndexedNondeterministicFiniteAutomaton getIndexedNfa() {
+        IndexedNondeterministicFiniteAutomaton result = indexedNfa;
         
-        Set<NondeterministicFiniteAutomatonState> states = 
-            epsilonExpand(Set.of(initialState));
-        
-        for (int cp : text.codePoints().toArray()) {
-            Set<NondeterministicFiniteAutomatonState> nextStates =
-                new HashSet<>();
-            
-            for (NondeterministicFiniteAutomatonState state : states) {
-                Set<NondeterministicFiniteAutomatonState> followers = 
-                    state.getGoalStates(cp);
-                
-                if (followers != null) {
-                    nextStates.addAll(followers);
-                }
-                
-                NondeterministicFiniteAutomatonState dotState = 
-                    state.getDotTransition();
-                
-                if (dotState != null) {
-                    nextStates.add(dotState);
-                }
-            }
-            
-            if (nextStates.isEmpty()) {
-                return false;
-            }
-            
-            states = epsilonExpand(nextStates);
+        if (result == null) {
+            result = new IndexedNondeterministicFiniteAutomaton(this);
+            indexedNfa = result;
         }
-    
-        return isAcceptingStateSet(states);
+        
+        return result;
     }
     
     public DeterministicFiniteAutomaton 
         convertToDeterministicFiniteAutomaton() {
-        return new NFAToDFAConverter(this).convert();
+        return convertToDeterministicFiniteAutomaton(
+            DeterminizationBudget.UNLIMITED);
+    }
+        
+    /**
+     * Converts this NFA to a DFA via the subset construction, which is 
+     * stopped as soon as it exceeds the input budget. The policy of the budget
+     * is not consulted here.
+     * 
+     * @param budget the resource limits of the conversion.
+     * @return the DFA.
+     * @throws DeterminizationBudgetExceededException if the budget is 
+     *                                                exceeded.
+     */
+    public DeterministicFiniteAutomaton 
+        convertToDeterministicFiniteAutomaton(DeterminizationBudget budget) {
+        Objects.requireNonNull(budget, "The input budget is null.");
+        return new NFAToDFAConverter(this, budget).convert();
+    }
+    
+    /**
+     * Converts this NFA to a DFA via the subset construction running on the
+     * input pool. Each breadth-first level of subsets is expanded in parallel,
+     * while the DFA state IDs are assigned in the same order as in 
+     * {@link #convertToDeterministicFiniteAutomaton(DeterminizationBudget)}, 
+     * so both conversions yield the same DFA.
+     * 
+     * @param budget the resource limits of the conversion.
+     * @param pool   the pool to run the conversion on.
+     * @return the DFA.
+     * @throws DeterminizationBudgetExceededException if the budget is 
+     *                                                exceeded.
+     */
+    public DeterministicFiniteAutomaton 
+        convertToDeterministicFiniteAutomaton(DeterminizationBudget budget,
+                                              ForkJoinPool pool) {
+        Objects.requireNonNull(budget, "The input budget is null.");
+        Objects.requireNonNull(pool, "The input pool is null.");
+        return new ParallelSubsetConstruction(this, budget, pool).convert();
+    }
+    
+    /**
+     * Converts this NFA via the subset construction directly to the table of
+     * an indexed DFA, without building any state objects.
+     * 
+     * @param budget the resource limits of the conversion.
+     * @return the indexed DFA.
+     * @throws DeterminizationBudgetExceededException if the budget is 
+     *                                                exceeded.
+     */
+    IndexedDeterministicFiniteAutomaton 
+        convertToIndexedDeterministicFiniteAutomaton(
+            DeterminizationBudget budget) {
+        return new NFAToDFAConverter(this, budget).convertToIndexedDfa();
+    }
+    
+    /**
+     * Converts this NFA via the subset construction running on the input 
+     * pool directly to the table of an indexed DFA. The result equals the one
+     * of {@link #convertToIndexedDeterministicFiniteAutomaton(DeterminizationBudget)}.
+     * 
+     * @param budget the resource limits of the conversion.
+     * @param pool   the pool to run the conversion on.
+     * @return the indexed DFA.
+     * @throws DeterminizationBudgetExceededException if the budget is 
+     *                                                exceeded.
+     */
+    IndexedDeterministicFiniteAutomaton 
+        convertToIndexedDeterministicFiniteAutomaton(
+            DeterminizationBudget budget,
+            ForkJoinPool pool) {
+        return new ParallelSubsetConstruction(this, budget, pool)
+            .convertToIndexedDfa();
     }
         
     public static NondeterministicFiniteAutomaton compile(String regex) {
@@ -385,186 +476,251 @@ public final class NondeterministicFiniteAutomaton
         return expandedSet;
     }
     
-    private boolean isAcceptingStateSet(
-            Set<NondeterministicFiniteAutomatonState> finalStateSet) {
+    /**
+     * Checks whether some substring of the input text is accepted. Simulates 
+     * this NFA in a single left-to-right pass: unless anchored at start, the 
+     * epsilon closure of the initial state is added to the current state set
+     * at every position, which starts a new match attempt there. Runs in 
+     * {@code O(nm)} time, where {@code n} is the length of the text and 
+     * {@code m} is the number of states.
+     * 
+     * @param text the text to search.
+     * @return {@code true} only if {@code text} contains a match.
+     */
+    @Override
+    public boolean find(String text) {
+        Objects.requireNonNull(text, "The input text is null.");
+        return getIndexedNfa().find(text);
+    }
+    
+    @Override
+    public MatchPosition findMatch(CharSequence text, int from) {
+        MatchPosition matchPosition = new MatchPosition(0, 0);
         
-        return !Utils.intersection(finalStateSet, acceptingStates).isEmpty();
+        return getIndexedNfa().findMatch(text, from, matchPosition) ? 
+               matchPosition : 
+               null;
     }
-
+    
     @Override
-    public boolean find(String text) {
-        throw new UnsupportedOperationException("Not supported yet.");
+    public Iterator<MatchPosition> findAll(CharSequence text) {
+        return new MatchPositionIterator(text, getIndexedNfa()::findMatch);
+    }
+    
+    @Override
+    public void forEachMatch(CharSequence text, MatchConsumer consumer) {
+        MatchPositionIterator.forEachMatch(text, 
+                                           getIndexedNfa()::findMatch, 
+                                           consumer);
     }
     
+    /**
+     * Implements the subset construction over the indexed form of the NFA. 
+     * The subsets are built from the precomputed epsilon closures, and are 
+     * interned as sorted arrays of dense state IDs. The result is either a 
+     * DFA or, when no object graph is needed, directly the table of an 
+     * indexed DFA.
+     */
     private final class NFAToDFAConverter {
         
-        private static final int MIN_CP = 0x000000;
-        private static final int MAX_CP = 0x10FFFF;
-        
-        private final Deque<Set<NondeterministicFiniteAutomatonState>> 
-                stateQueue = new ArrayDeque<>();
-        
-        private final Map<Set<NondeterministicFiniteAutomatonState>,
-                          DeterministicFiniteAutomatonState> map =
-            new HashMap<>();
-        
-        private final NondeterministicFiniteAutomaton nfa;
-        private int stateId = 0;
+        /**
+         * Interns the NFA state subsets. The ID of each subset equals the ID 
+         * of its DFA state. Since the subsets are processed in the order of 
+         * their IDs, no separate work queue is needed, and the contents of 
+         * the processed subsets are released.
+         */
+        private final SubsetTable subsets = new SubsetTable();
+        
+        private final List<DeterministicFiniteAutomatonState> dfaStates = 
+            new ArrayList<>();
+        
+        private final IndexedNondeterministicFiniteAutomaton indexedNfa;
+        private final AlphabetPartition alphabetPartition;
+        private final int classCount;
+        private final DeterminizationBudget budget;
+        private final long maximumNanos;
+        
+        /**
+         * Computes the successors of each subset on all the classes at once.
+         */
+        private final SubsetStepper stepper;
+        
+        private final SparseIntSet currentSet;
+        private final SparseIntSet nextSet;
+        
+        private long work = 0L;
+        private long startNanos;
+        
+        /**
+         * The DFA being built, or {@code null} if building the indexed DFA.
+         */
         private DeterministicFiniteAutomaton dfa;
+        
+        /**
+         * The table of the indexed DFA being built. The target of the subset 
+         * {@code i} on the class {@code c} is at the index 
+         * {@code i * classCount + c}.
+         */
+        private int[] transitions;
+        private boolean[] accepting;
 
-        NFAToDFAConverter(NondeterministicFiniteAutomaton nfa) {
-            this.nfa = nfa;
+        NFAToDFAConverter(NondeterministicFiniteAutomaton nfa,
+                          DeterminizationBudget budget) {
+            this.budget = budget;
+            this.maximumNanos = budget.getMaximumNanos();
+            this.indexedNfa = nfa.getIndexedNfa();
+            this.alphabetPartition = indexedNfa.computeAlphabetPartition();
+            this.classCount = alphabetPartition.getClassCount();
+            this.stepper = 
+                new SubsetStepper(
+                    indexedNfa,
+                    indexedNfa.computeClassTransitions(alphabetPartition),
+                    classCount);
+            
+            int stateCount = indexedNfa.getNumberOfStates();
+            
+            this.currentSet = new SparseIntSet(stateCount);
+            this.nextSet = new SparseIntSet(stateCount);
         }
         
         DeterministicFiniteAutomaton convert() {
-            
             dfa = new DeterministicFiniteAutomaton(anchoredAtStart,
                                                    anchoredAtEnd);
             
-            Set<NondeterministicFiniteAutomatonState> startSet = 
-                epsilonExpand(Set.of(nfa.getInitialState()));
+            constructSubsets();
+            dfa.setInitialState(dfaStates.get(0));
+            return dfa;
+        }
+        
+        IndexedDeterministicFiniteAutomaton convertToIndexedDfa() {
+            transitions = new int[16 * classCount];
+            accepting = new boolean[16];
             
-            DeterministicFiniteAutomatonState dfaStart = 
-                getOrCreateDFAState(startSet);
+            constructSubsets();
             
-            dfa.setInitialState(dfaStart);
+            int stateCount = subsets.size();
             
-            if (isAcceptingStateSet(startSet)) {
-                dfa.addAcceptingState(dfaStart);
-            }
+            return new IndexedDeterministicFiniteAutomaton(
+                alphabetPartition, 
+                Arrays.copyOf(transitions, stateCount * classCount),
+                Arrays.copyOf(accepting, stateCount),
+                anchoredAtStart,
+                anchoredAtEnd);
+        }
+        
+        private void constructSubsets() {
+            startNanos = System.nanoTime();
+            indexedNfa.addClosure(currentSet, null, 0, 0);
+            getOrAddSubset(currentSet);
             
-            while (!stateQueue.isEmpty()) {
+            for (int id = 0; id < subsets.size(); ++id) {
                 
-                Set<NondeterministicFiniteAutomatonState> currentSet = 
-                    stateQueue.removeFirst();
+                checkDuration();
+                subsets.getSubset(id, currentSet);
                 
-                DeterministicFiniteAutomatonState currentDFAState = 
-                    map.get(currentSet);
+                // Only the successors of the subset are needed from now on:
+                subsets.releaseBelow(id + 1);
                 
-                Set<CodePointRange> alphabet = 
-                    computeDisjointAlphabet(currentSet);
+                int touchedCount = stepper.groupByClass(currentSet);
+                addWork(stepper.getPairCount());
                 
-                for (CodePointRange range : alphabet) {
-                    Set<NondeterministicFiniteAutomatonState> nextSet = 
-                        move(currentSet, range);
+                for (int k = 0; k < touchedCount; ++k) {
+                    int classId = stepper.getClassId(k);
+                    stepper.computeSuccessor(k, nextSet);
                     
                     if (nextSet.isEmpty()) {
                         continue;
                     }
                     
-                    nextSet = epsilonExpand(nextSet);
-                    
-                    DeterministicFiniteAutomatonState nextDFAState = 
-                        getOrCreateDFAState(nextSet);
-                    
-                    if (isAcceptingStateSet(nextSet)) {
-                        dfa.addAcceptingState(nextDFAState);
-                    }
-                    
-                    dfa.addTransition(currentDFAState, range, nextDFAState);
+                    addTransition(id, classId, getOrAddSubset(nextSet));
                 }
             }
-            
-            return dfa;
         }
         
-        private DeterministicFiniteAutomatonState getOrCreateDFAState(
-            Set<NondeterministicFiniteAutomatonState> nfaStateSet) {
-            Set<NondeterministicFiniteAutomatonState> key = 
-                new HashSet<>(nfaStateSet);
-            
-            DeterministicFiniteAutomatonState dfaState = map.get(key);
-            
-            if (dfaState != null) {
-                return dfaState;
+        private void addTransition(int sourceId, int classId, int targetId) {
+            if (dfa == null) {
+                transitions[sourceId * classCount + classId] = targetId;
+                return;
             }
             
-            dfaState = new DeterministicFiniteAutomatonState(stateId++);
+            DeterministicFiniteAutomatonState sourceState = 
+                dfaStates.get(sourceId);
             
-            map.put(key, dfaState);
-            stateQueue.addLast(key);
+            DeterministicFiniteAutomatonState targetState = 
+                dfaStates.get(targetId);
             
-            return dfaState;
-        }
-        
-        private Set<NondeterministicFiniteAutomatonState> move(
-                Set<NondeterministicFiniteAutomatonState> states,
-                CodePointRange range) {
-            
-            Set<NondeterministicFiniteAutomatonState> result = new HashSet<>();
-            
-            for (NondeterministicFiniteAutomatonState state : states) {
-                
-                for (int i = 0; i < state.getTransitionCount(); ++i) {
-                    NondeterministicFiniteAutomatonState
-                        .TransitionFunctionEntry e = 
-                        state.getTransition(i);
-                    
-                    if (intersects(e.getCodePointRange(), range)) {
-                        result.addAll(e.getGoalStates());
-                    }
-                }
-                
-                NondeterministicFiniteAutomatonState dotState = 
-                    state.getDotTransition();
-
-                if (dotState != null) {
-                    result.add(dotState);
-                }
+            for (CodePointRange range : alphabetPartition.getRanges(classId)) {
+                dfa.addTransition(sourceState, range, targetState);
             }
-            
-            return result;
         }
         
-        private Set<CodePointRange> computeDisjointAlphabet(
-                Set<NondeterministicFiniteAutomatonState> states) {
+        /**
+         * Returns the ID of the input subset, adding a new DFA state for it 
+         * if the subset is new.
+         * 
+         * @param nfaStateSet the subset of NFA states.
+         * @return the ID of the subset.
+         */
+        private int getOrAddSubset(SparseIntSet nfaStateSet) {
+            int size = subsets.size();
+            int id = subsets.getOrAdd(nfaStateSet);
+            
+            if (id < size) {
+                return id;
+            }
             
-            Set<Integer> points = new HashSet<>();
+            if (id == budget.maximumNumberOfStates()) {
+                throw new DeterminizationBudgetExceededException(
+                    "The subset construction exceeded the maximum number of "
+                        + "states (" + budget.maximumNumberOfStates() + ").");
+            }
             
-            boolean hasDot = false;
+            boolean acceptingSubset = 
+                indexedNfa.containsAcceptingState(nfaStateSet);
             
-            for (NondeterministicFiniteAutomatonState state : states) {
-                if (state.getDotTransition() != null) {
-                    hasDot = true;
+            if (dfa == null) {
+                if (accepting.length == id) {
+                    accepting = Arrays.copyOf(accepting, 2 * id);
+                    transitions = Arrays.copyOf(transitions, 
+                                                2 * id * classCount);
                 }
                 
-                for (int i = 0; i < state.getTransitionCount(); ++i) {
-                    CodePointRange range = 
-                        state.getTransition(i).getCodePointRange();
-                    
-                    points.add(range.getMinimumCodePoint());
-                    
-                    if (range.getMaximumCodePoint() < MAX_CP) {
-                        points.add(range.getMaximumCodePoint() + 1);
-                    }
-                }
+                Arrays.fill(transitions, 
+                            id * classCount, 
+                            (id + 1) * classCount,
+                            IndexedDeterministicFiniteAutomaton.DEAD_STATE);
+                
+                accepting[id] = acceptingSubset;
+                return id;
             }
             
-            if (hasDot) {
-                points.add(MIN_CP);
-                points.add(MAX_CP + 1);
-            }
+            DeterministicFiniteAutomatonState dfaState = 
+                new DeterministicFiniteAutomatonState(id);
             
-            Integer[] sorted = points.toArray(Integer[]::new);
-            Arrays.sort(sorted);
+            if (acceptingSubset) {
+                dfa.addAcceptingState(dfaState);
+            }
             
-            Set<CodePointRange> result = new HashSet<>();
+            dfaStates.add(dfaState);
+            return id;
+        }
+        
+        private void addWork(int amount) {
+            work += amount;
             
-            for (int i = 0; i + 1 < sorted.length; ++i) {
-                int left  = sorted[i];
-                int right = sorted[i + 1] - 1;
-                
-                if (left <= right) {
-                    result.add(new CodePointRange(left, right));
-                }
+            if (work > budget.maximumWork()) {
+                throw new DeterminizationBudgetExceededException(
+                    "The subset construction exceeded the maximum work ("
+                        + budget.maximumWork() + ").");
             }
-            
-            return result;
         }
         
-        private boolean intersects(CodePointRange a, CodePointRange b) {
-            return a.getMinimumCodePoint() <= b.getMaximumCodePoint()
-                && b.getMinimumCodePoint() <= a.getMaximumCodePoint();
+        private void checkDuration() {
+            if (System.nanoTime() - startNanos > maximumNanos) {
+                throw new DeterminizationBudgetExceededException(
+                    "The subset construction exceeded the maximum duration ("
+                        + budget.maximumDuration() + ").");
+            }
         }
     }
     
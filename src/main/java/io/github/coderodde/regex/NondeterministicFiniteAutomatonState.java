@@ -10,7 +10,6 @@ import java.util.Set;
 public final class NondeterministicFiniteAutomatonState {
     
     private static final int DEFAULT_ENTRY_ARRAY_CAPACITY = 8;
-    private static final CodePointRange CODE_POINT_RANGE = new CodePointRange();
     
     private final int id;
     private int size = 0;
@@ -122,10 +121,23 @@ public final class NondeterministicFiniteAutomatonState {
     }
     
     Set<NondeterministicFiniteAutomatonState> getGoalStates(int codePoint) {
-        CODE_POINT_RANGE.setMinimumCodePoint(codePoint);
-        CODE_POINT_RANGE.setMaximumCodePoint(codePoint);
+        int l = 0;
+        int r = size - 1;
         
-        return getGoalStates(CODE_POINT_RANGE);
+        while (l <= r) {
+            int m = l + (r - l) / 2;
+            
+            switch (entries[m].codePointRange.compareToCodePoint(codePoint)) {
+                case -1 -> l = m + 1;
+                case  1 -> r = m - 1;
+                
+                default -> {
+                    return entries[m].goalStates;
+                }
+            }
+        }
+        
+        return null;
     }
     
     Set<NondeterministicFiniteAutomatonState> 
@@ -0,0 +1,201 @@
+package io.github.coderodde.regex;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * This class implements Moore's DFA minimization algorithm on a
+ * {@link ForkJoinPool}. Within a round, the states are inserted in parallel,
+ * range by range, into a concurrent open-addressing table keyed by their
+ * class-indexed rows, each slot keeping the smallest state having its row. A
+ * sequential linear pass then numbers the new blocks in the order of their
+ * smallest states, which is exactly the numbering of {@link MooreMinimizer},
+ * so both produce the same partition regardless of the thread scheduling.
+ */
+final class ParallelMooreMinimizer {
+
+    /**
+     * The ranges of at most this many states or slots are processed without
+     * splitting further.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 1024;
+
+    private static final int EMPTY_SLOT = -1;
+
+    private final IndexedDeterministicFiniteAutomaton dfa;
+    private final int stateCount;
+    private final ForkJoinPool pool;
+
+    private int[] blocks;
+    private int[] newBlocks;
+
+    /**
+     * Maps the hash slots to the smallest state inserted with the row of the
+     * slot.
+     */
+    private final AtomicIntegerArray slots;
+
+    /**
+     * Maps each state to the slot of its row.
+     */
+    private final int[] slotOf;
+
+    private ParallelMooreMinimizer(IndexedDeterministicFiniteAutomaton dfa,
+                                   ForkJoinPool pool) {
+        this.dfa        = dfa;
+        this.stateCount = dfa.getNumberOfStates();
+        this.pool       = pool;
+        this.blocks     = new int[stateCount];
+        this.newBlocks  = new int[stateCount];
+        this.slots      =
+            new AtomicIntegerArray(Integer.highestOneBit(stateCount) * 4);
+        this.slotOf     = new int[stateCount];
+    }
+
+    /**
+     * Computes the coarsest partition of the states of the input DFA into the
+     * blocks of equivalent states on the input pool.
+     *
+     * @param dfa  the DFA to minimize.
+     * @param pool the pool to run the rounds on.
+     * @return the array mapping each state to its block. The blocks are
+     *         numbered densely from zero, just like in
+     *         {@link MooreMinimizer#computeBlocks(IndexedDeterministicFiniteAutomaton)}.
+     */
+    static int[] computeBlocks(IndexedDeterministicFiniteAutomaton dfa,
+                               ForkJoinPool pool) {
+        return new ParallelMooreMinimizer(dfa, pool).refine();
+    }
+
+    private int[] refine() {
+        int blockCount = MooreMinimizer.computeInitialBlocks(dfa, blocks);
+
+        while (true) {
+            int newBlockCount = computeNextBlocks();
+
+            int[] swap = blocks;
+            blocks = newBlocks;
+            newBlocks = swap;
+
+            if (newBlockCount == blockCount) {
+                return blocks;
+            }
+
+            blockCount = newBlockCount;
+        }
+    }
+
+    /**
+     * Assigns the blocks of the next round to {@link #newBlocks}.
+     *
+     * @return the number of the new blocks.
+     */
+    private int computeNextBlocks() {
+        pool.invoke(new RangeTask(this::clearSlots, 0, slots.length()));
+        pool.invoke(new RangeTask(this::insertStates, 0, stateCount));
+
+        // The smallest state of each block precedes the other ones, so it is
+        // numbered first:
+        int blockCount = 0;
+
+        for (int state = 0; state < stateCount; ++state) {
+            int representative = slots.get(slotOf[state]);
+
+            newBlocks[state] = representative == state ?
+                               blockCount++ :
+                               newBlocks[representative];
+        }
+
+        return blockCount;
+    }
+
+    private void clearSlots(int fromIndex, int toIndex) {
+        for (int slot = fromIndex; slot < toIndex; ++slot) {
+            slots.set(slot, EMPTY_SLOT);
+        }
+    }
+
+    private void insertStates(int fromIndex, int toIndex) {
+        for (int state = fromIndex; state < toIndex; ++state) {
+            insertState(state);
+        }
+    }
+
+    /**
+     * Inserts the input state into the slot of its row. Since a slot only
+     * ever holds the states of a single row, all the states having the same
+     * row end up in the same slot.
+     *
+     * @param state the state to insert.
+     */
+    private void insertState(int state) {
+        int mask = slots.length() - 1;
+        int slot = MooreMinimizer.hashRow(dfa, blocks, state) & mask;
+
+        while (true) {
+            int representative = slots.get(slot);
+
+            if (representative == EMPTY_SLOT) {
+                if (slots.compareAndSet(slot, EMPTY_SLOT, state)) {
+                    slotOf[state] = slot;
+                    return;
+                }
+
+                // Lost the race, read the slot again:
+                continue;
+            }
+
+            if (MooreMinimizer.rowsEqual(dfa, blocks, state, representative)) {
+                while (state < representative
+                        && !slots.compareAndSet(slot, representative, state)) {
+                    representative = slots.get(slot);
+                }
+
+                slotOf[state] = slot;
+                return;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    /**
+     * The action applied to a range of indices.
+     */
+    @FunctionalInterface
+    private interface RangeAction {
+        void apply(int fromIndex, int toIndex);
+    }
+
+    /**
+     * Applies a range action to a range of indices, splitting the range in
+     * halves until it is small enough.
+     */
+    @SuppressWarnings("serial")
+    private static final class RangeTask extends RecursiveAction {
+
+        private final RangeAction action;
+        private final int fromIndex;
+        private final int toIndex;
+
+        RangeTask(RangeAction action, int fromIndex, int toIndex) {
+            this.action = action;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        @Override
+        protected void compute() {
+            if (toIndex - fromIndex > SEQUENTIAL_THRESHOLD) {
+                int middleIndex = (fromIndex + toIndex) >>> 1;
+
+                invokeAll(new RangeTask(action, fromIndex, middleIndex),
+                          new RangeTask(action, middleIndex, toIndex));
+                return;
+            }
+
+            action.apply(fromIndex, toIndex);
+        }
+    }
+}
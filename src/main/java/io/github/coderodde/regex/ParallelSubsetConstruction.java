@@ -0,0 +1,410 @@
+package io.github.coderodde.regex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * This class implements the subset construction on a {@link ForkJoinPool}. The
+ * subsets are processed level by level in the breadth-first order: the
+ * successors of all the subsets in the current frontier are computed in
+ * parallel and deduplicated through a concurrent interned subset map, after
+ * which a sequential pass over the frontier assigns the DFA state IDs to the
+ * new subsets in the order of (source ID, class ID). This is exactly the order
+ * of the sequential construction, so both produce the same DFA regardless of
+ * the thread scheduling. The result is either a DFA or directly the table of
+ * an indexed DFA.
+ */
+final class ParallelSubsetConstruction {
+
+    /**
+     * The frontier ranges of at most this many subsets are expanded without
+     * splitting further.
+     */
+    private static final int SEQUENTIAL_THRESHOLD = 8;
+
+    /**
+     * The ID of a subset not yet added to the DFA.
+     */
+    private static final int UNASSIGNED_ID = -1;
+
+    private final NondeterministicFiniteAutomaton nfa;
+    private final IndexedNondeterministicFiniteAutomaton indexedNfa;
+    private final AlphabetPartition alphabetPartition;
+    private final IndexedNondeterministicFiniteAutomaton.ClassTransitions
+            classTransitions;
+
+    private final DeterminizationBudget budget;
+    private final long maximumNanos;
+    private final ForkJoinPool pool;
+
+    private final ConcurrentHashMap<Subset, Subset> interned =
+        new ConcurrentHashMap<>();
+
+    /**
+     * The idle scratch spaces of the expansion tasks. There are at most as
+     * many of them as there are concurrently running tasks.
+     */
+    private final Queue<Scratch> scratchSpaces =
+        new ConcurrentLinkedQueue<>();
+
+    private final List<DeterministicFiniteAutomatonState> dfaStates =
+        new ArrayList<>();
+
+    private final int classCount;
+
+    /**
+     * The DFA being built, or {@code null} if building the indexed DFA.
+     */
+    private DeterministicFiniteAutomaton dfa;
+
+    /**
+     * The table of the indexed DFA being built. The target of the state
+     * {@code i} on the class {@code c} is at the index
+     * {@code i * classCount + c}.
+     */
+    private int[] transitions;
+    private boolean[] accepting;
+    private int stateCount;
+
+    private long work;
+    private long startNanos;
+
+    ParallelSubsetConstruction(NondeterministicFiniteAutomaton nfa,
+                               DeterminizationBudget budget,
+                               ForkJoinPool pool) {
+        this.nfa = nfa;
+        this.budget = budget;
+        this.maximumNanos = budget.getMaximumNanos();
+        this.pool = pool;
+        this.indexedNfa = nfa.getIndexedNfa();
+        this.alphabetPartition = indexedNfa.computeAlphabetPartition();
+        this.classTransitions =
+            indexedNfa.computeClassTransitions(alphabetPartition);
+        this.classCount = alphabetPartition.getClassCount();
+    }
+
+    DeterministicFiniteAutomaton convert() {
+        dfa = new DeterministicFiniteAutomaton(nfa.isAnchoredAtStart(),
+                                               nfa.isAnchoredAtEnd());
+        constructSubsets();
+        dfa.setInitialState(dfaStates.get(0));
+        return dfa;
+    }
+
+    IndexedDeterministicFiniteAutomaton convertToIndexedDfa() {
+        transitions = new int[16 * classCount];
+        accepting = new boolean[16];
+
+        constructSubsets();
+
+        return new IndexedDeterministicFiniteAutomaton(
+            alphabetPartition,
+            Arrays.copyOf(transitions, stateCount * classCount),
+            Arrays.copyOf(accepting, stateCount),
+            nfa.isAnchoredAtStart(),
+            nfa.isAnchoredAtEnd());
+    }
+
+    private void constructSubsets() {
+        startNanos = System.nanoTime();
+
+        Scratch scratch = acquireScratch();
+        indexedNfa.addClosure(scratch.current, null, 0, 0);
+        Subset initialSubset = intern(scratch.current);
+        releaseScratch(scratch);
+
+        assignId(initialSubset);
+
+        List<Subset> frontier = new ArrayList<>();
+        frontier.add(initialSubset);
+
+        while (!frontier.isEmpty()) {
+            pool.invoke(new ExpansionTask(frontier, 0, frontier.size()));
+            frontier = mergeLevel(frontier);
+        }
+    }
+
+    /**
+     * Adds the transitions of the expanded frontier subsets to the DFA and
+     * assigns the IDs to the new successor subsets in the deterministic
+     * order.
+     *
+     * @param frontier the expanded subsets in the ascending order of IDs.
+     * @return the next frontier in the ascending order of IDs.
+     */
+    private List<Subset> mergeLevel(List<Subset> frontier) {
+        List<Subset> nextFrontier = new ArrayList<>();
+
+        for (Subset subset : frontier) {
+            checkDuration();
+            addWork(subset.pairCount);
+
+            for (int k = 0; k < subset.successors.length; ++k) {
+                Subset successor = subset.successors[k];
+
+                if (successor.id == UNASSIGNED_ID) {
+                    assignId(successor);
+                    nextFrontier.add(successor);
+                }
+
+                addTransition(subset.id,
+                              subset.successorClassIds[k],
+                              successor.id);
+            }
+
+            // The expansion is not needed anymore:
+            subset.successors = null;
+            subset.successorClassIds = null;
+        }
+
+        return nextFrontier;
+    }
+
+    private void addTransition(int sourceId, int classId, int targetId) {
+        if (dfa == null) {
+            transitions[sourceId * classCount + classId] = targetId;
+            return;
+        }
+
+        DeterministicFiniteAutomatonState sourceState = dfaStates.get(sourceId);
+        DeterministicFiniteAutomatonState targetState = dfaStates.get(targetId);
+
+        for (CodePointRange range : alphabetPartition.getRanges(classId)) {
+            dfa.addTransition(sourceState, range, targetState);
+        }
+    }
+
+    private void assignId(Subset subset) {
+        int id = stateCount;
+
+        if (id == budget.maximumNumberOfStates()) {
+            throw new DeterminizationBudgetExceededException(
+                "The subset construction exceeded the maximum number of "
+                    + "states (" + budget.maximumNumberOfStates() + ").");
+        }
+
+        subset.id = id;
+        ++stateCount;
+
+        if (dfa == null) {
+            if (accepting.length == id) {
+                accepting = Arrays.copyOf(accepting, 2 * id);
+                transitions = Arrays.copyOf(transitions, 2 * id * classCount);
+            }
+
+            Arrays.fill(transitions,
+                        id * classCount,
+                        (id + 1) * classCount,
+                        IndexedDeterministicFiniteAutomaton.DEAD_STATE);
+
+            accepting[id] = subset.accepting;
+            return;
+        }
+
+        DeterministicFiniteAutomatonState dfaState =
+            new DeterministicFiniteAutomatonState(id);
+
+        if (subset.accepting) {
+            dfa.addAcceptingState(dfaState);
+        }
+
+        dfaStates.add(dfaState);
+    }
+
+    /**
+     * Computes the successors of the input subset on all the character
+     * classes. Called concurrently by the expansion tasks.
+     *
+     * @param subset  the subset to expand.
+     * @param scratch the scratch space of the calling task.
+     */
+    private void expand(Subset subset, Scratch scratch) {
+        scratch.current.clear();
+
+        for (int state : subset.states) {
+            scratch.current.add(state);
+        }
+
+        SubsetStepper stepper = scratch.stepper;
+        int touchedCount = stepper.groupByClass(scratch.current);
+        int[] successorClassIds = new int[touchedCount];
+        Subset[] successors = new Subset[touchedCount];
+        int successorCount = 0;
+
+        for (int k = 0; k < touchedCount; ++k) {
+            stepper.computeSuccessor(k, scratch.next);
+
+            if (!scratch.next.isEmpty()) {
+                successorClassIds[successorCount] = stepper.getClassId(k);
+                successors[successorCount++] = intern(scratch.next);
+            }
+        }
+
+        subset.pairCount = stepper.getPairCount();
+        subset.successorClassIds =
+            Arrays.copyOf(successorClassIds, successorCount);
+        subset.successors = Arrays.copyOf(successors, successorCount);
+    }
+
+    private Subset intern(SparseIntSet set) {
+        int[] states = new int[set.size()];
+
+        for (int i = 0; i < states.length; ++i) {
+            states[i] = set.get(i);
+        }
+
+        Arrays.sort(states);
+
+        Subset subset = new Subset(states,
+                                   indexedNfa.containsAcceptingState(set));
+
+        Subset canonicalSubset = interned.putIfAbsent(subset, subset);
+        return canonicalSubset == null ? subset : canonicalSubset;
+    }
+
+    private Scratch acquireScratch() {
+        Scratch scratch = scratchSpaces.poll();
+        return scratch != null ? scratch : new Scratch();
+    }
+
+    private void releaseScratch(Scratch scratch) {
+        scratchSpaces.add(scratch);
+    }
+
+    private boolean isOutOfTime() {
+        return System.nanoTime() - startNanos > maximumNanos;
+    }
+
+    private void addWork(int amount) {
+        work += amount;
+
+        if (work > budget.maximumWork()) {
+            throw new DeterminizationBudgetExceededException(
+                "The subset construction exceeded the maximum work ("
+                    + budget.maximumWork() + ").");
+        }
+    }
+
+    private void checkDuration() {
+        if (isOutOfTime()) {
+            throw new DeterminizationBudgetExceededException(
+                "The subset construction exceeded the maximum duration ("
+                    + budget.maximumDuration() + ").");
+        }
+    }
+
+    /**
+     * Expands a range of the frontier. The tasks do not throw on running out
+     * of time, since the pool would rethrow a copy of the exception without
+     * its message; instead, they stop early and let the following merge
+     * throw.
+     */
+    @SuppressWarnings("serial")
+    private final class ExpansionTask extends RecursiveAction {
+
+        private final List<Subset> frontier;
+        private final int fromIndex;
+        private final int toIndex;
+
+        ExpansionTask(List<Subset> frontier, int fromIndex, int toIndex) {
+            this.frontier = frontier;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        @Override
+        protected void compute() {
+            if (toIndex - fromIndex > SEQUENTIAL_THRESHOLD) {
+                int middleIndex = (fromIndex + toIndex) >>> 1;
+
+                invokeAll(new ExpansionTask(frontier, fromIndex, middleIndex),
+                          new ExpansionTask(frontier, middleIndex, toIndex));
+                return;
+            }
+
+            Scratch scratch = acquireScratch();
+
+            try {
+                for (int i = fromIndex; i < toIndex && !isOutOfTime(); ++i) {
+                    expand(frontier.get(i), scratch);
+                }
+            } finally {
+                releaseScratch(scratch);
+            }
+        }
+    }
+
+    /**
+     * The per-task mutable state of the expansion.
+     */
+    private final class Scratch {
+
+        final SubsetStepper stepper =
+            new SubsetStepper(indexedNfa,
+                              classTransitions,
+                              alphabetPartition.getClassCount());
+
+        final SparseIntSet current =
+            new SparseIntSet(indexedNfa.getNumberOfStates());
+
+        final SparseIntSet next =
+            new SparseIntSet(indexedNfa.getNumberOfStates());
+    }
+
+    /**
+     * An interned subset of NFA states. The equality depends on the states
+     * only.
+     */
+    private static final class Subset {
+
+        final int[] states;
+        final boolean accepting;
+        final int hashCode;
+
+        /**
+         * The DFA state ID. Only accessed by the merging thread.
+         */
+        int id = UNASSIGNED_ID;
+
+        /**
+         * The nonempty successors and their character classes in the
+         * ascending order of class IDs. Written by an expansion task and read
+         * by the following merge.
+         */
+        int[] successorClassIds;
+        Subset[] successors;
+        int pairCount;
+
+        Subset(int[] states, boolean accepting) {
+            this.states = states;
+            this.accepting = accepting;
+            this.hashCode = Arrays.hashCode(states);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (o == this) {
+                return true;
+            }
+
+            if (!(o instanceof Subset)) {
+                return false;
+            }
+
+            Subset other = (Subset) o;
+            return hashCode == other.hashCode
+                && Arrays.equals(states, other.states);
+        }
+    }
+}
@@ -6,9 +6,13 @@ import io.github.coderodde.regex.parser.ast.tokens.RegexToken;
 import io.github.coderodde.regex.parser.ast.tree.RegexNode;
 import io.github.coderodde.regex.tokenizer.RegexTokenizer;
 import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
 
 /**
- * This class defines the regular expression matcher creation API.
+ * This class defines the regular expression matcher creation API. The 
+ * matchers compiled over and over may be reused via a 
+ * {@link CompiledPatternCache}.
  */
 public final class RegexToolkit {
     
@@ -17,8 +21,8 @@ public final class RegexToolkit {
     }
     
     /**
-     * Compiles the input regular expression to a regex matcher (DFA in this 
-     * case).
+     * Compiles the input regular expression to a regex matcher (a frozen, 
+     * table-driven DFA in this case).
      * 
      * @param regex     the regular expression to match.
      * @param algorithm the minimization algorithm choice. If set to 
@@ -29,7 +33,98 @@ public final class RegexToolkit {
         compile(
             String regex, 
             DeterministicFiniteAutomaton.MinimizationAlgorithm algorithm) {
+        
+        return compile(regex, algorithm, DeterminizationBudget.UNLIMITED);
+    }
+        
+    /**
+     * Compiles the input regular expression to a regex matcher. If the subset
+     * construction stays within {@code budget}, a frozen, table-driven DFA is 
+     * returned. Otherwise, the policy of the budget decides whether an NFA, a
+     * lazy DFA or an exception results. The same holds for the subset 
+     * constructions of 
+     * {@link DeterministicFiniteAutomaton.MinimizationAlgorithm#BRZOZOWSKI}.
+     * The helper DFAs built by the searches of the frozen DFA are limited by
+     * the same budget.
+     * 
+     * @param regex     the regular expression to match.
+     * @param algorithm the minimization algorithm choice. If set to 
+     *                  {@code null}, no minimization on the DFA is done.
+     * @param budget    the resource limits of the subset constructions.
+     * @return the regex matcher.
+     * @throws DeterminizationBudgetExceededException if the budget is exceeded
+     *                                                and its policy is 
+     *                                                {@code FAIL}.
+     */
+    public static RegularExpressionMatcher 
+        compile(
+            String regex, 
+            DeterministicFiniteAutomaton.MinimizationAlgorithm algorithm,
+            DeterminizationBudget budget) {
+        
+        return compile(regex, algorithm, budget, null);
+    }
+        
+    /**
+     * Compiles the input regular expression to a regex matcher just like
+     * {@link #compile(String, DeterministicFiniteAutomaton.MinimizationAlgorithm, DeterminizationBudget)},
+     * but runs the subset construction and the 
+     * {@link DeterministicFiniteAutomaton.MinimizationAlgorithm#PARALLEL_MOORE}
+     * minimization on the input pool.
+     * 
+     * @param regex     the regular expression to match.
+     * @param algorithm the minimization algorithm choice. If set to 
+     *                  {@code null}, no minimization on the DFA is done.
+     * @param budget    the resource limits of the subset constructions.
+     * @param pool      the pool for the subset construction and the parallel
+     *                  minimization. If set to {@code null}, the construction
+     *                  runs in the calling thread and the parallel 
+     *                  minimization in the common pool.
+     * @return the regex matcher.
+     * @throws DeterminizationBudgetExceededException if the budget is exceeded
+     *                                                and its policy is 
+     *                                                {@code FAIL}.
+     */
+    public static RegularExpressionMatcher 
+        compile(
+            String regex, 
+            DeterministicFiniteAutomaton.MinimizationAlgorithm algorithm,
+            DeterminizationBudget budget,
+            ForkJoinPool pool) {
             
+        Objects.requireNonNull(budget, "The input budget is null.");
+        
+        NondeterministicFiniteAutomaton nfa = compileToNfa(regex);
+        
+        // Brzozowski's minimization runs subset constructions as well, so it
+        // falls back under the same policy as the main construction:
+        try {
+            IndexedDeterministicFiniteAutomaton dfa = pool == null ? 
+                nfa.convertToIndexedDeterministicFiniteAutomaton(budget) :
+                nfa.convertToIndexedDeterministicFiniteAutomaton(budget, pool);
+            
+            return minimizeAndFreeze(
+                dfa, 
+                algorithm, 
+                budget,
+                pool == null ? ForkJoinPool.commonPool() : pool);
+        } catch (DeterminizationBudgetExceededException ex) {
+            switch (budget.policy()) {
+                case NFA:
+                    return nfa;
+                    
+                case LAZY_DFA:
+                    return new LazyDeterministicFiniteAutomaton(
+                        nfa, 
+                        getLazyCacheCapacity(budget));
+                    
+                default:
+                    throw ex;
+            }
+        }
+    }
+        
+    private static NondeterministicFiniteAutomaton compileToNfa(String regex) {
         RegexTokenizationResult tokenizationResult = 
             new RegexTokenizer().tokenize(regex);
         
@@ -37,35 +132,60 @@ public final class RegexToolkit {
         
         RegexNode root = new RegexParser(tokens).parse();
             
-        NondeterministicFiniteAutomaton nfa = 
-            new NondeterministicFiniteAutomatonCompiler(root)
+        return new NondeterministicFiniteAutomatonCompiler(root)
                 .compile(tokenizationResult);
-        
-        DeterministicFiniteAutomaton dfa = 
-            nfa.convertToDeterministicFiniteAutomaton();
-        
+    }
+    
+    /**
+     * Minimizes the input DFA, if requested, and freezes it. The subset 
+     * construction, the minimization and the freezing all work on the flat 
+     * transition tables, so no state objects are created on the way from the
+     * NFA to the frozen DFA.
+     * 
+     * @param dfa       the DFA produced by the subset construction.
+     * @param algorithm the minimization algorithm, or {@code null} for no 
+     *                  minimization.
+     * @param budget    the limits of the Brzozowski minimization and the 
+     *                  helper DFAs of the frozen DFA.
+     * @param pool      the pool for the parallel minimization.
+     * @return the frozen DFA.
+     * @throws DeterminizationBudgetExceededException if the Brzozowski 
+     *                                                minimization exceeds the
+     *                                                budget.
+     */
+    private static FrozenDeterministicFiniteAutomaton 
+        minimizeAndFreeze(
+            IndexedDeterministicFiniteAutomaton dfa,
+            DeterministicFiniteAutomaton.MinimizationAlgorithm algorithm,
+            DeterminizationBudget budget,
+            ForkJoinPool pool) {
+            
         if (algorithm != null) {
-            switch (algorithm) {
-                case MOORE:
-                case HOPCROFT:
-                    dfa = dfa.minimize(algorithm);
-                    break;
-                    
-                default:
-                    throw new EnumConstantNotPresentException(
-                        DeterministicFiniteAutomaton
-                            .MinimizationAlgorithm
-                            .class, 
-                        algorithm.toString());
-            }
+            dfa = dfa.minimize(algorithm, pool, budget);
         }
         
-        return dfa;
+        return dfa.freeze(budget);
+    }
+       
+    /**
+     * Caps the state cache of the lazy DFA fallback by the state budget.
+     * 
+     * @param budget the determinization budget.
+     * @return the maximum number of states per lazy DFA cache.
+     */
+    private static int getLazyCacheCapacity(DeterminizationBudget budget) {
+        return Math.max(
+            2,
+            Math.min(
+                budget.maximumNumberOfStates(), 
+                LazyDeterministicFiniteAutomaton
+                    .DEFAULT_MAXIMUM_NUMBER_OF_STATES));
     }
        
     /**
-     * Compiles the input regular expression to a regex matcher (DFA in this 
-     * case). No minimization is done on the resulting DFA.
+     * Compiles the input regular expression to a regex matcher (a frozen, 
+     * table-driven DFA in this case). No minimization is done on the resulting
+     * DFA.
      * 
      * @param regex the target regular language.
      * @return the DFA matching {@code regex}.
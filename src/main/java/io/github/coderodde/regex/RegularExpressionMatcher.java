@@ -1,10 +1,18 @@
 package io.github.coderodde.regex;
 
+import java.util.Iterator;
+
 /**
- * This interface defines the API for regular expression matchers.
+ * This interface defines the API for regular expression matchers. All the
+ * matchers are safe for concurrent use by multiple threads without external
+ * synchronization, provided that the mutable automata are no longer modified
+ * once the matching has begun.
  */
 public sealed interface RegularExpressionMatcher 
-        permits DeterministicFiniteAutomaton, 
+        permits BitParallelNondeterministicFiniteAutomaton,
+                DeterministicFiniteAutomaton, 
+                FrozenDeterministicFiniteAutomaton,
+                LazyDeterministicFiniteAutomaton,
                 NondeterministicFiniteAutomaton {
     
     /**
@@ -26,4 +34,76 @@ public sealed interface RegularExpressionMatcher
      *         the matcher.
      */
     public boolean find(String text);
+    
+    /**
+     * Finds the leftmost-longest match starting at or after the index 
+     * {@code from}. Among all the matches starting at the smallest possible 
+     * index, the longest one is returned. If {@code from} falls between the 
+     * two {@code char}s of a surrogate pair, the search starts right after the
+     * pair.
+     * 
+     * @param text the text to search.
+     * @param from the index at which to start searching.
+     * @return the position of the match, or {@code null} if there is no match.
+     * @throws IndexOutOfBoundsException if {@code from} is out of bounds.
+     */
+    public MatchPosition findMatch(CharSequence text, int from);
+    
+    /**
+     * Finds the leftmost-longest match in the entire input text.
+     * 
+     * @param text the text to search.
+     * @return the position of the match, or {@code null} if there is no match.
+     */
+    public default MatchPosition findMatch(CharSequence text) {
+        return findMatch(text, 0);
+    }
+    
+    /**
+     * Returns an iterator over all the non-overlapping leftmost-longest 
+     * matches in the input text. The iterator returns the same 
+     * {@link MatchPosition} object on every call, so the caller must copy the 
+     * offsets it wishes to retain.
+     * 
+     * @param text the text to search.
+     * @return the match iterator.
+     */
+    public default Iterator<MatchPosition> findAll(CharSequence text) {
+        return new MatchPositionIterator(text, this::findMatch);
+    }
+    
+    /**
+     * Reports all the non-overlapping leftmost-longest matches in the input 
+     * text to the consumer in the order of their appearance.
+     * 
+     * @param text     the text to search.
+     * @param consumer the match consumer.
+     */
+    public default void forEachMatch(CharSequence text, 
+                                     MatchConsumer consumer) {
+        MatchPositionIterator.forEachMatch(text, this::findMatch, consumer);
+    }
+    
+    /**
+     * Finds the leftmost-longest match and stores it in 
+     * {@code matchPosition}.
+     * 
+     * @param text          the text to search.
+     * @param from          the index at which to start searching.
+     * @param matchPosition the object to store the match in.
+     * @return {@code true} if a match was found.
+     */
+    private boolean findMatch(CharSequence text, 
+                              int from, 
+                              MatchPosition matchPosition) {
+        
+        MatchPosition match = findMatch(text, from);
+        
+        if (match == null) {
+            return false;
+        }
+        
+        matchPosition.set(match.getStart(), match.getEnd());
+        return true;
+    }
 }
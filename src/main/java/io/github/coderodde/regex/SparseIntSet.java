@@ -0,0 +1,80 @@
+package io.github.coderodde.regex;
+
+/**
+ * This class implements the Briggs–Torczon sparse set over the integers
+ * {@code 0, 1, ..., capacity - 1}. All the operations, including
+ * {@link #clear()}, run in constant time, and the elements are iterated in
+ * their insertion order.
+ */
+final class SparseIntSet {
+
+    /**
+     * The elements in insertion order.
+     */
+    private final int[] dense;
+
+    /**
+     * Maps each element to its index in {@link #dense}. The entries of absent
+     * elements may hold garbage.
+     */
+    private final int[] sparse;
+
+    private int size;
+
+    SparseIntSet(int capacity) {
+        this.dense  = new int[capacity];
+        this.sparse = new int[capacity];
+    }
+
+    /**
+     * Adds the input element unless it is already present.
+     *
+     * @param element the element to add.
+     * @return {@code true} if the element was not present.
+     */
+    boolean add(int element) {
+        if (contains(element)) {
+            return false;
+        }
+
+        dense[size] = element;
+        sparse[element] = size++;
+        return true;
+    }
+
+    boolean contains(int element) {
+        int index = sparse[element];
+        return index < size && dense[index] == element;
+    }
+
+    /**
+     * Returns the element at the input position in insertion order.
+     *
+     * @param index the position of the element.
+     * @return the element.
+     */
+    int get(int index) {
+        return dense[index];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    /**
+     * Keeps only the first {@code newSize} elements in insertion order.
+     *
+     * @param newSize the new size.
+     */
+    void truncate(int newSize) {
+        size = newSize;
+    }
+}
@@ -0,0 +1,152 @@
+package io.github.coderodde.regex;
+
+import java.util.Arrays;
+
+/**
+ * This class computes all the successors of an NFA state subset in a single
+ * pass. The (class ID, target) pairs of the states in the subset are grouped
+ * by the character class, after which the successor on each class is the
+ * union of the precomputed epsilon closures of its targets. Instances hold
+ * mutable scratch space, so each thread needs its own.
+ */
+final class SubsetStepper {
+
+    private final IndexedNondeterministicFiniteAutomaton nfa;
+    private final int[] starts;
+    private final int[] classIds;
+    private final int[] targets;
+
+    /**
+     * Counts the pairs per character class while grouping. All zeros between
+     * the calls to {@link #groupByClass(SparseIntSet)}.
+     */
+    private final int[] classCounts;
+
+    /**
+     * The character classes having at least one pair in the last subset, in
+     * ascending order.
+     */
+    private final int[] touchedClassIds;
+
+    /**
+     * The targets of the {@code k}th touched class end at the index
+     * {@code groupEnds[k]} (exclusive) of {@link #groupedTargets}, right where
+     * the targets of the previous touched class end.
+     */
+    private final int[] groupEnds;
+
+    private int[] pairClassIds = new int[16];
+    private int[] pairTargets = new int[16];
+    private int[] groupedTargets = new int[16];
+    private int pairCount;
+
+    SubsetStepper(
+            IndexedNondeterministicFiniteAutomaton nfa,
+            IndexedNondeterministicFiniteAutomaton.ClassTransitions transitions,
+            int classCount) {
+
+        this.nfa             = nfa;
+        this.starts          = transitions.starts();
+        this.classIds        = transitions.classIds();
+        this.targets         = transitions.targets();
+        this.classCounts     = new int[classCount];
+        this.touchedClassIds = new int[classCount];
+        this.groupEnds       = new int[classCount];
+    }
+
+    /**
+     * Groups the targets of all the pairs of the states in {@code subset} by
+     * the character class.
+     *
+     * @param subset the subset of NFA states.
+     * @return the number of classes with at least one target.
+     */
+    int groupByClass(SparseIntSet subset) {
+        int touchedCount = 0;
+        pairCount = 0;
+
+        for (int i = 0; i < subset.size(); ++i) {
+            int state = subset.get(i);
+            int count = starts[state + 1] - starts[state];
+
+            if (pairCount + count > pairClassIds.length) {
+                int capacity = Math.max(pairCount + count,
+                                        2 * pairClassIds.length);
+
+                pairClassIds = Arrays.copyOf(pairClassIds, capacity);
+                pairTargets = Arrays.copyOf(pairTargets, capacity);
+            }
+
+            for (int j = starts[state]; j < starts[state + 1]; ++j) {
+                int classId = classIds[j];
+
+                if (classCounts[classId]++ == 0) {
+                    touchedClassIds[touchedCount++] = classId;
+                }
+
+                pairClassIds[pairCount] = classId;
+                pairTargets[pairCount++] = targets[j];
+            }
+        }
+
+        Arrays.sort(touchedClassIds, 0, touchedCount);
+
+        // Turn the counts into the starting offsets of the groups:
+        int offset = 0;
+
+        for (int k = 0; k < touchedCount; ++k) {
+            int classId = touchedClassIds[k];
+            int count = classCounts[classId];
+
+            classCounts[classId] = offset;
+            offset += count;
+        }
+
+        if (groupedTargets.length < pairCount) {
+            groupedTargets = new int[Math.max(pairCount,
+                                              2 * groupedTargets.length)];
+        }
+
+        for (int p = 0; p < pairCount; ++p) {
+            groupedTargets[classCounts[pairClassIds[p]]++] = pairTargets[p];
+        }
+
+        for (int k = 0; k < touchedCount; ++k) {
+            int classId = touchedClassIds[k];
+
+            groupEnds[k] = classCounts[classId];
+            classCounts[classId] = 0;
+        }
+
+        return touchedCount;
+    }
+
+    /**
+     * Returns the number of (class ID, target) pairs grouped by the last call
+     * to {@link #groupByClass(SparseIntSet)}.
+     *
+     * @return the number of pairs.
+     */
+    int getPairCount() {
+        return pairCount;
+    }
+
+    int getClassId(int k) {
+        return touchedClassIds[k];
+    }
+
+    /**
+     * Computes the successor of the last grouped subset on the {@code k}th
+     * touched class.
+     *
+     * @param k      the index of the touched class.
+     * @param target the set to store the successor in.
+     */
+    void computeSuccessor(int k, SparseIntSet target) {
+        target.clear();
+
+        for (int g = k == 0 ? 0 : groupEnds[k - 1]; g < groupEnds[k]; ++g) {
+            nfa.addClosure(target, null, groupedTargets[g], 0);
+        }
+    }
+}
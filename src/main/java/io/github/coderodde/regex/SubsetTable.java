@@ -0,0 +1,322 @@
+package io.github.coderodde.regex;
+
+import java.util.Arrays;
+
+/**
+ * This class implements an open-addressing hash table interning the subsets of
+ * NFA states. Each subset is stored once, in canonical sorted form, in a single
+ * shared {@code int} pool, and receives a dense ID in the order of insertion.
+ * The 64-bit hash of each subset is computed once and kept alongside, so that
+ * the probes compare the full subsets only on hash hits.
+ *
+ * <p>The subset construction needs the contents of a subset only until it has
+ * computed the transitions of its DFA state. After
+ * {@link #releaseBelow(int)}, the released subsets keep only their length,
+ * their hash and a second, independent 64-bit fingerprint, and are recognized
+ * by those alone; the storage of their contents is reclaimed. Two distinct
+ * subsets of the same length would have to agree on both 64-bit values to be
+ * confused.
+ */
+final class SubsetTable {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * The empty slot marker in {@link #slots}.
+     */
+    private static final int EMPTY_SLOT = -1;
+
+    /**
+     * The concatenation of all the unreleased subsets in the order of their
+     * IDs.
+     */
+    private int[] pool = new int[DEFAULT_CAPACITY];
+    private int poolSize;
+
+    /**
+     * The position of {@code pool[0]} in the concatenation of all the
+     * subsets, released or not.
+     */
+    private int poolBase;
+
+    /**
+     * The subset with the ID {@code i} occupies the positions from
+     * {@code offsets[i]} (inclusive) to {@code offsets[i + 1]} (exclusive)
+     * of the concatenation of all the subsets. Unless released, it is stored
+     * at the same positions minus {@link #poolBase} of {@link #pool}.
+     */
+    private int[] offsets = new int[DEFAULT_CAPACITY + 1];
+    private long[] hashes = new long[DEFAULT_CAPACITY];
+    private long[] fingerprints = new long[DEFAULT_CAPACITY];
+    private int size;
+
+    /**
+     * The subsets with the IDs less than this are released.
+     */
+    private int releasedCount;
+
+    /**
+     * Maps the hash slots to the subset IDs. The length is a power of two, and
+     * at most half of the slots are occupied.
+     */
+    private int[] slots = newSlots(2 * DEFAULT_CAPACITY);
+
+    /**
+     * The scratch buffer holding the sorted subset being looked up.
+     */
+    private int[] buffer = new int[DEFAULT_CAPACITY];
+
+    /**
+     * Returns the ID of the input subset, adding the subset first if it is not
+     * present. The new IDs are assigned densely, so the subset was added if
+     * and only if the returned ID equals the size of the table before the
+     * call.
+     *
+     * @param set the subset of NFA states.
+     * @return the ID of the subset.
+     */
+    int getOrAdd(SparseIntSet set) {
+        int length = set.size();
+
+        if (buffer.length < length) {
+            buffer = new int[Math.max(length, 2 * buffer.length)];
+        }
+
+        for (int i = 0; i < length; ++i) {
+            buffer[i] = set.get(i);
+        }
+
+        Arrays.sort(buffer, 0, length);
+        return getOrAddBuffer(length);
+    }
+
+    /**
+     * Returns the ID of the input sequence, adding the sequence first if it is
+     * not present. Unlike {@link #getOrAdd(SparseIntSet)}, the order of the
+     * elements matters, so that ordered lists of states may be interned as
+     * well. A table should intern either only subsets or only sequences.
+     *
+     * @param sequence the array holding the sequence.
+     * @param length   the length of the sequence.
+     * @return the ID of the sequence.
+     */
+    int getOrAdd(int[] sequence, int length) {
+        if (buffer.length < length) {
+            buffer = new int[Math.max(length, 2 * buffer.length)];
+        }
+
+        System.arraycopy(sequence, 0, buffer, 0, length);
+        return getOrAddBuffer(length);
+    }
+
+    /**
+     * Loads the sequence with the input ID into the target array.
+     *
+     * @param id     the sequence ID.
+     * @param target the array to load the sequence into.
+     * @return the length of the sequence.
+     * @throws IllegalStateException if the sequence is released.
+     */
+    int getSequence(int id, int[] target) {
+        checkNotReleased(id);
+
+        int offset = offsets[id] - poolBase;
+        int length = offsets[id + 1] - offsets[id];
+
+        System.arraycopy(pool, offset, target, 0, length);
+        return length;
+    }
+
+    /**
+     * Loads the subset with the input ID into the target set.
+     *
+     * @param id     the subset ID.
+     * @param target the set to load the subset into.
+     * @throws IllegalStateException if the subset is released.
+     */
+    void getSubset(int id, SparseIntSet target) {
+        checkNotReleased(id);
+        target.clear();
+
+        for (int i = offsets[id] - poolBase;
+                 i < offsets[id + 1] - poolBase;
+                 ++i) {
+            target.add(pool[i]);
+        }
+    }
+
+    /**
+     * Drops the contents of all the subsets with the IDs less than the input
+     * one. The released subsets keep their IDs and are still found by
+     * {@link #getOrAdd(SparseIntSet)}, but can no longer be loaded. The pool
+     * is compacted once the released prefix takes at least half of it, so
+     * that the storage is proportional to the unreleased subsets.
+     *
+     * @param id the ID of the first subset to keep.
+     */
+    void releaseBelow(int id) {
+        if (id <= releasedCount) {
+            return;
+        }
+
+        releasedCount = Math.min(id, size);
+
+        int releasedLength = offsets[releasedCount] - poolBase;
+
+        if (2 * releasedLength >= poolSize && releasedLength > 0) {
+            System.arraycopy(pool,
+                             releasedLength,
+                             pool,
+                             0,
+                             poolSize - releasedLength);
+
+            poolBase += releasedLength;
+            poolSize -= releasedLength;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Removes all the subsets while keeping the allocated storage.
+     */
+    void clear() {
+        Arrays.fill(slots, EMPTY_SLOT);
+        poolSize = 0;
+        poolBase = 0;
+        size = 0;
+        releasedCount = 0;
+    }
+
+    private int getOrAddBuffer(int length) {
+        long hash = hash(buffer, length);
+        long fingerprint = fingerprint(buffer, length);
+        int mask = slots.length - 1;
+        int slot = spread(hash) & mask;
+
+        while (slots[slot] != EMPTY_SLOT) {
+            int id = slots[slot];
+
+            if (hashes[id] == hash
+                    && fingerprints[id] == fingerprint
+                    && equalsBuffer(id, length)) {
+                return id;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return add(length, hash, fingerprint, slot);
+    }
+
+    private void checkNotReleased(int id) {
+        if (id < releasedCount) {
+            throw new IllegalStateException(
+                "The subset " + id + " is released.");
+        }
+    }
+
+    private int add(int length, long hash, long fingerprint, int slot) {
+        if (poolSize + length > pool.length) {
+            pool = Arrays.copyOf(pool,
+                                 Math.max(poolSize + length, 2 * pool.length));
+        }
+
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, 2 * size);
+            fingerprints = Arrays.copyOf(fingerprints, 2 * size);
+            offsets = Arrays.copyOf(offsets, 2 * size + 1);
+        }
+
+        System.arraycopy(buffer, 0, pool, poolSize, length);
+
+        int id = size++;
+
+        offsets[id] = poolBase + poolSize;
+        poolSize += length;
+        offsets[size] = poolBase + poolSize;
+        hashes[id] = hash;
+        fingerprints[id] = fingerprint;
+        slots[slot] = id;
+
+        if (2 * size > slots.length) {
+            rehash();
+        }
+
+        return id;
+    }
+
+    private void rehash() {
+        slots = newSlots(2 * slots.length);
+        int mask = slots.length - 1;
+
+        for (int id = 0; id < size; ++id) {
+            int slot = spread(hashes[id]) & mask;
+
+            while (slots[slot] != EMPTY_SLOT) {
+                slot = (slot + 1) & mask;
+            }
+
+            slots[slot] = id;
+        }
+    }
+
+    private boolean equalsBuffer(int id, int length) {
+        if (offsets[id + 1] - offsets[id] != length) {
+            return false;
+        }
+
+        if (id < releasedCount) {
+            // Only the hash and the fingerprint are left to compare:
+            return true;
+        }
+
+        int offset = offsets[id] - poolBase;
+
+        for (int i = 0; i < length; ++i) {
+            if (pool[offset + i] != buffer[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static long hash(int[] states, int length) {
+        long hash = 0x9E3779B97F4A7C15L ^ length;
+
+        for (int i = 0; i < length; ++i) {
+            hash = (hash ^ states[i]) * 0xBF58476D1CE4E5B9L;
+            hash ^= hash >>> 31;
+        }
+
+        return hash;
+    }
+
+    /**
+     * Computes the second hash of a subset, independent of
+     * {@link #hash(int[], int)}.
+     */
+    private static long fingerprint(int[] states, int length) {
+        long fingerprint = 0xC2B2AE3D27D4EB4FL + length;
+
+        for (int i = 0; i < length; ++i) {
+            fingerprint = (fingerprint + states[i]) * 0xD6E8FEB86659FD93L;
+            fingerprint ^= fingerprint >>> 32;
+        }
+
+        return fingerprint;
+    }
+
+    private static int spread(long hash) {
+        return (int)(hash ^ (hash >>> 32));
+    }
+
+    private static int[] newSlots(int length) {
+        int[] slots = new int[length];
+        Arrays.fill(slots, EMPTY_SLOT);
+        return slots;
+    }
+}
@@ -0,0 +1,293 @@
+package io.github.coderodde.regex;
+
+/**
+ * This class implements the Valmari–Lehtinen DFA minimization algorithm for
+ * partial DFAs in {@code O(m log n)} time, where {@code n} is the number of
+ * states and {@code m} the number of the existing transitions. Unlike
+ * {@link HopcroftMinimizer}, the DFA is not completed with a sink state, so
+ * the running time does not depend on the number of alphabet classes a state
+ * has no transitions on.
+ *
+ * <p>Two refinable partitions are maintained: the blocks of the states and
+ * the cords of the transitions. Initially, the states are split by
+ * acceptance, and the transitions by their classes. Each cord is used once to
+ * split the blocks by the tails of its transitions, and each block except the
+ * first is used once to split the cords by the heads of their transitions.
+ * Whenever a set is split, the smaller part becomes the new set, so every
+ * state and transition takes part in {@code O(log n)} splitters only. A
+ * state without a transition on a class is never marked through that class,
+ * which keeps the states with a missing transition apart from the states
+ * with a transition to an explicit dead state.
+ *
+ * <p>The DFA is expected to contain only the states reachable from the
+ * initial state. The states from which no accepting state is reachable are
+ * not removed.
+ */
+final class ValmariLehtinenMinimizer {
+
+    private final int[] tails;
+    private final int[] heads;
+
+    /**
+     * The incoming transitions of the state {@code q} are at the indices from
+     * {@code inverseStarts[q]} (inclusive) to {@code inverseStarts[q + 1]}
+     * (exclusive) of {@link #inverseTransitions}.
+     */
+    private final int[] inverseStarts;
+    private final int[] inverseTransitions;
+
+    private final RefinablePartition blocks;
+    private final RefinablePartition cords;
+
+    private ValmariLehtinenMinimizer(IndexedDeterministicFiniteAutomaton dfa) {
+        int stateCount = dfa.getNumberOfStates();
+        int classCount = dfa.getClassCount();
+        int transitionCount = 0;
+
+        for (int state = 0; state < stateCount; ++state) {
+            for (int classId = 0; classId < classCount; ++classId) {
+                if (dfa.getTransition(state, classId)
+                        != IndexedDeterministicFiniteAutomaton.DEAD_STATE) {
+                    ++transitionCount;
+                }
+            }
+        }
+
+        this.tails = new int[transitionCount];
+        this.heads = new int[transitionCount];
+
+        int[] classIds = new int[transitionCount];
+        int[] classStarts = new int[classCount + 1];
+        int transition = 0;
+
+        this.inverseStarts = new int[stateCount + 1];
+
+        for (int state = 0; state < stateCount; ++state) {
+            for (int classId = 0; classId < classCount; ++classId) {
+                int target = dfa.getTransition(state, classId);
+
+                if (target != IndexedDeterministicFiniteAutomaton.DEAD_STATE) {
+                    tails[transition] = state;
+                    heads[transition] = target;
+                    classIds[transition++] = classId;
+
+                    ++classStarts[classId + 1];
+                    ++inverseStarts[target + 1];
+                }
+            }
+        }
+
+        for (int classId = 0; classId < classCount; ++classId) {
+            classStarts[classId + 1] += classStarts[classId];
+        }
+
+        for (int state = 0; state < stateCount; ++state) {
+            inverseStarts[state + 1] += inverseStarts[state];
+        }
+
+        this.inverseTransitions = new int[transitionCount];
+
+        int[] inverseFill = inverseStarts.clone();
+        int[] classFill = classStarts.clone();
+        int[] transitionsByClass = new int[transitionCount];
+
+        for (transition = 0; transition < transitionCount; ++transition) {
+            inverseTransitions[inverseFill[heads[transition]]++] = transition;
+            transitionsByClass[classFill[classIds[transition]]++] = transition;
+        }
+
+        this.blocks = new RefinablePartition(stateCount);
+
+        for (int state = 0; state < stateCount; ++state) {
+            if (dfa.isAcceptingState(state)) {
+                blocks.mark(state);
+            }
+        }
+
+        blocks.split();
+
+        this.cords = new RefinablePartition(transitionsByClass, classStarts);
+    }
+
+    /**
+     * Computes the coarsest partition of the states of the input DFA into the
+     * blocks of equivalent states.
+     *
+     * @param dfa the DFA to minimize.
+     * @return the array mapping each state to its block. The blocks are
+     *         numbered densely from zero.
+     */
+    static int[] computeBlocks(IndexedDeterministicFiniteAutomaton dfa) {
+        return new ValmariLehtinenMinimizer(dfa).refine();
+    }
+
+    private int[] refine() {
+        // The first block needs no processing: the cords are consistent with
+        // the union of all the blocks, so splitting them by all the other
+        // blocks splits them by the first one as well.
+        int block = 1;
+        int cord = 0;
+
+        while (cord < cords.setCount) {
+            for (int i = cords.starts[cord]; i < cords.ends[cord]; ++i) {
+                blocks.mark(tails[cords.elements[i]]);
+            }
+
+            blocks.split();
+            ++cord;
+
+            while (block < blocks.setCount) {
+                for (int i = blocks.starts[block];
+                         i < blocks.ends[block];
+                         ++i) {
+
+                    int state = blocks.elements[i];
+
+                    for (int j = inverseStarts[state];
+                             j < inverseStarts[state + 1];
+                             ++j) {
+
+                        cords.mark(inverseTransitions[j]);
+                    }
+                }
+
+                cords.split();
+                ++block;
+            }
+        }
+
+        return blocks.setOf;
+    }
+
+    /**
+     * A partition of the integers from zero (inclusive) to {@code n}
+     * (exclusive) into sets, each set occupying a contiguous range of
+     * {@link #elements}. The marked elements of a set are moved to the
+     * beginning of its range.
+     */
+    private static final class RefinablePartition {
+
+        final int[] elements;
+        final int[] locations;
+        final int[] setOf;
+        final int[] starts;
+        final int[] ends;
+        int setCount;
+
+        private final int[] markedCounts;
+        private final int[] touchedSets;
+        private int touchedCount;
+
+        /**
+         * Constructs the partition with all the elements in a single set.
+         *
+         * @param n the number of elements.
+         */
+        RefinablePartition(int n) {
+            this(identity(n), new int[]{ 0, n });
+        }
+
+        /**
+         * Constructs the partition whose {@code k}th set consists of the
+         * elements of {@code elements} from the index {@code bounds[k]}
+         * (inclusive) to {@code bounds[k + 1]} (exclusive). The empty ranges
+         * are skipped.
+         *
+         * @param elements the elements ordered by their sets.
+         * @param bounds   the set bounds.
+         */
+        RefinablePartition(int[] elements, int[] bounds) {
+            int n = elements.length;
+
+            this.elements     = elements;
+            this.locations    = new int[n];
+            this.setOf        = new int[n];
+            this.starts       = new int[n];
+            this.ends         = new int[n];
+            this.markedCounts = new int[n];
+            this.touchedSets  = new int[n];
+
+            for (int k = 0; k + 1 < bounds.length; ++k) {
+                if (bounds[k] == bounds[k + 1]) {
+                    continue;
+                }
+
+                starts[setCount] = bounds[k];
+                ends[setCount] = bounds[k + 1];
+
+                for (int i = bounds[k]; i < bounds[k + 1]; ++i) {
+                    locations[elements[i]] = i;
+                    setOf[elements[i]] = setCount;
+                }
+
+                ++setCount;
+            }
+        }
+
+        private static int[] identity(int n) {
+            int[] elements = new int[n];
+
+            for (int i = 0; i < n; ++i) {
+                elements[i] = i;
+            }
+
+            return elements;
+        }
+
+        void mark(int element) {
+            int set = setOf[element];
+            int location = locations[element];
+            int mid = starts[set] + markedCounts[set];
+
+            if (location < mid) {
+                // Already marked.
+                return;
+            }
+
+            int other = elements[mid];
+
+            elements[location] = other;
+            locations[other] = location;
+            elements[mid] = element;
+            locations[element] = mid;
+
+            if (markedCounts[set]++ == 0) {
+                touchedSets[touchedCount++] = set;
+            }
+        }
+
+        /**
+         * Splits each touched set into its marked and unmarked elements. The
+         * smaller part becomes a new set.
+         */
+        void split() {
+            while (touchedCount > 0) {
+                int set = touchedSets[--touchedCount];
+                int mid = starts[set] + markedCounts[set];
+
+                markedCounts[set] = 0;
+
+                if (mid == ends[set]) {
+                    // All the elements were marked.
+                    continue;
+                }
+
+                int newSet = setCount++;
+
+                if (mid - starts[set] <= ends[set] - mid) {
+                    starts[newSet] = starts[set];
+                    ends[newSet] = mid;
+                    starts[set] = mid;
+                } else {
+                    starts[newSet] = mid;
+                    ends[newSet] = ends[set];
+                    ends[set] = mid;
+                }
+
+                for (int i = starts[newSet]; i < ends[newSet]; ++i) {
+                    setOf[elements[i]] = newSet;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package io.github.coderodde.regex.benchmark;
+
+import io.github.coderodde.regex.BitParallelNondeterministicFiniteAutomaton;
+import io.github.coderodde.regex.DeterministicFiniteAutomaton;
+import io.github.coderodde.regex.LazyDeterministicFiniteAutomaton;
+import io.github.coderodde.regex.NondeterministicFiniteAutomaton;
+import io.github.coderodde.regex.RegexToolkit;
+import io.github.coderodde.regex.RegularExpressionMatcher;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class implements the benchmark measuring the matching throughput of a
+ * single compiled pattern shared by a growing number of threads. Usage:
+ * {@code ConcurrentThroughputBenchmark [MAXIMUM_THREADS]}, where the maximum
+ * number of threads defaults to the number of available processors.
+ */
+public final class ConcurrentThroughputBenchmark {
+
+    private static final int MAXIMUM_REGEX_TREE_DEPTH = 5;
+    private static final int NUMBER_OF_TEXTS = 10_000;
+    private static final int ROUNDS_PER_THREAD = 20;
+
+    public static void main(String[] args) throws Exception {
+        int maximumThreads =
+                args.length > 0 ?
+                Integer.parseInt(args[0]) :
+                Runtime.getRuntime().availableProcessors();
+
+        long seed = System.currentTimeMillis();
+        Random random = new Random(seed);
+
+        System.out.println("Seed = " + seed);
+
+        RandomBinaryRegexBuilder builder = new RandomBinaryRegexBuilder(random);
+        RegexTreeNode root =
+                builder.buildRandomBinaryRegularExpression(
+                        MAXIMUM_REGEX_TREE_DEPTH);
+
+        String regex = builder.buildRegexString(root);
+        List<String> texts = new ArrayList<>(NUMBER_OF_TEXTS);
+
+        for (int i = 0; i < NUMBER_OF_TEXTS; i++) {
+            texts.add(builder.buildRandomAcceptingText(root));
+        }
+
+        System.out.println("The regex is: " + regex);
+
+        for (Map.Entry<String, RegularExpressionMatcher> entry
+                : compileMatchers(regex).entrySet()) {
+
+            System.out.println(entry.getKey() + ":");
+
+            double singleThreadThroughput = 0.0;
+
+            for (int threads = 1;
+                     threads <= maximumThreads;
+                     threads = nextThreadCount(threads, maximumThreads)) {
+
+                double throughput =
+                        measureThroughput(entry.getValue(), texts, threads);
+
+                if (threads == 1) {
+                    singleThreadThroughput = throughput;
+                }
+
+                System.out.println(
+                        String.format(
+                                "  %2d thread(s): %.0f matches per second "
+                                        + "(speedup %.2f).",
+                                threads,
+                                throughput,
+                                throughput / singleThreadThroughput)
+                                .replace(',', '.'));
+            }
+        }
+    }
+
+    private static Map<String, RegularExpressionMatcher>
+        compileMatchers(String regex) {
+
+        Map<String, RegularExpressionMatcher> matchers = new LinkedHashMap<>();
+
+        matchers.put("Frozen DFA",
+                     RegexToolkit.compile(
+                             regex,
+                             DeterministicFiniteAutomaton
+                                     .MinimizationAlgorithm
+                                     .HOPCROFT));
+
+        matchers.put("Lazy DFA",
+                     LazyDeterministicFiniteAutomaton.compile(regex));
+        matchers.put("NFA", NondeterministicFiniteAutomaton.compile(regex));
+
+        try {
+            matchers.put("Bit-parallel NFA",
+                         BitParallelNondeterministicFiniteAutomaton
+                                 .compile(regex));
+        } catch (IllegalArgumentException ex) {
+            System.out.println("Bit-parallel NFA skipped: " + ex.getMessage());
+        }
+
+        return matchers;
+    }
+
+    private static int nextThreadCount(int threads, int maximumThreads) {
+        return threads == maximumThreads ?
+               maximumThreads + 1 :
+               Math.min(2 * threads, maximumThreads);
+    }
+
+    /**
+     * Runs the input matcher on {@code threads} threads at once, each matching
+     * all the texts {@link #ROUNDS_PER_THREAD} times.
+     *
+     * @return the total number of matches per second.
+     */
+    private static double measureThroughput(RegularExpressionMatcher matcher,
+                                            List<String> texts,
+                                            int threads) throws Exception {
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            // Warm up:
+            runOnThreads(executor, matcher, texts, threads);
+
+            long startTime = System.nanoTime();
+            runOnThreads(executor, matcher, texts, threads);
+            long duration = System.nanoTime() - startTime;
+
+            long numberOfMatches =
+                    (long) threads * ROUNDS_PER_THREAD * texts.size();
+
+            return numberOfMatches / (duration / 1_000_000_000.0);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static void runOnThreads(ExecutorService executor,
+                                     RegularExpressionMatcher matcher,
+                                     List<String> texts,
+                                     int threads) throws Exception {
+
+        CountDownLatch startLatch = new CountDownLatch(1);
+        List<Future<Integer>> futures = new ArrayList<>(threads);
+
+        for (int i = 0; i < threads; i++) {
+            futures.add(executor.submit(() -> {
+                startLatch.await();
+                int acceptedTexts = 0;
+
+                for (int round = 0; round < ROUNDS_PER_THREAD; round++) {
+                    for (String text : texts) {
+                        if (matcher.matches(text)) {
+                            acceptedTexts++;
+                        }
+                    }
+                }
+
+                return acceptedTexts;
+            }));
+        }
+
+        startLatch.countDown();
+
+        for (Future<Integer> future : futures) {
+            if (future.get() != ROUNDS_PER_THREAD * texts.size()) {
+                throw new IllegalStateException(
+                        "The matcher rejected an accepted text.");
+            }
+        }
+    }
+}
@@ -0,0 +1,382 @@
+package io.github.coderodde.regex.benchmark;
+
+import io.github.coderodde.regex.DeterminizationBudget;
+import io.github.coderodde.regex.DeterminizationBudgetExceededException;
+import io.github.coderodde.regex.DeterministicFiniteAutomaton;
+import io.github.coderodde.regex.DeterministicFiniteAutomaton.MinimizationAlgorithm;
+import io.github.coderodde.regex.NondeterministicFiniteAutomaton;
+import io.github.coderodde.regex.NondeterministicFiniteAutomatonCompiler;
+import io.github.coderodde.regex.RegexToolkit;
+import io.github.coderodde.regex.RegularExpressionMatcher;
+import io.github.coderodde.regex.parser.ast.RegexParser;
+import io.github.coderodde.regex.parser.ast.RegexTokenizationResult;
+import io.github.coderodde.regex.parser.ast.tree.RegexNode;
+import io.github.coderodde.regex.tokenizer.RegexTokenizer;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * This class implements the benchmark tracking the growth of the automata
+ * compiled from the families of known-hard patterns. For each family and
+ * each size {@code n}, it records the number of NFA states, the number of DFA
+ * states before and after the minimization, the time of each compilation
+ * phase, the peak heap usage of the compilation and the throughput of
+ * finding all the matches in a random text. Usage:
+ * {@code PathologicalPatternBenchmark [csv|json]}, where the format of the
+ * report printed to the standard output defaults to CSV. The progress is
+ * printed to the standard error.
+ *
+ * <p>Each phase is timed {@value #REPETITIONS} times and the fastest run is
+ * reported. Once the subset construction of a family exceeds the budget, the
+ * row of that size is reported with the DFA columns set to -1, and the larger
+ * sizes of the family are skipped.
+ */
+public final class PathologicalPatternBenchmark {
+
+    private static final int REPETITIONS = 5;
+    private static final int TEXT_LENGTH = 1 << 20;
+    private static final long SEED = 13L;
+
+    private static final DeterminizationBudget BUDGET =
+        new DeterminizationBudget(1 << 16,
+                                  Long.MAX_VALUE,
+                                  Duration.ofSeconds(10L),
+                                  DeterminizationBudget.Policy.FAIL);
+
+    private static final String[] COLUMNS = {
+        "family",
+        "n",
+        "regexLength",
+        "nfaStates",
+        "dfaStates",
+        "minimalDfaStates",
+        "tokenizeMillis",
+        "parseMillis",
+        "nfaMillis",
+        "determinizeMillis",
+        "minimizeMillis",
+        "peakHeapBytes",
+        "matchMegacharsPerSecond",
+    };
+
+    /**
+     * This enumeration lists the hard pattern families. The alphabet of a
+     * family is the set of characters its random texts are drawn from.
+     */
+    private enum Family {
+
+        /**
+         * {@code (a|b)*a(a|b)...(a|b)} with {@code n} trailing copies of
+         * {@code (a|b)}. The minimal DFA has {@code 2^(n + 1)} states.
+         */
+        NTH_FROM_END("ab", 1, 2, 4, 6, 8, 10, 12, 14, 16) {
+
+            @Override
+            String buildRegex(int n) {
+                return "(a|b)*a" + "(a|b)".repeat(n);
+            }
+        },
+
+        /**
+         * {@code .*a..} with {@code n} trailing dots: the exponential family
+         * over the full alphabet.
+         */
+        DOTS_FROM_END("abc", 1, 2, 4, 6, 8, 10, 12, 14, 16) {
+
+            @Override
+            String buildRegex(int n) {
+                return ".*a" + ".".repeat(n);
+            }
+        },
+
+        /**
+         * {@code ((a*)*b)*} with {@code n} nested stars around {@code a},
+         * whose Thompson NFA is full of epsilon cycles.
+         */
+        NESTED_STARS("ab", 1, 2, 4, 8, 16, 32, 64) {
+
+            @Override
+            String buildRegex(int n) {
+                String regex = "a";
+
+                for (int i = 0; i < n; i++) {
+                    regex = "(" + regex + "*)";
+                }
+
+                return "(" + regex + "b)*";
+            }
+        },
+
+        /**
+         * The alternation of {@code n} distinct words.
+         */
+        ALTERNATION("abcdefghijklmnopqrstuvwxyz0123456789",
+                    16, 64, 256, 1024, 4096) {
+
+            @Override
+            String buildRegex(int n) {
+                StringBuilder sb = new StringBuilder();
+
+                for (int i = 0; i < n; i++) {
+                    if (i > 0) {
+                        sb.append('|');
+                    }
+
+                    sb.append(Integer.toString(i * 7919 + 1000, 36));
+                }
+
+                return sb.toString();
+            }
+        },
+
+        /**
+         * {@code [^x]*a[^x]*} excluding the {@code n} letters {@code a, c, e,
+         * ...}, spelled out as the ranges of the complement, since the
+         * tokenizer does not support negated classes yet. Each excluded
+         * letter adds alphabet classes to the DFA.
+         */
+        WIDE_NEGATED_CLASS("abcdefghijklmnopqrstuvwxyz",
+                           1, 2, 4, 8, 12) {
+
+            @Override
+            String buildRegex(int n) {
+                StringBuilder sb = new StringBuilder("[\u0001-`");
+
+                for (int i = 0; i < n - 1; i++) {
+                    sb.append((char)('b' + 2 * i));
+                }
+
+                sb.append((char)('a' + 2 * n - 1))
+                  .append("-\uD7FF\uE000-\uFFFF]");
+
+                String negatedClass = sb.toString();
+                return negatedClass + "*a" + negatedClass + "*";
+            }
+        };
+
+        private final String alphabet;
+        private final int[] sizes;
+
+        private Family(String alphabet, int... sizes) {
+            this.alphabet = alphabet;
+            this.sizes = sizes;
+        }
+
+        abstract String buildRegex(int n);
+    }
+
+    public static void main(String[] args) {
+        String format = args.length > 0 ? args[0] : "csv";
+
+        if (!format.equals("csv") && !format.equals("json")) {
+            System.err.println(
+                "Usage: PathologicalPatternBenchmark [csv|json]");
+
+            System.exit(1);
+        }
+
+        List<String[]> rows = new ArrayList<>();
+
+        for (Family family : Family.values()) {
+            for (int n : family.sizes) {
+                System.err.println("Measuring " + family + ", n = " + n);
+
+                String[] row = measure(family, n);
+                rows.add(row);
+
+                if (row[4].equals("-1")) {
+                    break;
+                }
+            }
+        }
+
+        System.out.print(format.equals("csv") ? toCsv(rows) : toJson(rows));
+    }
+
+    private static String[] measure(Family family, int n) {
+        String regex = family.buildRegex(n);
+        long[] durations = new long[5];
+
+        RegexTokenizationResult tokenization = null;
+        RegexNode syntaxTree = null;
+        NondeterministicFiniteAutomaton nfa = null;
+        DeterministicFiniteAutomaton dfa = null;
+        DeterministicFiniteAutomaton minimalDfa = null;
+
+        Arrays.fill(durations, Long.MAX_VALUE);
+
+        for (int repetition = 0; repetition < REPETITIONS; repetition++) {
+            long startTime = System.nanoTime();
+            tokenization = new RegexTokenizer().tokenize(regex);
+            durations[0] = Math.min(durations[0], System.nanoTime() - startTime);
+
+            startTime = System.nanoTime();
+            syntaxTree = new RegexParser(tokenization.tokens()).parse();
+            durations[1] = Math.min(durations[1], System.nanoTime() - startTime);
+
+            startTime = System.nanoTime();
+            nfa = new NondeterministicFiniteAutomatonCompiler(syntaxTree)
+                    .compile(tokenization);
+            durations[2] = Math.min(durations[2], System.nanoTime() - startTime);
+
+            try {
+                startTime = System.nanoTime();
+                dfa = nfa.convertToDeterministicFiniteAutomaton(BUDGET);
+                durations[3] =
+                        Math.min(durations[3], System.nanoTime() - startTime);
+            } catch (DeterminizationBudgetExceededException ex) {
+                return new String[]{
+                    family.name(),
+                    Integer.toString(n),
+                    Integer.toString(regex.length()),
+                    Integer.toString(nfa.getNumberOfStates()),
+                    "-1",
+                    "-1",
+                    formatMillis(durations[0]),
+                    formatMillis(durations[1]),
+                    formatMillis(durations[2]),
+                    "-1",
+                    "-1",
+                    "-1",
+                    "-1",
+                };
+            }
+
+            startTime = System.nanoTime();
+            minimalDfa = dfa.minimize(MinimizationAlgorithm.AUTO);
+            durations[4] = Math.min(durations[4], System.nanoTime() - startTime);
+        }
+
+        long peakHeapBytes = measurePeakHeapBytes(regex);
+        RegularExpressionMatcher matcher =
+                RegexToolkit.compile(regex, MinimizationAlgorithm.AUTO);
+
+        return new String[]{
+            family.name(),
+            Integer.toString(n),
+            Integer.toString(regex.length()),
+            Integer.toString(nfa.getNumberOfStates()),
+            Integer.toString(dfa.getNumberOfStates()),
+            Integer.toString(minimalDfa.getNumberOfStates()),
+            formatMillis(durations[0]),
+            formatMillis(durations[1]),
+            formatMillis(durations[2]),
+            formatMillis(durations[3]),
+            formatMillis(durations[4]),
+            Long.toString(peakHeapBytes),
+            String.format("%.3f", measureThroughput(matcher, family))
+                  .replace(',', '.'),
+        };
+    }
+
+    /**
+     * Measures the peak heap usage of compiling the input regex with
+     * {@link RegexToolkit}. The peak usages of the heap memory pools are
+     * reset after a garbage collection, so the result includes the live data
+     * of the benchmark itself, which is the same for all the rows.
+     */
+    private static long measurePeakHeapBytes(String regex) {
+        List<MemoryPoolMXBean> heapPools = new ArrayList<>();
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP && pool.isValid()) {
+                heapPools.add(pool);
+            }
+        }
+
+        System.gc();
+
+        for (MemoryPoolMXBean pool : heapPools) {
+            pool.resetPeakUsage();
+        }
+
+        RegexToolkit.compile(regex, MinimizationAlgorithm.AUTO);
+
+        long peakHeapBytes = 0L;
+
+        for (MemoryPoolMXBean pool : heapPools) {
+            peakHeapBytes += pool.getPeakUsage().getUsed();
+        }
+
+        return peakHeapBytes;
+    }
+
+    /**
+     * Measures the number of millions of characters per second scanned while
+     * finding all the matches in a random text over the alphabet of the
+     * family.
+     */
+    private static double measureThroughput(RegularExpressionMatcher matcher,
+                                            Family family) {
+        Random random = new Random(SEED);
+        StringBuilder sb = new StringBuilder(TEXT_LENGTH);
+
+        for (int i = 0; i < TEXT_LENGTH; i++) {
+            sb.append(
+                family.alphabet.charAt(
+                    random.nextInt(family.alphabet.length())));
+        }
+
+        String text = sb.toString();
+        long[] matchCount = new long[1];
+        long duration = Long.MAX_VALUE;
+
+        for (int repetition = 0; repetition < REPETITIONS; repetition++) {
+            long startTime = System.nanoTime();
+            matcher.forEachMatch(text, (start, end) -> matchCount[0]++);
+            duration = Math.min(duration, System.nanoTime() - startTime);
+        }
+
+        return TEXT_LENGTH / (duration / 1_000.0);
+    }
+
+    private static String formatMillis(long nanoseconds) {
+        return String.format("%.3f", nanoseconds / 1_000_000.0)
+                     .replace(',', '.');
+    }
+
+    private static String toCsv(List<String[]> rows) {
+        StringBuilder sb = new StringBuilder(String.join(",", COLUMNS));
+        sb.append('\n');
+
+        for (String[] row : rows) {
+            sb.append(String.join(",", row)).append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    private static String toJson(List<String[]> rows) {
+        StringBuilder sb = new StringBuilder("[\n");
+
+        for (int i = 0; i < rows.size(); i++) {
+            String[] row = rows.get(i);
+            sb.append("  {");
+
+            for (int column = 0; column < COLUMNS.length; column++) {
+                if (column > 0) {
+                    sb.append(", ");
+                }
+
+                sb.append('"').append(COLUMNS[column]).append("\": ");
+
+                // Only the family name is a string:
+                if (column == 0) {
+                    sb.append('"').append(row[column]).append('"');
+                } else {
+                    sb.append(row[column]);
+                }
+            }
+
+            sb.append(i < rows.size() - 1 ? "},\n" : "}\n");
+        }
+
+        return sb.append("]\n").toString();
+    }
+}
@@ -387,46 +387,3 @@ final class RandomBinaryRegexBuilder {
         return random.nextBoolean() ? "1" : "0";
     }
 }
-
-class RegexTreeNode {
-    
-    private RegexToken regexToken;
-    private RegexTreeNode leftRegexTreeNode;
-    private RegexTreeNode rightRegexTreeNode;
-    
-    RegexTreeNode(RegexToken regexToken) {
-        this.regexToken = regexToken;
-    }
-    
-    RegexTreeNode() {
-        this(null);
-    }
-    
-    RegexToken getRegexToken() {
-        return regexToken;
-    }
-    
-    RegexTreeNode getLeftRegexTreeNode() {
-        return leftRegexTreeNode;
-    }
-    
-    RegexTreeNode getRightRegexTreeNode() {
-        return rightRegexTreeNode;
-    }
-    
-    void setRegexToken(RegexToken regexToken) {
-        this.regexToken = regexToken;
-    }
-    
-    void setLeftRegexTreeNode(RegexTreeNode regexTreeNode) {
-        this.leftRegexTreeNode = regexTreeNode;
-    }
-    
-    void setRightRegexTreeNode(RegexTreeNode regexTreeNode) {
-        this.rightRegexTreeNode = regexTreeNode;
-    }
-    
-    boolean isLeaf() {
-        return leftRegexTreeNode == null && rightRegexTreeNode == null;
-    }
-}
\ No newline at end of file
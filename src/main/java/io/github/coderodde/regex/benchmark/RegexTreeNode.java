@@ -0,0 +1,50 @@
+package io.github.coderodde.regex.benchmark;
+
+import io.github.coderodde.regex.parser.ast.tokens.RegexToken;
+
+/**
+ * This class implements the nodes of the random regex trees built by
+ * {@link RandomBinaryRegexBuilder}.
+ */
+final class RegexTreeNode {
+    
+    private RegexToken regexToken;
+    private RegexTreeNode leftRegexTreeNode;
+    private RegexTreeNode rightRegexTreeNode;
+    
+    RegexTreeNode(RegexToken regexToken) {
+        this.regexToken = regexToken;
+    }
+    
+    RegexTreeNode() {
+        this(null);
+    }
+    
+    RegexToken getRegexToken() {
+        return regexToken;
+    }
+    
+    RegexTreeNode getLeftRegexTreeNode() {
+        return leftRegexTreeNode;
+    }
+    
+    RegexTreeNode getRightRegexTreeNode() {
+        return rightRegexTreeNode;
+    }
+    
+    void setRegexToken(RegexToken regexToken) {
+        this.regexToken = regexToken;
+    }
+    
+    void setLeftRegexTreeNode(RegexTreeNode regexTreeNode) {
+        this.leftRegexTreeNode = regexTreeNode;
+    }
+    
+    void setRightRegexTreeNode(RegexTreeNode regexTreeNode) {
+        this.rightRegexTreeNode = regexTreeNode;
+    }
+    
+    boolean isLeaf() {
+        return leftRegexTreeNode == null && rightRegexTreeNode == null;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,101 @@
+package io.github.coderodde.regex;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class AlphabetPartitionTest {
+
+    @Test
+    public void emptyPartitionHasSingleClass() {
+        AlphabetPartition partition = AlphabetPartition.of(List.of());
+
+        assertEquals(1, partition.getClassCount());
+        assertEquals(0, partition.getClassId(0));
+        assertEquals(0, partition.getClassId('a'));
+        assertEquals(0, partition.getClassId(Character.MAX_CODE_POINT));
+    }
+
+    @Test
+    public void overlappingRanges() {
+        AlphabetPartition partition =
+            AlphabetPartition.of(List.of(new CodePointRange('a', 'c'),
+                                         new CodePointRange('b', 'd')));
+
+        assertEquals(4, partition.getClassCount());
+
+        int outside = partition.getClassId('0');
+
+        assertEquals(outside, partition.getClassId('e'));
+        assertEquals(outside, partition.getClassId(0x1F600));
+
+        assertNotEquals(outside, partition.getClassId('a'));
+        assertNotEquals(partition.getClassId('a'), partition.getClassId('b'));
+        assertEquals(partition.getClassId('b'), partition.getClassId('c'));
+        assertNotEquals(partition.getClassId('c'), partition.getClassId('d'));
+
+        assertEquals(2,
+                     partition.getClassIds(new CodePointRange('a', 'c'))
+                              .length);
+
+        assertEquals(2,
+                     partition.getClassIds(new CodePointRange('b', 'd'))
+                              .length);
+    }
+
+    @Test
+    public void nonContiguousCodePointsShareClass() {
+        // 'l' and 'n' are never told apart:
+        AlphabetPartition partition =
+            AlphabetPartition.of(List.of(new CodePointRange('a', 'z'),
+                                         new CodePointRange('m')));
+
+        assertEquals(3, partition.getClassCount());
+        assertEquals(partition.getClassId('a'), partition.getClassId('z'));
+        assertEquals(partition.getClassId('l'), partition.getClassId('n'));
+        assertNotEquals(partition.getClassId('l'), partition.getClassId('m'));
+
+        int classId = partition.getClassId('a');
+
+        assertEquals('a', partition.getRepresentative(classId));
+        assertEquals(Arrays.asList(new CodePointRange('a', 'l'),
+                                   new CodePointRange('n', 'z')),
+                     partition.getRanges(classId));
+
+        assertEquals(2,
+                     partition.getClassIds(new CodePointRange('a', 'z'))
+                              .length);
+    }
+
+    @Test
+    public void lookupAboveLatin1() {
+        AlphabetPartition partition =
+            AlphabetPartition.of(List.of(new CodePointRange(0xF0, 0x110),
+                                         new CodePointRange(0x400, 0x4FF),
+                                         new CodePointRange(0x1F600,
+                                                            0x1F64F)));
+
+        int latin = partition.getClassId(0xF5);
+
+        assertEquals(latin, partition.getClassId(0xFF));
+        assertEquals(latin, partition.getClassId(0x100));
+        assertEquals(latin, partition.getClassId(0x110));
+
+        int outside = partition.getClassId(0);
+
+        assertEquals(outside, partition.getClassId(0x111));
+        assertEquals(outside, partition.getClassId(0x3FF));
+        assertEquals(outside, partition.getClassId(0x500));
+        assertEquals(outside, partition.getClassId(0x1F650));
+
+        assertEquals(partition.getClassId(0x400), partition.getClassId(0x4FF));
+        assertEquals(partition.getClassId(0x1F600),
+                     partition.getClassId(0x1F64F));
+
+        assertNotEquals(partition.getClassId(0x400),
+                        partition.getClassId(0x1F600));
+
+        assertEquals(4, partition.getClassCount());
+    }
+}
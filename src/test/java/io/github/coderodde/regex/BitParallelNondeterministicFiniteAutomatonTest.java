@@ -0,0 +1,123 @@
+package io.github.coderodde.regex;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BitParallelNondeterministicFiniteAutomatonTest {
+
+    @Test
+    public void matchesPlainString() {
+        BitParallelNondeterministicFiniteAutomaton matcher =
+            BitParallelNondeterministicFiniteAutomaton.compile("abc");
+
+        assertEquals(3, matcher.getNumberOfPositions());
+
+        assertTrue(matcher.matches("abc"));
+        assertFalse(matcher.matches("ab"));
+        assertFalse(matcher.matches("abcc"));
+        assertFalse(matcher.matches(""));
+
+        assertTrue(matcher.find("xxabcxx"));
+        assertFalse(matcher.find("xxabxcx"));
+        assertEquals(new MatchPosition(2, 5), matcher.findMatch("ababcabc"));
+    }
+
+    @Test
+    public void matchesNullableRegex() {
+        BitParallelNondeterministicFiniteAutomaton matcher =
+            BitParallelNondeterministicFiniteAutomaton.compile("(ab)*");
+
+        assertTrue(matcher.matches(""));
+        assertTrue(matcher.matches("abab"));
+        assertFalse(matcher.matches("aba"));
+
+        assertTrue(matcher.find("xyz"));
+        assertEquals(new MatchPosition(0, 0), matcher.findMatch("xab"));
+        assertEquals(new MatchPosition(1, 5), matcher.findMatch("xabab", 1));
+    }
+
+    @Test
+    public void findWithAnchors() {
+        BitParallelNondeterministicFiniteAutomaton matcher =
+            BitParallelNondeterministicFiniteAutomaton.compile("^a+b");
+
+        assertTrue(matcher.find("aabxx"));
+        assertFalse(matcher.find("xaab"));
+        assertNull(matcher.findMatch("aab", 1));
+
+        matcher = BitParallelNondeterministicFiniteAutomaton.compile("a+b$");
+
+        assertTrue(matcher.find("xaab"));
+        assertFalse(matcher.find("aabx"));
+        assertEquals(new MatchPosition(3, 5), matcher.findMatch("abxab"));
+    }
+
+    @Test
+    public void supportsSixtyFourPositions() {
+        String regex = "a".repeat(63) + "b";
+        BitParallelNondeterministicFiniteAutomaton matcher =
+            BitParallelNondeterministicFiniteAutomaton.compile(regex);
+
+        assertEquals(64, matcher.getNumberOfPositions());
+        assertTrue(matcher.matches(regex));
+        assertTrue(matcher.find("a" + regex));
+        assertFalse(matcher.find("a".repeat(100)));
+        assertEquals(new MatchPosition(1, 65), matcher.findMatch("a" + regex));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void throwsOnTooManyPositions() {
+        BitParallelNondeterministicFiniteAutomaton.compile("a".repeat(65));
+    }
+
+    @Test
+    public void agreesWithJavaRegex() {
+        Random random = new Random(29L);
+        String[] patterns = { "(a|b)*abb", "a?a?a?aaa", "(a|ab)(c|bcd)(d*)",
+                              "((ab)+|b)*c?", "[ab]*(.b|c)", "(a*|b*)*",
+                              "b[b-d]c|a.", "^a(b|a)*", "(b|cd)+$" };
+
+        for (String pattern : patterns) {
+            BitParallelNondeterministicFiniteAutomaton matcher =
+                BitParallelNondeterministicFiniteAutomaton.compile(pattern);
+
+            NondeterministicFiniteAutomaton nfa =
+                NondeterministicFiniteAutomaton.compile(pattern);
+
+            Pattern javaPattern = Pattern.compile(pattern);
+
+            for (int i = 0; i < 300; ++i) {
+                String text = randomText(random);
+                Matcher javaMatcher = javaPattern.matcher(text);
+
+                assertEquals(pattern + " on " + text,
+                             javaMatcher.matches(),
+                             matcher.matches(text));
+
+                assertEquals(pattern + " on " + text,
+                             javaMatcher.find(0),
+                             matcher.find(text));
+
+                for (int from = 0; from <= text.length(); ++from) {
+                    assertEquals(pattern + " on " + text + " from " + from,
+                                 nfa.findMatch(text, from),
+                                 matcher.findMatch(text, from));
+                }
+            }
+        }
+    }
+
+    private static String randomText(Random random) {
+        int length = random.nextInt(10);
+        StringBuilder sb = new StringBuilder(length);
+
+        for (int i = 0; i < length; ++i) {
+            sb.append((char)('a' + random.nextInt(4)));
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,203 @@
+package io.github.coderodde.regex;
+
+import static io.github.coderodde.regex.HopcroftMinimizerTest.computeBlocksNaively;
+import static io.github.coderodde.regex.HopcroftMinimizerTest.createRandomDfa;
+import io.github.coderodde.regex.DeterministicFiniteAutomaton.MinimizationAlgorithm;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class BrzozowskiMinimizerTest {
+
+    @Test
+    public void yieldsMinimalTrimDfaOnRandomDfas() {
+        Random random = new Random(5L);
+
+        for (int iteration = 0; iteration < 300; ++iteration) {
+            IndexedDeterministicFiniteAutomaton dfa =
+                createRandomDfa(random,
+                                1 + random.nextInt(20),
+                                1 + random.nextInt(3));
+
+            IndexedDeterministicFiniteAutomaton minimalDfa =
+                BrzozowskiMinimizer.minimize(dfa);
+
+            assertEquals(countMinimalTrimStates(dfa),
+                         minimalDfa.getNumberOfStates());
+
+            assertEquivalent(dfa, minimalDfa);
+        }
+    }
+
+    @Test(expected = DeterminizationBudgetExceededException.class)
+    public void exceedingDeadlineThrows() {
+        IndexedDeterministicFiniteAutomaton dfa =
+            NondeterministicFiniteAutomaton
+                .compile("(a|b)".repeat(16) + "a(a|b)*")
+                .convertToIndexedDeterministicFiniteAutomaton(
+                    DeterminizationBudget.UNLIMITED)
+                .minimize(MinimizationAlgorithm.HOPCROFT, null);
+
+        BrzozowskiMinimizer.minimize(
+            dfa,
+            new DeterminizationBudget(Integer.MAX_VALUE,
+                                      Long.MAX_VALUE,
+                                      Duration.ofMillis(1),
+                                      DeterminizationBudget.Policy.FAIL));
+    }
+
+    @Test
+    public void dropsDeadStates() {
+        DeterministicFiniteAutomaton dfa = new DeterministicFiniteAutomaton();
+        DeterministicFiniteAutomatonState a = dfa.createState();
+        DeterministicFiniteAutomatonState b = dfa.createState();
+        DeterministicFiniteAutomatonState dead = dfa.createState();
+
+        dfa.setInitialState(a);
+        dfa.addAcceptingState(b);
+        dfa.addTransition(a, 'a', b);
+        dfa.addTransition(a, 'b', dead);
+        dfa.addTransition(dead, new CodePointRange('a', 'b'), dead);
+
+        DeterministicFiniteAutomaton minimalDfa =
+            dfa.minimize(MinimizationAlgorithm.BRZOZOWSKI);
+
+        assertEquals(2, minimalDfa.getNumberOfStates());
+        assertTrue(minimalDfa.matches("a"));
+        assertFalse(minimalDfa.matches("b"));
+    }
+
+    @Test
+    public void handlesEmptyLanguage() {
+        DeterministicFiniteAutomaton dfa = new DeterministicFiniteAutomaton();
+        DeterministicFiniteAutomatonState a = dfa.createState();
+
+        dfa.setInitialState(a);
+        dfa.addTransition(a, 'a', a);
+
+        DeterministicFiniteAutomaton minimalDfa =
+            dfa.minimize(MinimizationAlgorithm.BRZOZOWSKI);
+
+        assertEquals(1, minimalDfa.getNumberOfStates());
+        assertFalse(minimalDfa.matches("a"));
+    }
+
+    @Test
+    public void minimizesKeywordAlternation() {
+        DeterministicFiniteAutomaton dfa =
+            NondeterministicFiniteAutomaton.compile("abc|abd|xbc|xbd|ab")
+                                           .convertToDeterministicFiniteAutomaton();
+
+        DeterministicFiniteAutomaton minimalDfa =
+            dfa.minimize(MinimizationAlgorithm.BRZOZOWSKI);
+
+        assertEquals(6, minimalDfa.getNumberOfStates());
+        assertTrue(minimalDfa.matches("xbd"));
+        assertFalse(minimalDfa.matches("xb"));
+    }
+
+    /**
+     * Counts the states of the minimal DFA having no dead states: the
+     * transitions to the states from which no accepting state is reachable
+     * are removed, after which the blocks of the reachable states are
+     * counted.
+     */
+    private static int countMinimalTrimStates(
+            IndexedDeterministicFiniteAutomaton dfa) {
+
+        int stateCount = dfa.getNumberOfStates();
+        int classCount = dfa.getClassCount();
+        boolean[] live = new boolean[stateCount];
+        boolean changed = true;
+
+        while (changed) {
+            changed = false;
+
+            for (int state = 0; state < stateCount; ++state) {
+                if (live[state]) {
+                    continue;
+                }
+
+                live[state] = dfa.isAcceptingState(state);
+
+                for (int classId = 0; classId < classCount; ++classId) {
+                    int target = dfa.getTransition(state, classId);
+                    live[state] |= target >= 0 && live[target];
+                }
+
+                changed |= live[state];
+            }
+        }
+
+        if (!live[0]) {
+            return 1;
+        }
+
+        int[] transitions = new int[stateCount * classCount];
+        boolean[] accepting = new boolean[stateCount];
+
+        for (int state = 0; state < stateCount; ++state) {
+            accepting[state] = dfa.isAcceptingState(state);
+
+            for (int classId = 0; classId < classCount; ++classId) {
+                int target = dfa.getTransition(state, classId);
+
+                transitions[state * classCount + classId] =
+                    target >= 0 && live[target] ? target : -1;
+            }
+        }
+
+        IndexedDeterministicFiniteAutomaton trimmedDfa =
+            new IndexedDeterministicFiniteAutomaton(dfa.getAlphabetPartition(),
+                                                    transitions,
+                                                    accepting,
+                                                    false,
+                                                    false);
+
+        return trimmedDfa.quotient(computeBlocksNaively(trimmedDfa))
+                         .getNumberOfStates();
+    }
+
+    /**
+     * Explores the pairs of states of the two DFAs reachable on the same
+     * strings, a missing transition leading to the rejecting state -1.
+     */
+    private static void assertEquivalent(
+            IndexedDeterministicFiniteAutomaton dfa1,
+            IndexedDeterministicFiniteAutomaton dfa2) {
+
+        Set<Long> visited = new HashSet<>();
+        Deque<int[]> queue = new ArrayDeque<>();
+
+        queue.add(new int[]{ 0, 0 });
+        visited.add(0L);
+
+        while (!queue.isEmpty()) {
+            int[] pair = queue.removeFirst();
+
+            assertEquals(Arrays.toString(pair),
+                         pair[0] >= 0 && dfa1.isAcceptingState(pair[0]),
+                         pair[1] >= 0 && dfa2.isAcceptingState(pair[1]));
+
+            for (int classId = 0; classId < dfa1.getClassCount(); ++classId) {
+                int target1 =
+                    pair[0] < 0 ? -1 : dfa1.getTransition(pair[0], classId);
+
+                int target2 =
+                    pair[1] < 0 ? -1 : dfa2.getTransition(pair[1], classId);
+
+                long key = ((long) target1 << 32) | (target2 & 0xFFFFFFFFL);
+
+                if (visited.add(key)) {
+                    queue.add(new int[]{ target1, target2 });
+                }
+            }
+        }
+    }
+}
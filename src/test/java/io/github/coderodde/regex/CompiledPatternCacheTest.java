@@ -0,0 +1,297 @@
+package io.github.coderodde.regex;
+
+import io.github.coderodde.regex.DeterministicFiniteAutomaton.MinimizationAlgorithm;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class CompiledPatternCacheTest {
+
+    @Test
+    public void servesRepeatedRequestsFromCache() {
+        CompiledPatternCache cache = new CompiledPatternCache(10);
+
+        RegularExpressionMatcher matcher =
+            cache.compile("(a|b)*abb", MinimizationAlgorithm.HOPCROFT);
+
+        assertSame(matcher,
+                   cache.compile("(a|b)*abb", MinimizationAlgorithm.HOPCROFT));
+
+        assertNotSame(matcher,
+                      cache.compile("(a|b)*abb", MinimizationAlgorithm.MOORE));
+
+        assertNotSame(matcher, cache.compile("(a|b)*abb", null));
+        assertTrue(matcher.matches("aababb"));
+
+        CompiledPatternCache.Statistics statistics = cache.getStatistics();
+
+        assertEquals(1L, statistics.hits());
+        assertEquals(3L, statistics.misses());
+        assertEquals(0L, statistics.evictions());
+        assertEquals(3, statistics.numberOfEntries());
+        assertTrue(statistics.numberOfBytes() > 0L);
+        assertEquals(0.25, statistics.hitRate(), 1e-9);
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsedEntry() {
+        CompiledPatternCache cache = new CompiledPatternCache(2);
+
+        RegularExpressionMatcher a = cache.compile("a", null);
+        cache.compile("b", null);
+        assertSame(a, cache.compile("a", null));
+        cache.compile("c", null);
+
+        assertEquals(1L, cache.getStatistics().evictions());
+        assertEquals(2, cache.getStatistics().numberOfEntries());
+
+        assertSame(a, cache.compile("a", null));
+        assertEquals(2L, cache.getStatistics().hits());
+
+        cache.compile("b", null);
+        assertEquals(4L, cache.getStatistics().misses());
+    }
+
+    @Test
+    public void evictsInLeastRecentlyUsedOrder() {
+        CompiledPatternCache cache = new CompiledPatternCache(3);
+
+        RegularExpressionMatcher a = cache.compile("a", null);
+        RegularExpressionMatcher b = cache.compile("b", null);
+        RegularExpressionMatcher c = cache.compile("c", null);
+
+        assertSame(b, cache.compile("b", null));
+        assertSame(a, cache.compile("a", null));
+
+        // Evicts c, then b:
+        cache.compile("d", null);
+        cache.compile("e", null);
+
+        assertEquals(2L, cache.getStatistics().evictions());
+        assertSame(a, cache.compile("a", null));
+        assertNotSame(c, cache.compile("c", null));
+        assertNotSame(b, cache.compile("b", null));
+        assertEquals(3L, cache.getStatistics().hits());
+    }
+
+    @Test
+    public void evictsByEstimatedSize() {
+        CompiledPatternCache cache = new CompiledPatternCache(100, 1L);
+
+        assertTrue(cache.compile("abc", null).matches("abc"));
+        assertTrue(cache.compile("abc", null).matches("abc"));
+
+        CompiledPatternCache.Statistics statistics = cache.getStatistics();
+
+        assertEquals(2L, statistics.misses());
+        assertEquals(2L, statistics.evictions());
+        assertEquals(0, statistics.numberOfEntries());
+        assertEquals(0L, statistics.numberOfBytes());
+    }
+
+    @Test
+    public void matchesBuildsNoSearchHelpers() {
+        CompiledPatternCache cache = new CompiledPatternCache(10);
+
+        FrozenDeterministicFiniteAutomaton dfa =
+            (FrozenDeterministicFiniteAutomaton)
+                cache.compile("(a|b)*abb", null);
+
+        FrozenDeterministicFiniteAutomaton uncached =
+            (FrozenDeterministicFiniteAutomaton)
+                RegexToolkit.compile("(a|b)*abb", null);
+
+        for (String text : new String[]{ "abb", "babb", "ab", "" }) {
+            dfa.matches(text);
+        }
+
+        assertEquals(uncached.getEstimatedNumberOfBytes(),
+                     dfa.getEstimatedNumberOfBytes());
+
+        assertEquals(uncached.getEstimatedNumberOfBytes(),
+                     cache.getStatistics().numberOfBytes());
+    }
+
+    @Test
+    public void accountsForSearchHelpers() {
+        CompiledPatternCache cache = new CompiledPatternCache(10);
+
+        FrozenDeterministicFiniteAutomaton dfa =
+            (FrozenDeterministicFiniteAutomaton)
+                cache.compile("(a|b)*abb", null);
+
+        long numberOfBytes = cache.getStatistics().numberOfBytes();
+
+        assertTrue(dfa.find("xabb"));
+        assertTrue(cache.getStatistics().numberOfBytes() > numberOfBytes);
+
+        assertEquals(new MatchPosition(0, 4), dfa.findMatch("babba"));
+        assertEquals(dfa.getEstimatedNumberOfBytes(),
+                     cache.getStatistics().numberOfBytes());
+    }
+
+    @Test
+    public void evictsEntryOutgrowingSizeLimit() {
+        long numberOfBytes =
+            ((FrozenDeterministicFiniteAutomaton)
+                RegexToolkit.compile("(a|b)*abb", null))
+                    .getEstimatedNumberOfBytes();
+
+        CompiledPatternCache cache =
+            new CompiledPatternCache(10, numberOfBytes);
+
+        RegularExpressionMatcher matcher = cache.compile("(a|b)*abb", null);
+
+        assertEquals(1, cache.getStatistics().numberOfEntries());
+
+        // Building the search helpers makes the entry exceed the limit:
+        assertEquals(new MatchPosition(0, 4), matcher.findMatch("babba"));
+        assertEquals(0, cache.getStatistics().numberOfEntries());
+        assertEquals(0L, cache.getStatistics().numberOfBytes());
+        assertEquals(1L, cache.getStatistics().evictions());
+
+        // The evicted matcher keeps working:
+        assertTrue(matcher.find("xabb"));
+    }
+
+    @Test
+    public void doesNotCacheFailures() {
+        CompiledPatternCache cache = new CompiledPatternCache(10);
+
+        for (int i = 0; i < 2; ++i) {
+            try {
+                cache.compile("(a", null);
+                fail("Compiling an unbalanced pattern should fail.");
+            } catch (RuntimeException ex) {
+                // Expected.
+            }
+        }
+
+        assertEquals(2L, cache.getStatistics().misses());
+        assertEquals(0, cache.getStatistics().numberOfEntries());
+    }
+
+    @Test
+    public void cachesFallbackMatchers() {
+        String regex = "(a|b)*a(a|b)(a|b)(a|b)(a|b)(a|b)";
+
+        CompiledPatternCache cache =
+            new CompiledPatternCache(10,
+                                     Long.MAX_VALUE,
+                                     createBudget(
+                                         DeterminizationBudget.Policy.NFA),
+                                     null);
+
+        RegularExpressionMatcher matcher = cache.compile(regex, null);
+
+        assertTrue(matcher instanceof NondeterministicFiniteAutomaton);
+        assertSame(matcher, cache.compile(regex, null));
+        assertTrue(matcher.matches("bbabbbbb"));
+        assertTrue(cache.getStatistics().numberOfBytes() > 0L);
+
+        cache = new CompiledPatternCache(10,
+                                         Long.MAX_VALUE,
+                                         createBudget(
+                                             DeterminizationBudget
+                                                 .Policy.LAZY_DFA),
+                                         ForkJoinPool.commonPool());
+
+        matcher = cache.compile(regex, MinimizationAlgorithm.MOORE);
+
+        assertTrue(matcher instanceof LazyDeterministicFiniteAutomaton);
+        assertSame(matcher, cache.compile(regex, MinimizationAlgorithm.MOORE));
+        assertFalse(matcher.matches("bbbbbbbb"));
+        assertTrue(cache.getStatistics().numberOfBytes() > 0L);
+    }
+
+    @Test
+    public void doesNotCacheBudgetFailures() {
+        CompiledPatternCache cache =
+            new CompiledPatternCache(10,
+                                     Long.MAX_VALUE,
+                                     createBudget(
+                                         DeterminizationBudget.Policy.FAIL),
+                                     null);
+
+        for (int i = 0; i < 2; ++i) {
+            try {
+                cache.compile("(a|b)*a(a|b)(a|b)(a|b)(a|b)", null);
+                fail("The budget should be exceeded.");
+            } catch (DeterminizationBudgetExceededException ex) {
+                // Expected.
+            }
+        }
+
+        assertEquals(2L, cache.getStatistics().misses());
+        assertEquals(0, cache.getStatistics().numberOfEntries());
+        assertTrue(cache.compile("ab", null).matches("ab"));
+    }
+
+    @Test
+    public void clearRemovesEntries() {
+        CompiledPatternCache cache = new CompiledPatternCache(10);
+
+        RegularExpressionMatcher matcher = cache.compile("x+", null);
+        cache.clear();
+
+        assertEquals(0, cache.getStatistics().numberOfEntries());
+        assertNotSame(matcher, cache.compile("x+", null));
+        assertEquals(2L, cache.getStatistics().misses());
+    }
+
+    @Test
+    public void coalescesConcurrentRequests() throws Exception {
+        CompiledPatternCache cache = new CompiledPatternCache(10);
+        String regex = "(a|b)*a" + "(a|b)".repeat(10);
+        int threads = 8;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<RegularExpressionMatcher>> futures = new ArrayList<>();
+
+            for (int i = 0; i < threads; ++i) {
+                futures.add(executor.submit(() -> {
+                    startLatch.await();
+                    return cache.compile(regex,
+                                         MinimizationAlgorithm.HOPCROFT);
+                }));
+            }
+
+            startLatch.countDown();
+
+            RegularExpressionMatcher matcher = futures.get(0).get();
+
+            for (Future<RegularExpressionMatcher> future : futures) {
+                assertSame(matcher, future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1L, cache.getStatistics().misses());
+        assertEquals(threads - 1, cache.getStatistics().hits());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsZeroEntries() {
+        new CompiledPatternCache(0);
+    }
+
+    private static DeterminizationBudget createBudget(
+            DeterminizationBudget.Policy policy) {
+
+        return new DeterminizationBudget(16,
+                                         Long.MAX_VALUE,
+                                         Duration.ofSeconds(10L),
+                                         policy);
+    }
+}
@@ -0,0 +1,157 @@
+package io.github.coderodde.regex;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ConcurrentMatchingTest {
+
+    private static final String PATTERN = "(a|b)*a(a|b)(a|b)c|b.b|[x-z]+";
+    private static final int NUMBER_OF_THREADS = 8;
+    private static final int NUMBER_OF_TEXTS = 400;
+    private static final int ROUNDS = 5;
+
+    private final List<String> texts = createTexts();
+
+    @Test
+    public void nfaIsThreadSafe() throws Exception {
+        stress(() -> NondeterministicFiniteAutomaton.compile(PATTERN));
+    }
+
+    @Test
+    public void dfaIsThreadSafe() throws Exception {
+        stress(() -> NondeterministicFiniteAutomaton
+                        .compile(PATTERN)
+                        .convertToDeterministicFiniteAutomaton());
+    }
+
+    @Test
+    public void frozenDfaIsThreadSafe() throws Exception {
+        stress(() -> RegexToolkit.compile(
+                        PATTERN,
+                        DeterministicFiniteAutomaton
+                            .MinimizationAlgorithm.HOPCROFT));
+    }
+
+    @Test
+    public void lazyDfaIsThreadSafe() throws Exception {
+        // The tiny cache makes the threads clear the shared caches all the time:
+        stress(() -> new LazyDeterministicFiniteAutomaton(
+                        NondeterministicFiniteAutomaton.compile(PATTERN),
+                        3));
+
+        stress(() -> LazyDeterministicFiniteAutomaton.compile(PATTERN));
+    }
+
+    @Test
+    public void bitParallelNfaIsThreadSafe() throws Exception {
+        stress(() -> BitParallelNondeterministicFiniteAutomaton
+                        .compile(PATTERN));
+    }
+
+    /**
+     * Runs a single matcher on many threads at once and compares all the
+     * results against the ones of a separate matcher used by one thread only.
+     */
+    private void stress(Supplier<RegularExpressionMatcher> matcherSupplier)
+            throws Exception {
+
+        List<String> expectedResults = new ArrayList<>();
+        RegularExpressionMatcher referenceMatcher = matcherSupplier.get();
+
+        for (String text : texts) {
+            expectedResults.add(describe(referenceMatcher, text));
+        }
+
+        RegularExpressionMatcher sharedMatcher = matcherSupplier.get();
+        ExecutorService executor =
+            Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<Integer>> futures = new ArrayList<>();
+
+            for (int t = 0; t < NUMBER_OF_THREADS; ++t) {
+                int threadIndex = t;
+
+                Callable<Integer> task = () -> {
+                    startLatch.await();
+                    int mismatches = 0;
+
+                    for (int round = 0; round < ROUNDS; ++round) {
+                        for (int i = 0; i < texts.size(); ++i) {
+                            // Let the threads visit the texts in
+                            // different orders:
+                            int index = (i * (2 * threadIndex + 1) + round)
+                                      % texts.size();
+
+                            String actual =
+                                describe(sharedMatcher, texts.get(index));
+
+                            if (!actual.equals(expectedResults.get(index))) {
+                                ++mismatches;
+                            }
+                        }
+                    }
+
+                    return mismatches;
+                };
+
+                futures.add(executor.submit(task));
+            }
+
+            startLatch.countDown();
+
+            for (Future<Integer> future : futures) {
+                assertEquals(Integer.valueOf(0), future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static String describe(RegularExpressionMatcher matcher,
+                                   String text) {
+        StringBuilder sb = new StringBuilder();
+
+        sb.append(matcher.matches(text))
+          .append(' ')
+          .append(matcher.find(text));
+
+        Iterator<MatchPosition> iterator = matcher.findAll(text);
+
+        while (iterator.hasNext()) {
+            sb.append(' ').append(iterator.next());
+        }
+
+        return sb.toString();
+    }
+
+    private static List<String> createTexts() {
+        Random random = new Random(13L);
+        List<String> texts = new ArrayList<>(NUMBER_OF_TEXTS);
+        String alphabet = "abcxz";
+
+        for (int i = 0; i < NUMBER_OF_TEXTS; ++i) {
+            StringBuilder sb = new StringBuilder();
+            int length = random.nextInt(40);
+
+            for (int j = 0; j < length; ++j) {
+                sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+            }
+
+            texts.add(sb.toString());
+        }
+
+        return texts;
+    }
+}
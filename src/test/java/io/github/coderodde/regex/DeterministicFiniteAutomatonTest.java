@@ -349,6 +349,75 @@ public class DeterministicFiniteAutomatonTest {
         assertFalse(dfa.find("xabcy"));
     }
     
+    @Test
+    public void findKeepsAnchorsAfterMinimization() {
+        DeterministicFiniteAutomaton dfa = getDfa("ab*$").minimize(HOPCROFT);
+        
+        assertTrue(dfa.find("xabb"));
+        assertFalse(dfa.find("xabbx"));
+        
+        dfa = getDfa("^ab*").minimize(MOORE);
+        
+        assertTrue(dfa.find("abbx"));
+        assertFalse(dfa.find("xabb"));
+    }
+    
+    @Test
+    public void findOnLongText() {
+        DeterministicFiniteAutomaton dfa = getDfa("a*b");
+        String text = "a".repeat(200_000);
+        
+        assertFalse(dfa.find(text));
+        assertTrue(dfa.find(text + "b"));
+        
+        dfa = getDfa("a*b$");
+        
+        assertTrue(dfa.find(text + "b"));
+        assertFalse(dfa.find(text + "ba"));
+    }
+    
+    @Test
+    public void findRestartsInsideFailedMatch() {
+        DeterministicFiniteAutomaton dfa = getDfa("aab");
+        
+        assertTrue(dfa.find("aaab"));
+        assertTrue(dfa.find("abaab"));
+        assertFalse(dfa.find("abab"));
+        
+        // The initial state is accepting, yet the match must end at the end:
+        dfa = getDfa("(ab)*$");
+        
+        assertTrue(dfa.find("xab"));
+        assertTrue(dfa.find("abx"));
+    }
+    
+    @Test
+    public void findMatch() {
+        DeterministicFiniteAutomaton dfa = getDfa("a(b|c)*");
+        
+        assertEquals(new MatchPosition(1, 4), dfa.findMatch("xabcx"));
+        assertEquals(new MatchPosition(5, 6), dfa.findMatch("xabcxa", 2));
+        assertNull(dfa.findMatch("xbc"));
+    }
+    
+    @Test
+    public void findMatchAfterModification() {
+        DeterministicFiniteAutomaton dfa = new DeterministicFiniteAutomaton();
+        DeterministicFiniteAutomatonState q0 = dfa.createState();
+        DeterministicFiniteAutomatonState q1 = dfa.createState();
+        
+        dfa.setInitialState(q0);
+        dfa.addTransition(q0, 'a', q1);
+        dfa.addAcceptingState(q1);
+        
+        assertEquals(new MatchPosition(2, 3), dfa.findMatch("xya"));
+        
+        // The cached frozen DFA must not survive a modification:
+        dfa.addTransition(q0, 'y', q1);
+        
+        assertEquals(new MatchPosition(1, 2), dfa.findMatch("xya"));
+    }
+    
     private static DeterministicFiniteAutomaton getDfa(String regex) {
         RegexTokenizationResult result = new RegexTokenizer().tokenize(regex);
         return new NondeterministicFiniteAutomatonCompiler(
@@ -0,0 +1,165 @@
+package io.github.coderodde.regex;
+
+import io.github.coderodde.regex.DeterminizationBudget.Policy;
+import java.time.Duration;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class DeterminizationBudgetTest {
+
+    /**
+     * The minimal DFA of this pattern has 2^21 states.
+     */
+    private static final String PATHOLOGICAL_PATTERN =
+        "(a|b)*a" + "(a|b)".repeat(20);
+
+    /**
+     * The minimal DFA of this pattern has 14 states, but its reversal, built
+     * by Brzozowski's algorithm, has 2^13 states.
+     */
+    private static final String REVERSAL_PATHOLOGICAL_PATTERN =
+        "(a|b)".repeat(12) + "a(a|b)*";
+
+    private static final String TEXT = "ab".repeat(30) + "a" + "b".repeat(20);
+
+    @Test
+    public void withinBudgetYieldsFrozenDfa() {
+        DeterminizationBudget budget =
+            new DeterminizationBudget(100, 10_000L, Duration.ofMinutes(1),
+                                      Policy.FAIL);
+
+        RegularExpressionMatcher matcher =
+            RegexToolkit.compile("(a|b)*abb", null, budget);
+
+        assertTrue(matcher instanceof FrozenDeterministicFiniteAutomaton);
+        assertTrue(matcher.matches("babb"));
+    }
+
+    @Test(expected = DeterminizationBudgetExceededException.class)
+    public void stateLimitThrows() {
+        DeterminizationBudget budget =
+            new DeterminizationBudget(1000, Long.MAX_VALUE,
+                                      Duration.ofMinutes(1), Policy.FAIL);
+
+        RegexToolkit.compile(PATHOLOGICAL_PATTERN, null, budget);
+    }
+
+    @Test(expected = DeterminizationBudgetExceededException.class)
+    public void workLimitThrows() {
+        DeterminizationBudget budget =
+            new DeterminizationBudget(Integer.MAX_VALUE, 10_000L,
+                                      Duration.ofMinutes(1), Policy.FAIL);
+
+        NondeterministicFiniteAutomaton.compile(PATHOLOGICAL_PATTERN)
+                                       .convertToDeterministicFiniteAutomaton(
+                                           budget);
+    }
+
+    @Test(expected = DeterminizationBudgetExceededException.class)
+    public void durationLimitThrows() {
+        DeterminizationBudget budget =
+            new DeterminizationBudget(Integer.MAX_VALUE, Long.MAX_VALUE,
+                                      Duration.ZERO, Policy.FAIL);
+
+        RegexToolkit.compile(PATHOLOGICAL_PATTERN, null, budget);
+    }
+
+    @Test
+    public void fallsBackToNfa() {
+        DeterminizationBudget budget =
+            new DeterminizationBudget(1000, Long.MAX_VALUE,
+                                      Duration.ofMinutes(1), Policy.NFA);
+
+        RegularExpressionMatcher matcher =
+            RegexToolkit.compile(PATHOLOGICAL_PATTERN, null, budget);
+
+        assertTrue(matcher instanceof NondeterministicFiniteAutomaton);
+        assertTrue(matcher.matches(TEXT));
+        assertFalse(matcher.matches(TEXT + "a"));
+    }
+
+    @Test
+    public void fallsBackToLazyDfa() {
+        DeterminizationBudget budget =
+            new DeterminizationBudget(1000, Long.MAX_VALUE,
+                                      Duration.ofMinutes(1), Policy.LAZY_DFA);
+
+        RegularExpressionMatcher matcher =
+            RegexToolkit.compile(PATHOLOGICAL_PATTERN,
+                                 DeterministicFiniteAutomaton
+                                     .MinimizationAlgorithm.HOPCROFT,
+                                 budget);
+
+        assertTrue(matcher instanceof LazyDeterministicFiniteAutomaton);
+        assertTrue(matcher.matches(TEXT));
+        assertTrue(matcher.find("x" + TEXT));
+        assertFalse(matcher.matches(TEXT + "a"));
+    }
+
+    @Test(expected = DeterminizationBudgetExceededException.class)
+    public void brzozowskiStateLimitThrows() {
+        DeterminizationBudget budget =
+            new DeterminizationBudget(1000, Long.MAX_VALUE,
+                                      Duration.ofMinutes(1), Policy.FAIL);
+
+        RegexToolkit.compile(REVERSAL_PATHOLOGICAL_PATTERN,
+                             DeterministicFiniteAutomaton
+                                 .MinimizationAlgorithm.BRZOZOWSKI,
+                             budget);
+    }
+
+    @Test(expected = DeterminizationBudgetExceededException.class)
+    public void brzozowskiWorkLimitThrows() {
+        DeterminizationBudget budget =
+            new DeterminizationBudget(Integer.MAX_VALUE, 10_000L,
+                                      Duration.ofMinutes(1), Policy.FAIL);
+
+        RegexToolkit.compile(REVERSAL_PATHOLOGICAL_PATTERN,
+                             DeterministicFiniteAutomaton
+                                 .MinimizationAlgorithm.BRZOZOWSKI,
+                             budget);
+    }
+
+    @Test
+    public void brzozowskiFallsBackToNfa() {
+        DeterminizationBudget budget =
+            new DeterminizationBudget(1000, Long.MAX_VALUE,
+                                      Duration.ofMinutes(1), Policy.NFA);
+
+        RegularExpressionMatcher matcher =
+            RegexToolkit.compile(REVERSAL_PATHOLOGICAL_PATTERN,
+                                 DeterministicFiniteAutomaton
+                                     .MinimizationAlgorithm.BRZOZOWSKI,
+                                 budget);
+
+        assertTrue(matcher instanceof NondeterministicFiniteAutomaton);
+        assertTrue(matcher.matches("b".repeat(12) + "ab"));
+        assertFalse(matcher.matches("b".repeat(13)));
+    }
+
+    @Test
+    public void hopcroftStaysWithinBrzozowskiBudget() {
+        DeterminizationBudget budget =
+            new DeterminizationBudget(1000, Long.MAX_VALUE,
+                                      Duration.ofMinutes(1), Policy.FAIL);
+
+        RegularExpressionMatcher matcher =
+            RegexToolkit.compile(REVERSAL_PATHOLOGICAL_PATTERN,
+                                 DeterministicFiniteAutomaton
+                                     .MinimizationAlgorithm.HOPCROFT,
+                                 budget);
+
+        assertTrue(matcher instanceof FrozenDeterministicFiniteAutomaton);
+        assertTrue(matcher.matches("b".repeat(12) + "ab"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNonPositiveStateLimit() {
+        new DeterminizationBudget(0, 1L, Duration.ZERO, Policy.FAIL);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNegativeDuration() {
+        new DeterminizationBudget(1, 1L, Duration.ofMillis(-1), Policy.FAIL);
+    }
+}
@@ -0,0 +1,378 @@
+package io.github.coderodde.regex;
+
+import static io.github.coderodde.regex.DeterministicFiniteAutomaton.MinimizationAlgorithm.MOORE;
+import java.time.Duration;
+import java.util.Random;
+import java.util.regex.Pattern;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class FrozenDeterministicFiniteAutomatonTest {
+
+    @Test
+    public void on10DFA() {
+        DeterministicFiniteAutomaton dfa = new DeterministicFiniteAutomaton();
+
+        DeterministicFiniteAutomatonState q0 = dfa.createState();
+        DeterministicFiniteAutomatonState q1 = dfa.createState();
+        DeterministicFiniteAutomatonState q2 = dfa.createState();
+
+        dfa.setInitialState(q0);
+        dfa.addAcceptingState(q2);
+
+        dfa.addTransition(q0, '1', q0);
+        dfa.addTransition(q0, '0', q1);
+        dfa.addTransition(q1, '0', q1);
+        dfa.addTransition(q1, '1', q2);
+        dfa.addTransition(q2, '0', q1);
+        dfa.addTransition(q2, '1', q0);
+
+        FrozenDeterministicFiniteAutomaton frozen = dfa.freeze();
+
+        assertEquals(3, frozen.getNumberOfStates());
+        assertEquals(1, frozen.getTableEntryWidth());
+
+        assertTrue(frozen.matches("1001101"));
+        assertTrue(frozen.matches("01"));
+
+        assertFalse(frozen.matches("a01"));
+        assertFalse(frozen.matches("00100"));
+        assertFalse(frozen.matches("0"));
+        assertFalse(frozen.matches(""));
+    }
+
+    @Test
+    public void characterClasses() {
+        FrozenDeterministicFiniteAutomaton frozen =
+            (FrozenDeterministicFiniteAutomaton)
+                RegexToolkit.compile("[a-f][c-x]*z", MOORE);
+
+        assertTrue(frozen.matches("az"));
+        assertTrue(frozen.matches("fcxz"));
+        assertTrue(frozen.matches("dddz"));
+
+        assertFalse(frozen.matches("gz"));
+        assertFalse(frozen.matches("abz"));
+        assertFalse(frozen.matches("a"));
+        assertFalse(frozen.matches("az😀"));
+    }
+
+    @Test
+    public void supplementaryCodePoints() {
+        DeterministicFiniteAutomaton dfa =
+            NondeterministicFiniteAutomaton.compile("a😀+b")
+                                           .convertToDeterministicFiniteAutomaton();
+
+        FrozenDeterministicFiniteAutomaton frozen = dfa.freeze();
+
+        assertTrue(frozen.matches("a😀b"));
+        assertTrue(frozen.matches("a😀😀b"));
+        assertFalse(frozen.matches("ab"));
+        assertFalse(frozen.matches("a😁b"));
+    }
+
+    @Test
+    public void tableWidthDependsOnStateCount() {
+        assertEquals(1, buildChain(100).freeze().getTableEntryWidth());
+        assertEquals(2, buildChain(200).freeze().getTableEntryWidth());
+        assertEquals(4, buildChain(40_000).freeze().getTableEntryWidth());
+
+        FrozenDeterministicFiniteAutomaton frozen = buildChain(40_000).freeze();
+
+        assertTrue(frozen.matches("a".repeat(39_999)));
+        assertFalse(frozen.matches("a".repeat(39_998)));
+        assertFalse(frozen.matches("a".repeat(40_000)));
+    }
+
+    @Test
+    public void find() {
+        FrozenDeterministicFiniteAutomaton frozen = getFrozen("abc");
+
+        assertTrue(frozen.find("abc"));
+        assertFalse(frozen.find("ab"));
+        assertTrue(frozen.find("xabcy"));
+
+        frozen = getFrozen("^abc$");
+
+        assertTrue(frozen.find("abc"));
+        assertFalse(frozen.find("xabc"));
+        assertFalse(frozen.find("abcy"));
+
+        frozen = getFrozen("^a*$");
+
+        assertTrue(frozen.find(""));
+        assertTrue(frozen.find("aa"));
+        assertFalse(frozen.find("ab"));
+
+        frozen = getFrozen("abc$");
+
+        assertTrue(frozen.find("xabc"));
+        assertFalse(frozen.find("abcy"));
+    }
+
+    @Test
+    public void findOnLongText() {
+        FrozenDeterministicFiniteAutomaton frozen = getFrozen("a*b");
+        String text = "a".repeat(200_000);
+
+        assertFalse(frozen.find(text));
+        assertTrue(frozen.find(text + "b"));
+
+        frozen = getFrozen("a*b$");
+
+        assertTrue(frozen.find(text + "b"));
+        assertFalse(frozen.find(text + "ba"));
+    }
+
+    @Test
+    public void findMatchIsLeftmostLongest() {
+        assertEquals(new MatchPosition(1, 5),
+                     getFrozen("abcd|bc").findMatch("xabcd"));
+
+        assertEquals(new MatchPosition(0, 2),
+                     getFrozen("ab|bcdef").findMatch("abcdef"));
+
+        assertEquals(new MatchPosition(2, 7),
+                     getFrozen("a(b|c)*").findMatch("xxabcbcxa"));
+
+        assertNull(getFrozen("abc").findMatch("abxabd"));
+    }
+
+    @Test
+    public void findMatchFromIndex() {
+        FrozenDeterministicFiniteAutomaton frozen = getFrozen("a*");
+
+        assertEquals(new MatchPosition(0, 0), frozen.findMatch("baa"));
+        assertEquals(new MatchPosition(1, 3), frozen.findMatch("baa", 1));
+        assertEquals(new MatchPosition(3, 3), frozen.findMatch("baa", 3));
+
+        frozen = getFrozen("ab");
+
+        assertEquals(new MatchPosition(3, 5), frozen.findMatch("abxab", 1));
+        assertNull(frozen.findMatch("abxab", 4));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void findMatchThrowsOnBadIndex() {
+        getFrozen("a").findMatch("aaa", 4);
+    }
+
+    @Test
+    public void findMatchWithAnchors() {
+        assertEquals(new MatchPosition(0, 2),
+                     getFrozen("^a+").findMatch("aab"));
+
+        assertNull(getFrozen("^a+").findMatch("aab", 1));
+        assertNull(getFrozen("^a+").findMatch("baa"));
+
+        assertEquals(new MatchPosition(1, 3),
+                     getFrozen("a+$").findMatch("baa"));
+
+        assertEquals(new MatchPosition(2, 3),
+                     getFrozen("a+$").findMatch("baa", 2));
+
+        assertNull(getFrozen("a+$").findMatch("aab"));
+
+        assertEquals(new MatchPosition(0, 3),
+                     getFrozen("^a+b$").findMatch("aab"));
+
+        assertNull(getFrozen("^a+b$").findMatch("aabb"));
+    }
+
+    @Test
+    public void findMatchOnSupplementaryCodePoints() {
+        assertEquals(new MatchPosition(2, 7),
+                     getFrozen("😀+b").findMatch("ab😀😀b"));
+    }
+
+    @Test
+    public void findMatchRoundsIndexInsideSurrogatePair() {
+        assertEquals(new MatchPosition(3, 4),
+                     getFrozen(".").findMatch("c😀b", 2));
+
+        assertEquals(new MatchPosition(3, 4),
+                     getFrozen("b$").findMatch("c😀b", 2));
+
+        assertNull(getFrozen("😀").findMatch("c😀b", 2));
+    }
+
+    @Test
+    public void findMatchDoesNotReadBeforeIndex() {
+        assertEquals(new MatchPosition(3, 4),
+                     getFrozen(".").findMatch("c😀b", 3));
+
+        assertEquals(new MatchPosition(3, 4),
+                     getFrozen(".*b").findMatch("c😀b", 3));
+
+        assertEquals(new MatchPosition(3, 4),
+                     getFrozen(".*b$").findMatch("c😀b", 3));
+
+        assertEquals(new MatchPosition(1, 4),
+                     getFrozen(".*b$").findMatch("c😀b", 1));
+    }
+
+    @Test
+    public void findMatchAgreesWithBruteForce() {
+        Random random = new Random(17L);
+
+        String[] regexes = {
+            "(ab|a)(bc|c)?",
+            "a(b|c)*d?",
+            "b*|ab",
+            "(a|b)*abb",
+            "c.b",
+        };
+
+        for (String regex : regexes) {
+            FrozenDeterministicFiniteAutomaton frozen = getFrozen(regex);
+            Pattern pattern = Pattern.compile(regex);
+
+            for (int i = 0; i < 500; ++i) {
+                String text = randomText(random, "abcd", 10);
+                int from = random.nextInt(text.length() + 1);
+
+                assertEquals(regex + " on " + text + " from " + from,
+                             findLeftmostLongest(pattern, text, from),
+                             frozen.findMatch(text, from));
+            }
+        }
+    }
+
+    @Test
+    public void simulatesWhenHelpersExceedBudget() {
+        Random random = new Random(19L);
+
+        DeterminizationBudget budget =
+            new DeterminizationBudget(1,
+                                      Long.MAX_VALUE,
+                                      Duration.ofSeconds(10L),
+                                      DeterminizationBudget.Policy.FAIL);
+
+        String[] regexes = {
+            "(ab|a)(bc|c)?",
+            "a(b|c)*d?",
+            "b*|ab",
+            "(a|b)*abb",
+            "c.b",
+            "^a(b|c)*",
+            "(ab)*c$",
+            "^(a|b)*c$",
+        };
+
+        for (String regex : regexes) {
+            FrozenDeterministicFiniteAutomaton expected = getFrozen(regex);
+            FrozenDeterministicFiniteAutomaton frozen =
+                NondeterministicFiniteAutomaton
+                    .compile(regex)
+                    .convertToIndexedDeterministicFiniteAutomaton(
+                        DeterminizationBudget.UNLIMITED)
+                    .freeze(budget);
+
+            for (int i = 0; i < 500; ++i) {
+                String text = randomText(random, "abcd", 10);
+                int from = random.nextInt(text.length() + 1);
+
+                assertEquals(regex + " on " + text + " from " + from,
+                             expected.findMatch(text, from),
+                             frozen.findMatch(text, from));
+
+                assertEquals(regex + " on " + text,
+                             expected.find(text),
+                             frozen.find(text));
+            }
+        }
+
+        FrozenDeterministicFiniteAutomaton frozen =
+            NondeterministicFiniteAutomaton
+                .compile("(a|b)*abb")
+                .convertToIndexedDeterministicFiniteAutomaton(
+                    DeterminizationBudget.UNLIMITED)
+                .freeze(budget);
+
+        assertFalse(frozen.usesSimulation());
+        assertEquals(new MatchPosition(0, 5), frozen.findMatch("ababb", 0));
+        assertTrue(frozen.usesSimulation());
+    }
+
+    @Test
+    public void agreesWithDFAOnRandomInput() {
+        Random random = new Random(13L);
+
+        String[] regexes = {
+            "(ab|c)*",
+            "(1|...)*(0|1)+",
+            "((01)|.)?",
+            "[a-c]+(x|[b-y])*",
+        };
+
+        for (String regex : regexes) {
+            DeterministicFiniteAutomaton dfa =
+                NondeterministicFiniteAutomaton
+                    .compile(regex)
+                    .convertToDeterministicFiniteAutomaton();
+
+            FrozenDeterministicFiniteAutomaton frozen = dfa.freeze();
+
+            for (int i = 0; i < 1_000; ++i) {
+                String text = randomText(random, "abc01xyz", 8);
+
+                assertEquals(regex + " on " + text,
+                             dfa.matches(text),
+                             frozen.matches(text));
+
+                assertEquals(regex + " on " + text,
+                             dfa.find(text),
+                             frozen.find(text));
+            }
+        }
+    }
+
+    private static MatchPosition findLeftmostLongest(Pattern pattern,
+                                                     String text,
+                                                     int from) {
+
+        for (int start = from; start <= text.length(); ++start) {
+            for (int end = text.length(); end >= start; --end) {
+                if (pattern.matcher(text.substring(start, end)).matches()) {
+                    return new MatchPosition(start, end);
+                }
+            }
+        }
+
+        return null;
+    }
+
+    private static DeterministicFiniteAutomaton buildChain(int states) {
+        DeterministicFiniteAutomaton dfa = new DeterministicFiniteAutomaton();
+        DeterministicFiniteAutomatonState previous = dfa.createState();
+
+        dfa.setInitialState(previous);
+
+        for (int i = 1; i < states; ++i) {
+            DeterministicFiniteAutomatonState next = dfa.createState();
+            dfa.addTransition(previous, 'a', next);
+            previous = next;
+        }
+
+        dfa.addAcceptingState(previous);
+        return dfa;
+    }
+
+    private static FrozenDeterministicFiniteAutomaton getFrozen(String regex) {
+        return (FrozenDeterministicFiniteAutomaton) RegexToolkit.compile(regex);
+    }
+
+    private static String randomText(Random random,
+                                     String alphabet,
+                                     int maximumLength) {
+
+        int length = random.nextInt(maximumLength + 1);
+        StringBuilder sb = new StringBuilder(length);
+
+        for (int i = 0; i < length; ++i) {
+            sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+
+        return sb.toString();
+    }
+}
@@ -0,0 +1,153 @@
+package io.github.coderodde.regex;
+
+import io.github.coderodde.regex.parser.ast.RegexParser;
+import io.github.coderodde.regex.parser.ast.RegexTokenizationResult;
+import io.github.coderodde.regex.tokenizer.RegexTokenizer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class GlushkovNondeterministicFiniteAutomatonCompilerTest {
+
+    @Test
+    public void hasOneStatePerPosition() {
+        NondeterministicFiniteAutomaton nfa = getNFA("a(b|c)*[x-z].?");
+
+        assertEquals(6, nfa.getNumberOfStates());
+
+        assertFalse(hasEpsilonTransitions(nfa));
+
+        assertTrue(nfa.matches("ax"));
+        assertTrue(nfa.matches("abcby1"));
+        assertFalse(nfa.matches("a"));
+        assertFalse(nfa.matches("abx12"));
+    }
+
+    @Test
+    public void onNullableRegex() {
+        NondeterministicFiniteAutomaton nfa = getNFA("(ab)*|c?");
+
+        assertTrue(nfa.matches(""));
+        assertTrue(nfa.matches("c"));
+        assertTrue(nfa.matches("abab"));
+
+        assertFalse(nfa.matches("abc"));
+        assertFalse(nfa.matches("cc"));
+    }
+
+    @Test
+    public void onNestedStars() {
+        NondeterministicFiniteAutomaton nfa = getNFA("(a*b*)*c+");
+
+        assertEquals(4, nfa.getNumberOfStates());
+
+        assertTrue(nfa.matches("c"));
+        assertTrue(nfa.matches("babacc"));
+        assertFalse(nfa.matches("abab"));
+        assertFalse(nfa.matches("cab"));
+    }
+
+    @Test
+    public void keepsAnchors() {
+        NondeterministicFiniteAutomaton nfa = getNFA("^ab$");
+
+        assertTrue(nfa.find("ab"));
+        assertFalse(nfa.find("xab"));
+        assertFalse(nfa.find("abx"));
+
+        nfa = getNFA("ab$");
+
+        assertTrue(nfa.find("xab"));
+        assertFalse(nfa.find("abx"));
+    }
+
+    @Test
+    public void agreesWithThompsonConstruction() {
+        Random random = new Random(13L);
+        String[] patterns = { "(a|b)*abb", "a?a?a?aaa", "(a|ab)(c|bcd)(d*)",
+                              "((ab)+|b)*c?", "[ab]*(.b|c)", "(a*|b*)*" };
+
+        for (String pattern : patterns) {
+            NondeterministicFiniteAutomaton glushkov = getNFA(pattern);
+            NondeterministicFiniteAutomaton thompson =
+                NondeterministicFiniteAutomaton.compile(pattern);
+
+            DeterministicFiniteAutomaton dfa =
+                glushkov.convertToDeterministicFiniteAutomaton();
+
+            Pattern javaPattern = Pattern.compile(pattern);
+
+            for (int i = 0; i < 300; ++i) {
+                String text = randomText(random);
+                boolean expected = javaPattern.matcher(text).matches();
+
+                assertEquals(pattern + " on " + text,
+                             expected,
+                             glushkov.matches(text));
+
+                assertEquals(expected, thompson.matches(text));
+                assertEquals(expected, dfa.matches(text));
+
+                assertEquals(pattern + " on " + text,
+                             thompson.findMatch(text),
+                             glushkov.findMatch(text));
+            }
+        }
+    }
+
+    private static boolean hasEpsilonTransitions(
+            NondeterministicFiniteAutomaton nfa) {
+
+        Deque<NondeterministicFiniteAutomatonState> queue = new ArrayDeque<>();
+        Set<NondeterministicFiniteAutomatonState> visited = new HashSet<>();
+
+        queue.add(nfa.getInitialState());
+        visited.add(nfa.getInitialState());
+
+        while (!queue.isEmpty()) {
+            NondeterministicFiniteAutomatonState state = queue.removeFirst();
+
+            if (!state.getEpsilonStates().isEmpty()
+                    || state.getDotTransition() != null) {
+                return true;
+            }
+
+            for (int i = 0; i < state.getTransitionCount(); ++i) {
+                for (NondeterministicFiniteAutomatonState follower
+                        : state.getTransition(i).getGoalStates()) {
+
+                    if (visited.add(follower)) {
+                        queue.addLast(follower);
+                    }
+                }
+            }
+        }
+
+        return false;
+    }
+
+    private static String randomText(Random random) {
+        int length = random.nextInt(8);
+        StringBuilder sb = new StringBuilder(length);
+
+        for (int i = 0; i < length; ++i) {
+            sb.append((char)('a' + random.nextInt(4)));
+        }
+
+        return sb.toString();
+    }
+
+    private static NondeterministicFiniteAutomaton getNFA(String regex) {
+        RegexTokenizationResult tokenization =
+            new RegexTokenizer().tokenize(regex);
+
+        return new GlushkovNondeterministicFiniteAutomatonCompiler(
+            new RegexParser(tokenization.tokens()).parse())
+                .compile(tokenization);
+    }
+}
@@ -0,0 +1,155 @@
+package io.github.coderodde.regex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class HopcroftMinimizerTest {
+
+    @Test
+    public void agreesWithNaiveRefinementOnRandomDfas() {
+        Random random = new Random(42L);
+
+        for (int iteration = 0; iteration < 300; ++iteration) {
+            IndexedDeterministicFiniteAutomaton dfa =
+                createRandomDfa(random,
+                                1 + random.nextInt(30),
+                                1 + random.nextInt(4));
+
+            int[] blocks = HopcroftMinimizer.computeBlocks(dfa);
+
+            assertSamePartition(computeBlocksNaively(dfa), blocks);
+        }
+    }
+
+    @Test
+    public void keepsExplicitDeadStates() {
+        // The state 'dead' has no way to acceptance, whereas 'b' has no
+        // transitions at all:
+        DeterministicFiniteAutomaton dfa = new DeterministicFiniteAutomaton();
+        DeterministicFiniteAutomatonState a = dfa.createState();
+        DeterministicFiniteAutomatonState b = dfa.createState();
+        DeterministicFiniteAutomatonState dead = dfa.createState();
+
+        dfa.setInitialState(a);
+        dfa.addAcceptingState(b);
+        dfa.addTransition(a, 'a', b);
+        dfa.addTransition(a, 'b', dead);
+        dfa.addTransition(dead, new CodePointRange('a', 'b'), dead);
+
+        IndexedDeterministicFiniteAutomaton indexedDfa =
+            IndexedDeterministicFiniteAutomaton.of(dfa);
+
+        int[] blocks = HopcroftMinimizer.computeBlocks(indexedDfa);
+
+        assertEquals(3, Arrays.stream(blocks).distinct().count());
+        assertEquals(3, indexedDfa.quotient(blocks).getNumberOfStates());
+    }
+
+    @Test
+    public void minimizesKeywordAlternation() {
+        DeterministicFiniteAutomaton dfa =
+            NondeterministicFiniteAutomaton.compile("abc|abd|xbc|xbd|ab")
+                                           .convertToDeterministicFiniteAutomaton();
+
+        DeterministicFiniteAutomaton minimalDfa =
+            dfa.minimize(DeterministicFiniteAutomaton
+                             .MinimizationAlgorithm
+                             .HOPCROFT);
+
+        // Initial, after 'a', after 'x', after "ab", after "xb", final:
+        assertEquals(6, minimalDfa.getNumberOfStates());
+        assertTrue(minimalDfa.matches("ab"));
+        assertTrue(minimalDfa.matches("xbd"));
+        assertFalse(minimalDfa.matches("xb"));
+    }
+
+    static IndexedDeterministicFiniteAutomaton createRandomDfa(
+            Random random,
+            int stateCount,
+            int symbolCount) {
+
+        List<CodePointRange> ranges = new ArrayList<>();
+
+        for (int symbol = 0; symbol < symbolCount; ++symbol) {
+            ranges.add(new CodePointRange('a' + symbol, 'a' + symbol));
+        }
+
+        AlphabetPartition partition = AlphabetPartition.of(ranges);
+        int classCount = partition.getClassCount();
+        int[] transitions = new int[stateCount * classCount];
+        boolean[] accepting = new boolean[stateCount];
+
+        for (int state = 0; state < stateCount; ++state) {
+            accepting[state] = random.nextInt(3) == 0;
+
+            for (int classId = 0; classId < classCount; ++classId) {
+                transitions[state * classCount + classId] =
+                    random.nextInt(4) == 0 ? -1 : random.nextInt(stateCount);
+            }
+        }
+
+        return new IndexedDeterministicFiniteAutomaton(partition,
+                                                       transitions,
+                                                       accepting,
+                                                       false,
+                                                       false);
+    }
+
+    /**
+     * Refines the acceptance partition by the block signatures until it is
+     * stable. The missing transitions get the signature entry -1.
+     */
+    static int[] computeBlocksNaively(IndexedDeterministicFiniteAutomaton dfa) {
+        int stateCount = dfa.getNumberOfStates();
+        int[] blocks = new int[stateCount];
+
+        for (int state = 0; state < stateCount; ++state) {
+            blocks[state] = dfa.isAcceptingState(state) ? 1 : 0;
+        }
+
+        while (true) {
+            Map<List<Integer>, Integer> signatureMap = new HashMap<>();
+            int[] newBlocks = new int[stateCount];
+
+            for (int state = 0; state < stateCount; ++state) {
+                List<Integer> signature = new ArrayList<>();
+                signature.add(blocks[state]);
+
+                for (int classId = 0; classId < dfa.getClassCount(); ++classId) {
+                    int target = dfa.getTransition(state, classId);
+                    signature.add(target < 0 ? -1 : blocks[target]);
+                }
+
+                newBlocks[state] =
+                    signatureMap.computeIfAbsent(signature,
+                                                 s -> signatureMap.size());
+            }
+
+            if (Arrays.equals(blocks, newBlocks)) {
+                return blocks;
+            }
+
+            blocks = newBlocks;
+        }
+    }
+
+    static void assertSamePartition(int[] expectedBlocks, int[] actualBlocks) {
+        assertEquals(expectedBlocks.length, actualBlocks.length);
+
+        for (int i = 0; i < expectedBlocks.length; ++i) {
+            for (int j = 0; j < expectedBlocks.length; ++j) {
+                assertEquals(expectedBlocks[i] == expectedBlocks[j],
+                             actualBlocks[i] == actualBlocks[j]);
+            }
+        }
+
+        int blockCount = Arrays.stream(actualBlocks).max().getAsInt() + 1;
+        assertEquals(blockCount, Arrays.stream(actualBlocks).distinct().count());
+    }
+}
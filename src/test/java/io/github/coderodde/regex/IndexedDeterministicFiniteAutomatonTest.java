@@ -0,0 +1,144 @@
+package io.github.coderodde.regex;
+
+import static io.github.coderodde.regex.HopcroftMinimizerTest.createRandomDfa;
+import io.github.coderodde.regex.DeterministicFiniteAutomaton.MinimizationAlgorithm;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class IndexedDeterministicFiniteAutomatonTest {
+
+    @Test
+    public void selectsMooreForSmallDfas() {
+        IndexedDeterministicFiniteAutomaton dfa =
+            IndexedDeterministicFiniteAutomaton.of(
+                NondeterministicFiniteAutomaton.compile("(a|b)*abb")
+                                               .convertToDeterministicFiniteAutomaton());
+
+        assertEquals(MinimizationAlgorithm.MOORE,
+                     dfa.selectMinimizationAlgorithm());
+    }
+
+    @Test
+    public void selectsValmariLehtinenForSparseDfas() {
+        StringBuilder regex = new StringBuilder();
+
+        for (int i = 0; i < 500; ++i) {
+            if (i > 0) {
+                regex.append('|');
+            }
+
+            regex.append(Integer.toString(i * 7919 + 1000, 36));
+        }
+
+        IndexedDeterministicFiniteAutomaton dfa =
+            IndexedDeterministicFiniteAutomaton.of(
+                NondeterministicFiniteAutomaton.compile(regex.toString())
+                                               .convertToDeterministicFiniteAutomaton());
+
+        assertEquals(MinimizationAlgorithm.VALMARI_LEHTINEN,
+                     dfa.selectMinimizationAlgorithm());
+    }
+
+    @Test
+    public void selectsByNumberOfStatesForDenseDfas() {
+        Random random = new Random(3L);
+
+        assertEquals(MinimizationAlgorithm.MOORE,
+                     createRandomDfa(random, 2000, 2)
+                         .selectMinimizationAlgorithm());
+
+        assertEquals(MinimizationAlgorithm.HOPCROFT,
+                     createRandomDfa(random, 10_000, 2)
+                         .selectMinimizationAlgorithm());
+    }
+
+    @Test
+    public void automaticMinimizationAgreesWithHopcroft() {
+        Random random = new Random(17L);
+
+        for (int iteration = 0; iteration < 100; ++iteration) {
+            IndexedDeterministicFiniteAutomaton dfa =
+                createRandomDfa(random,
+                                1 + random.nextInt(3000),
+                                1 + random.nextInt(4));
+
+            assertEquals(
+                dfa.minimize(MinimizationAlgorithm.HOPCROFT,
+                             ForkJoinPool.commonPool())
+                   .getNumberOfStates(),
+                dfa.minimize(MinimizationAlgorithm.AUTO,
+                             ForkJoinPool.commonPool())
+                   .getNumberOfStates());
+        }
+    }
+
+    @Test
+    public void subsetConstructionBuildsSameTableAsIndexing() {
+        ForkJoinPool pool = new ForkJoinPool(3);
+
+        try {
+            for (String regex : new String[]{ "a",
+                                              "(a|b)*abb",
+                                              "[a-z]+@[a-z]+\\.(com|org)",
+                                              "(x|y)*x(x|y)(x|y)(x|y)",
+                                              "[a-c]+|a.c",
+                                              "(foo|bar|baz)+qux?" }) {
+
+                NondeterministicFiniteAutomaton nfa =
+                    NondeterministicFiniteAutomaton.compile(regex);
+
+                IndexedDeterministicFiniteAutomaton expected =
+                    IndexedDeterministicFiniteAutomaton.of(
+                        nfa.convertToDeterministicFiniteAutomaton());
+
+                assertSameTable(
+                    expected,
+                    nfa.convertToIndexedDeterministicFiniteAutomaton(
+                        DeterminizationBudget.UNLIMITED));
+
+                assertSameTable(
+                    expected,
+                    nfa.convertToIndexedDeterministicFiniteAutomaton(
+                        DeterminizationBudget.UNLIMITED,
+                        pool));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Compares the two DFAs after normalizing their alphabet partitions by a
+     * round trip through the object form.
+     */
+    private static void assertSameTable(
+            IndexedDeterministicFiniteAutomaton expected,
+            IndexedDeterministicFiniteAutomaton actual) {
+
+        expected = IndexedDeterministicFiniteAutomaton.of(
+            expected.toDeterministicFiniteAutomaton());
+
+        actual = IndexedDeterministicFiniteAutomaton.of(
+            actual.toDeterministicFiniteAutomaton());
+
+        assertEquals(expected.getNumberOfStates(), actual.getNumberOfStates());
+        assertEquals(expected.getClassCount(), actual.getClassCount());
+        assertEquals(expected.isAnchoredAtStart(), actual.isAnchoredAtStart());
+        assertEquals(expected.isAnchoredAtEnd(), actual.isAnchoredAtEnd());
+
+        for (int state = 0; state < expected.getNumberOfStates(); ++state) {
+            assertEquals(expected.isAcceptingState(state),
+                         actual.isAcceptingState(state));
+
+            for (int classId = 0;
+                     classId < expected.getClassCount();
+                     ++classId) {
+
+                assertEquals(expected.getTransition(state, classId),
+                             actual.getTransition(state, classId));
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package io.github.coderodde.regex;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import org.junit.Test;
+
+public class IndexedNondeterministicFiniteAutomatonTest {
+
+    @Test
+    public void closureFollowsEpsilonCycles() {
+        NondeterministicFiniteAutomaton nfa =
+                new NondeterministicFiniteAutomaton();
+
+        NondeterministicFiniteAutomatonState q0 = nfa.createState();
+        NondeterministicFiniteAutomatonState q1 = nfa.createState();
+        NondeterministicFiniteAutomatonState q2 = nfa.createState();
+        NondeterministicFiniteAutomatonState q3 = nfa.createState();
+
+        nfa.setInitialState(q0);
+        nfa.addAcceptingState(q3);
+
+        q0.addEpsilonTransition(q1);
+        q1.addEpsilonTransition(q2);
+        q2.addEpsilonTransition(q0);
+        q2.addTransition('a', q3);
+        q3.addEpsilonTransition(q1);
+
+        IndexedNondeterministicFiniteAutomaton indexedNfa =
+                nfa.getIndexedNfa();
+
+        SparseIntSet set = new SparseIntSet(indexedNfa.getNumberOfStates());
+
+        // Only q2 has a labelled transition and q0, q1 are not accepting:
+        indexedNfa.addClosure(set, null, 0, 0);
+        assertEquals(1, set.size());
+        assertFalse(indexedNfa.containsAcceptingState(set));
+
+        assertTrue(nfa.matches("a"));
+        assertTrue(nfa.matches("aaa"));
+        assertFalse(nfa.matches(""));
+        assertFalse(nfa.matches("ab"));
+    }
+
+    @Test
+    public void longEpsilonChain() {
+        NondeterministicFiniteAutomaton nfa =
+                new NondeterministicFiniteAutomaton();
+
+        int length = 10_000;
+        NondeterministicFiniteAutomatonState first = nfa.createState();
+        NondeterministicFiniteAutomatonState previous = first;
+
+        nfa.setInitialState(first);
+
+        for (int i = 0; i < length; ++i) {
+            NondeterministicFiniteAutomatonState state = nfa.createState();
+            previous.addEpsilonTransition(state);
+            previous = state;
+        }
+
+        previous.addTransition('a', first);
+        nfa.addAcceptingState(first);
+
+        assertEquals(length + 1, nfa.getIndexedNfa().getNumberOfStates());
+
+        assertTrue(nfa.matches("aaaa"));
+        assertTrue(nfa.find("bbba"));
+
+        DeterministicFiniteAutomaton dfa =
+                nfa.convertToDeterministicFiniteAutomaton();
+
+        assertEquals(1, dfa.getNumberOfStates());
+        assertTrue(dfa.matches(""));
+        assertTrue(dfa.matches("aaaa"));
+        assertFalse(dfa.matches("ab"));
+    }
+
+    @Test
+    public void subsetConstructionAgreesWithSimulation() {
+        String[] patterns = { "(a|b)*abb", "(a*|b*)*c", "a?a?a?aaa", "(.a)*" };
+        String[] texts = { "", "abb", "babb", "aabab", "c", "abc", "aaa",
+                           "aaaaa", "ba", "bab", "xaya" };
+
+        for (String pattern : patterns) {
+            NondeterministicFiniteAutomaton nfa =
+                    NondeterministicFiniteAutomaton.compile(pattern);
+
+            DeterministicFiniteAutomaton dfa =
+                    nfa.convertToDeterministicFiniteAutomaton();
+
+            for (String text : texts) {
+                assertEquals(pattern + " on " + text,
+                             nfa.matches(text),
+                             dfa.matches(text));
+            }
+        }
+    }
+}
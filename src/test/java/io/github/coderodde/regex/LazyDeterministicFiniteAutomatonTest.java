@@ -0,0 +1,194 @@
+package io.github.coderodde.regex;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class LazyDeterministicFiniteAutomatonTest {
+
+    /**
+     * The pattern {@code (a|b)*a(a|b){k}} whose minimal DFA has 2^(k + 1)
+     * states.
+     */
+    private static String exponentialPattern(int k) {
+        return "(a|b)*a" + "(a|b)".repeat(k);
+    }
+
+    @Test
+    public void matchesAndFind() {
+        LazyDeterministicFiniteAutomaton dfa =
+            LazyDeterministicFiniteAutomaton.compile("(ab|c)*d");
+
+        assertTrue(dfa.matches("d"));
+        assertTrue(dfa.matches("abcabd"));
+        assertFalse(dfa.matches("abca"));
+        assertFalse(dfa.matches(""));
+
+        assertTrue(dfa.find("xxcdxx"));
+        assertFalse(dfa.find("abcab"));
+        assertEquals(new MatchPosition(2, 6), dfa.findMatch("xxabcdabd"));
+        assertEquals(new MatchPosition(6, 9), dfa.findMatch("xxabcdabd", 6));
+        assertNull(dfa.findMatch("xxabcdab", 6));
+    }
+
+    @Test
+    public void findWithAnchors() {
+        LazyDeterministicFiniteAutomaton dfa =
+            LazyDeterministicFiniteAutomaton.compile("^ab*");
+
+        assertTrue(dfa.find("abbx"));
+        assertFalse(dfa.find("xab"));
+        assertNull(dfa.findMatch("abab", 1));
+
+        dfa = LazyDeterministicFiniteAutomaton.compile("ab*$");
+
+        assertTrue(dfa.find("xabb"));
+        assertFalse(dfa.find("abx"));
+        assertEquals(new MatchPosition(2, 4), dfa.findMatch("abab"));
+    }
+
+    @Test
+    public void buildsOnlyReachedStates() {
+        LazyDeterministicFiniteAutomaton dfa =
+            LazyDeterministicFiniteAutomaton.compile(exponentialPattern(20));
+
+        String text = "b".repeat(1000) + "a" + "b".repeat(20);
+
+        assertTrue(dfa.matches(text));
+        assertTrue(dfa.find(text));
+        assertTrue(dfa.getNumberOfCachedStates() < 100);
+        assertEquals(0, dfa.getNumberOfCacheClears());
+    }
+
+    @Test
+    public void clearsFullCache() {
+        NondeterministicFiniteAutomaton nfa =
+            NondeterministicFiniteAutomaton.compile(exponentialPattern(6));
+
+        LazyDeterministicFiniteAutomaton dfa =
+            new LazyDeterministicFiniteAutomaton(nfa, 8);
+
+        Random random = new Random(3L);
+
+        for (int i = 0; i < 200; ++i) {
+            String text = randomText(random, 2000);
+            assertEquals(nfa.matches(text), dfa.matches(text));
+            assertEquals(nfa.find(text), dfa.find(text));
+        }
+
+        assertTrue(dfa.getNumberOfCacheClears() > 0);
+        assertTrue(dfa.getNumberOfCachedStates() <= 16);
+    }
+
+    @Test
+    public void fallsBackToNfaSimulation() {
+        NondeterministicFiniteAutomaton nfa =
+            NondeterministicFiniteAutomaton.compile(exponentialPattern(12));
+
+        LazyDeterministicFiniteAutomaton dfa =
+            new LazyDeterministicFiniteAutomaton(nfa, 16);
+
+        Random random = new Random(5L);
+
+        for (int i = 0; i < 50; ++i) {
+            String text = randomText(random, 300);
+            assertEquals(nfa.matches(text), dfa.matches(text));
+            assertEquals(nfa.findMatch(text), dfa.findMatch(text));
+        }
+
+        assertTrue(dfa.usesNfaSimulation());
+    }
+
+    @Test
+    public void sharesStatesBetweenThreads() throws InterruptedException {
+        LazyDeterministicFiniteAutomaton dfa =
+            LazyDeterministicFiniteAutomaton.compile(exponentialPattern(3));
+
+        String text = "abbabaababbbaabab";
+
+        assertTrue(dfa.matches(text));
+        assertTrue(dfa.find(text));
+
+        int cachedStates = dfa.getNumberOfCachedStates();
+        AtomicInteger mismatches = new AtomicInteger();
+        Thread[] threads = new Thread[4];
+
+        for (int i = 0; i < threads.length; ++i) {
+            threads[i] = new Thread(() -> {
+                // The states built by the main thread are visible here:
+                if (dfa.getNumberOfCachedStates() != cachedStates) {
+                    mismatches.incrementAndGet();
+                }
+
+                for (int j = 0; j < 100; ++j) {
+                    if (!dfa.matches(text) || !dfa.find(text)) {
+                        mismatches.incrementAndGet();
+                    }
+                }
+            });
+
+            threads[i].start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(0, mismatches.get());
+        assertEquals(cachedStates, dfa.getNumberOfCachedStates());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void throwsOnTooSmallCache() {
+        new LazyDeterministicFiniteAutomaton(
+            NondeterministicFiniteAutomaton.compile("a"), 1);
+    }
+
+    @Test
+    public void agreesWithJavaRegex() {
+        Random random = new Random(17L);
+        String[] patterns = { "(a|b)*abb", "a?a?a?aaa", "(a|ab)(c|bcd)(d*)",
+                              "((ab)+|b)*c?", "[ab]*(.b|c)", "(a*|b*)*",
+                              exponentialPattern(3) };
+
+        for (String pattern : patterns) {
+            LazyDeterministicFiniteAutomaton dfa =
+                new LazyDeterministicFiniteAutomaton(
+                    NondeterministicFiniteAutomaton.compile(pattern), 4);
+
+            NondeterministicFiniteAutomaton nfa =
+                NondeterministicFiniteAutomaton.compile(pattern);
+
+            Pattern javaPattern = Pattern.compile(pattern);
+
+            for (int i = 0; i < 300; ++i) {
+                String text = randomText(random, 10);
+
+                assertEquals(pattern + " on " + text,
+                             javaPattern.matcher(text).matches(),
+                             dfa.matches(text));
+
+                assertEquals(pattern + " on " + text,
+                             javaPattern.matcher(text).find(),
+                             dfa.find(text));
+
+                assertEquals(pattern + " on " + text,
+                             nfa.findMatch(text),
+                             dfa.findMatch(text));
+            }
+        }
+    }
+
+    private static String randomText(Random random, int maximumLength) {
+        int length = random.nextInt(maximumLength);
+        StringBuilder sb = new StringBuilder(length);
+
+        for (int i = 0; i < length; ++i) {
+            sb.append((char)('a' + random.nextInt(4)));
+        }
+
+        return sb.toString();
+    }
+}
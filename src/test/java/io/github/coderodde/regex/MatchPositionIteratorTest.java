@@ -0,0 +1,139 @@
+package io.github.coderodde.regex;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class MatchPositionIteratorTest {
+
+    @Test
+    public void findAllReusesMatchPosition() {
+        Iterator<MatchPosition> iterator = 
+            RegexToolkit.compile("ab").findAll("abxab");
+
+        assertTrue(iterator.hasNext());
+        assertTrue(iterator.hasNext());
+
+        MatchPosition first = iterator.next();
+
+        assertEquals(new MatchPosition(0, 2), first);
+
+        MatchPosition second = iterator.next();
+
+        assertSame(first, second);
+        assertEquals(new MatchPosition(3, 5), second);
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void findAllThrowsWhenExhausted() {
+        Iterator<MatchPosition> iterator = 
+            RegexToolkit.compile("a").findAll("b");
+
+        iterator.next();
+    }
+
+    @Test
+    public void emptyMatchesAdvanceByCodePoint() {
+        assertEquals(List.of(new MatchPosition(0, 0),
+                             new MatchPosition(1, 3),
+                             new MatchPosition(3, 3)),
+                     collect(RegexToolkit.compile("a*"), "baa"));
+
+        assertEquals(List.of(new MatchPosition(0, 0),
+                             new MatchPosition(2, 2)),
+                     collect(RegexToolkit.compile("a*"), "😀"));
+    }
+
+    @Test
+    public void findAllWithAnchors() {
+        assertEquals(List.of(new MatchPosition(0, 2)),
+                     collect(RegexToolkit.compile("^ab"), "abab"));
+
+        assertEquals(List.of(new MatchPosition(2, 4)),
+                     collect(RegexToolkit.compile("ab$"), "abab"));
+    }
+
+    @Test
+    public void forEachMatchAgreesWithFindAll() {
+        RegularExpressionMatcher matcher = RegexToolkit.compile("a(b|c)*");
+        String text = "xabcbaaxcab";
+        List<MatchPosition> expected = collect(matcher, text);
+        List<MatchPosition> actual = new ArrayList<>();
+
+        matcher.forEachMatch(text, 
+                             (start, end) -> 
+                                 actual.add(new MatchPosition(start, end)));
+
+        assertEquals(expected, actual);
+        assertEquals(List.of(new MatchPosition(1, 5),
+                             new MatchPosition(5, 6),
+                             new MatchPosition(6, 7),
+                             new MatchPosition(9, 11)),
+                     actual);
+    }
+
+    @Test
+    public void agreesWithJavaRegexOnUnambiguousPatterns() {
+        // Leftmost-longest coincides with the java.util.regex semantics here:
+        String[] regexes = { "[a-c]+", "a*", "(ab)+", "x[0-9]*y" };
+        String text = "abcxx01yab ababx9y cc";
+
+        for (String regex : regexes) {
+            List<MatchPosition> expected = new ArrayList<>();
+            Matcher m = Pattern.compile(regex).matcher(text);
+
+            while (m.find()) {
+                expected.add(new MatchPosition(m.start(), m.end()));
+            }
+
+            assertEquals(regex, 
+                         expected, 
+                         collect(RegexToolkit.compile(regex), text));
+        }
+    }
+
+    @Test
+    public void allMatchersRoundIndexInsideSurrogatePair() {
+        String regex = ".b?";
+        String text = "c😀b";
+
+        RegularExpressionMatcher[] matchers = {
+            RegexToolkit.compile(regex),
+            NondeterministicFiniteAutomaton.compile(regex),
+            BitParallelNondeterministicFiniteAutomaton.compile(regex),
+            LazyDeterministicFiniteAutomaton.compile(regex),
+        };
+
+        for (RegularExpressionMatcher matcher : matchers) {
+            String name = matcher.getClass().getSimpleName();
+
+            assertEquals(name,
+                         new MatchPosition(3, 4),
+                         matcher.findMatch(text, 2));
+
+            assertEquals(name,
+                         new MatchPosition(1, 4),
+                         matcher.findMatch(text, 1));
+        }
+    }
+
+    private static List<MatchPosition> collect(RegularExpressionMatcher matcher,
+                                               String text) {
+        List<MatchPosition> result = new ArrayList<>();
+        Iterator<MatchPosition> iterator = matcher.findAll(text);
+
+        while (iterator.hasNext()) {
+            MatchPosition matchPosition = iterator.next();
+            result.add(new MatchPosition(matchPosition.getStart(),
+                                         matchPosition.getEnd()));
+        }
+
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package io.github.coderodde.regex;
+
+import static io.github.coderodde.regex.HopcroftMinimizerTest.assertSamePartition;
+import static io.github.coderodde.regex.HopcroftMinimizerTest.computeBlocksNaively;
+import static io.github.coderodde.regex.HopcroftMinimizerTest.createRandomDfa;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class MooreMinimizerTest {
+
+    @Test
+    public void agreesWithNaiveRefinementOnRandomDfas() {
+        Random random = new Random(13L);
+
+        for (int iteration = 0; iteration < 300; ++iteration) {
+            IndexedDeterministicFiniteAutomaton dfa =
+                createRandomDfa(random,
+                                1 + random.nextInt(30),
+                                1 + random.nextInt(4));
+
+            int[] blocks = MooreMinimizer.computeBlocks(dfa);
+
+            assertSamePartition(computeBlocksNaively(dfa), blocks);
+            assertSamePartition(HopcroftMinimizer.computeBlocks(dfa), blocks);
+        }
+    }
+
+    @Test
+    public void keepsExplicitDeadStates() {
+        DeterministicFiniteAutomaton dfa = new DeterministicFiniteAutomaton();
+        DeterministicFiniteAutomatonState a = dfa.createState();
+        DeterministicFiniteAutomatonState b = dfa.createState();
+        DeterministicFiniteAutomatonState dead = dfa.createState();
+
+        dfa.setInitialState(a);
+        dfa.addAcceptingState(b);
+        dfa.addTransition(a, 'a', b);
+        dfa.addTransition(a, 'b', dead);
+        dfa.addTransition(dead, new CodePointRange('a', 'b'), dead);
+
+        int[] blocks = MooreMinimizer.computeBlocks(
+            IndexedDeterministicFiniteAutomaton.of(dfa));
+
+        assertEquals(3, Arrays.stream(blocks).distinct().count());
+    }
+
+    @Test
+    public void minimizesKeywordAlternation() {
+        DeterministicFiniteAutomaton dfa =
+            NondeterministicFiniteAutomaton.compile("abc|abd|xbc|xbd|ab")
+                                           .convertToDeterministicFiniteAutomaton();
+
+        DeterministicFiniteAutomaton minimalDfa =
+            dfa.minimize(DeterministicFiniteAutomaton
+                             .MinimizationAlgorithm
+                             .MOORE);
+
+        assertEquals(6, minimalDfa.getNumberOfStates());
+        assertEquals(6, dfa.minimizeViaMooresAlgorithm().getNumberOfStates());
+        assertTrue(minimalDfa.matches("abd"));
+        assertFalse(minimalDfa.matches("x"));
+    }
+}
@@ -4,6 +4,7 @@ import io.github.coderodde.regex.DeterministicFiniteAutomatonStateTransitionFunc
 import static io.github.coderodde.regex.NondeterministicFiniteAutomaton.epsilonExpand;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Random;
 import java.util.Set;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -310,6 +311,127 @@ public class NondeterministicFiniteAutomatonTest {
         assertFalse(dfa.matches("ab"));
     }
     
+    @Test
+    public void find() {
+        NondeterministicFiniteAutomaton nfa = 
+                NondeterministicFiniteAutomaton.compile("ab+c");
+        
+        assertTrue(nfa.find("abc"));
+        assertTrue(nfa.find("xxabbbcxx"));
+        assertTrue(nfa.find("aabc"));
+        assertFalse(nfa.find("abxbc"));
+        assertFalse(nfa.find(""));
+        
+        nfa = NondeterministicFiniteAutomaton.compile("^ab+c");
+        
+        assertTrue(nfa.find("abcx"));
+        assertFalse(nfa.find("xabc"));
+        
+        nfa = NondeterministicFiniteAutomaton.compile("ab+c$");
+        
+        assertTrue(nfa.find("xabc"));
+        assertFalse(nfa.find("abcx"));
+        
+        nfa = NondeterministicFiniteAutomaton.compile("^ab+c$");
+        
+        assertTrue(nfa.find("abbc"));
+        assertFalse(nfa.find("abbcabbc"));
+        
+        nfa = NondeterministicFiniteAutomaton.compile("(ab)*$");
+        
+        assertTrue(nfa.find("abx"));
+        assertTrue(nfa.find(""));
+    }
+    
+    @Test
+    public void findOnLongText() {
+        NondeterministicFiniteAutomaton nfa = 
+                NondeterministicFiniteAutomaton.compile("a*b");
+        
+        String text = "a".repeat(50_000);
+        
+        assertFalse(nfa.find(text));
+        assertTrue(nfa.find(text + "b"));
+    }
+    
+    @Test
+    public void findAgreesWithDFA() {
+        String[] regexes = { "(a|b)*abb", "a.c", "^(ab|b)+", "b?c*$" };
+        String alphabet = "abc";
+        Random random = new Random(3L);
+        
+        for (String regex : regexes) {
+            NondeterministicFiniteAutomaton nfa = 
+                    NondeterministicFiniteAutomaton.compile(regex);
+            
+            DeterministicFiniteAutomaton dfa = 
+                    nfa.convertToDeterministicFiniteAutomaton();
+            
+            for (int i = 0; i < 500; ++i) {
+                StringBuilder sb = new StringBuilder();
+                int length = random.nextInt(10);
+                
+                for (int j = 0; j < length; ++j) {
+                    sb.append(alphabet.charAt(random.nextInt(3)));
+                }
+                
+                String text = sb.toString();
+                
+                assertEquals(regex + " on " + text, 
+                             dfa.find(text), 
+                             nfa.find(text));
+            }
+        }
+    }
+    
+    @Test
+    public void findMatch() {
+        NondeterministicFiniteAutomaton nfa = 
+                NondeterministicFiniteAutomaton.compile("abcd|bc");
+        
+        assertEquals(new MatchPosition(1, 5), nfa.findMatch("xabcd"));
+        
+        nfa = NondeterministicFiniteAutomaton.compile("a|ab|abc");
+        
+        assertEquals(new MatchPosition(1, 4), nfa.findMatch("xabcx"));
+        assertEquals(new MatchPosition(5, 6), nfa.findMatch("xabcxa", 2));
+        assertNull(nfa.findMatch("xbc"));
+        
+        nfa = NondeterministicFiniteAutomaton.compile("a+$");
+        
+        assertEquals(new MatchPosition(2, 4), nfa.findMatch("abaa"));
+    }
+    
+    @Test
+    public void findMatchAgreesWithFrozenDFA() {
+        String[] regexes = { "(a|b)*abb", "a.c", "^(ab|b)+", "b?c*$", "a*" };
+        String alphabet = "abc";
+        Random random = new Random(5L);
+        
+        for (String regex : regexes) {
+            NondeterministicFiniteAutomaton nfa = 
+                    NondeterministicFiniteAutomaton.compile(regex);
+            
+            RegularExpressionMatcher dfa = RegexToolkit.compile(regex);
+            
+            for (int i = 0; i < 500; ++i) {
+                StringBuilder sb = new StringBuilder();
+                int length = random.nextInt(10);
+                
+                for (int j = 0; j < length; ++j) {
+                    sb.append(alphabet.charAt(random.nextInt(3)));
+                }
+                
+                String text = sb.toString();
+                int from = random.nextInt(length + 1);
+                
+                assertEquals(regex + " on " + text, 
+                             dfa.findMatch(text, from), 
+                             nfa.findMatch(text, from));
+            }
+        }
+    }
+    
     @Test
     public void unionOfDotsToDFA() {
         NondeterministicFiniteAutomaton nfa = 
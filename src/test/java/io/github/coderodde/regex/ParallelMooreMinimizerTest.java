@@ -0,0 +1,105 @@
+package io.github.coderodde.regex;
+
+import static io.github.coderodde.regex.HopcroftMinimizerTest.createRandomDfa;
+import io.github.coderodde.regex.DeterministicFiniteAutomaton.MinimizationAlgorithm;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ParallelMooreMinimizerTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeClass
+    public static void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void agreesWithSequentialMooreOnRandomDfas() {
+        Random random = new Random(7L);
+
+        for (int iteration = 0; iteration < 200; ++iteration) {
+            IndexedDeterministicFiniteAutomaton dfa =
+                createRandomDfa(random,
+                                1 + random.nextInt(30),
+                                1 + random.nextInt(4));
+
+            assertArrayEquals(MooreMinimizer.computeBlocks(dfa),
+                              ParallelMooreMinimizer.computeBlocks(dfa, pool));
+        }
+    }
+
+    @Test
+    public void agreesWithSequentialMooreOnLargeDfas() {
+        Random random = new Random(11L);
+
+        for (int iteration = 0; iteration < 5; ++iteration) {
+            IndexedDeterministicFiniteAutomaton dfa =
+                createRandomDfa(random, 20_000, 2);
+
+            assertArrayEquals(MooreMinimizer.computeBlocks(dfa),
+                              ParallelMooreMinimizer.computeBlocks(dfa, pool));
+        }
+    }
+
+    @Test
+    public void producesSameDfaAsMoore() {
+        StringBuilder regex = new StringBuilder();
+
+        for (int i = 0; i < 300; ++i) {
+            if (i > 0) {
+                regex.append('|');
+            }
+
+            regex.append("k").append(Integer.toString(i * 7919, 36));
+        }
+
+        DeterministicFiniteAutomaton dfa =
+            NondeterministicFiniteAutomaton.compile(regex.toString())
+                                           .convertToDeterministicFiniteAutomaton();
+
+        IndexedDeterministicFiniteAutomaton expected =
+            IndexedDeterministicFiniteAutomaton.of(
+                dfa.minimize(MinimizationAlgorithm.MOORE));
+
+        IndexedDeterministicFiniteAutomaton actual =
+            IndexedDeterministicFiniteAutomaton.of(
+                dfa.minimize(MinimizationAlgorithm.PARALLEL_MOORE, pool));
+
+        assertEquals(expected.getNumberOfStates(), actual.getNumberOfStates());
+        assertEquals(expected.getClassCount(), actual.getClassCount());
+
+        for (int state = 0; state < expected.getNumberOfStates(); ++state) {
+            assertEquals(expected.isAcceptingState(state),
+                         actual.isAcceptingState(state));
+
+            for (int classId = 0;
+                     classId < expected.getClassCount();
+                     ++classId) {
+
+                assertEquals(expected.getTransition(state, classId),
+                             actual.getTransition(state, classId));
+            }
+        }
+
+        assertTrue(actual.freeze()
+                         .matches("k" + Integer.toString(299 * 7919, 36)));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void rejectsNullPool() {
+        NondeterministicFiniteAutomaton.compile("a|b")
+                                       .convertToDeterministicFiniteAutomaton()
+                                       .minimize(MinimizationAlgorithm.PARALLEL_MOORE,
+                                                 null);
+    }
+}
@@ -0,0 +1,157 @@
+package io.github.coderodde.regex;
+
+import io.github.coderodde.regex.DeterminizationBudget.Policy;
+import io.github.coderodde.regex.DeterministicFiniteAutomatonStateTransitionFunction.TransitionFunctionEntry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ParallelSubsetConstructionTest {
+
+    private static ForkJoinPool pool;
+
+    @BeforeClass
+    public static void createPool() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterClass
+    public static void shutdownPool() {
+        pool.shutdown();
+    }
+
+    @Test
+    public void producesSameDfaAsSequentialConstruction() {
+        String[] patterns = {
+            "a",
+            "(a|b)*abb",
+            "^a.c$",
+            "[a-f]+[0-9]?x|fox|f.*x",
+            "(a|b)*a(a|b)(a|b)(a|b)(a|b)(a|b)(a|b)",
+            keywordAlternation(300),
+        };
+
+        for (String pattern : patterns) {
+            NondeterministicFiniteAutomaton nfa =
+                NondeterministicFiniteAutomaton.compile(pattern);
+
+            DeterministicFiniteAutomaton sequentialDfa =
+                nfa.convertToDeterministicFiniteAutomaton();
+
+            DeterministicFiniteAutomaton parallelDfa =
+                nfa.convertToDeterministicFiniteAutomaton(
+                    DeterminizationBudget.UNLIMITED,
+                    pool);
+
+            assertEquals(pattern,
+                         describe(sequentialDfa),
+                         describe(parallelDfa));
+        }
+    }
+
+    @Test
+    public void matchesKeywords() {
+        RegularExpressionMatcher matcher =
+            RegexToolkit.compile(keywordAlternation(500),
+                                 DeterministicFiniteAutomaton
+                                     .MinimizationAlgorithm.HOPCROFT,
+                                 DeterminizationBudget.UNLIMITED,
+                                 pool);
+
+        assertTrue(matcher.matches(keyword(0)));
+        assertTrue(matcher.matches(keyword(499)));
+        assertFalse(matcher.matches(keyword(500)));
+        assertTrue(matcher.find("xx" + keyword(123) + "yy"));
+    }
+
+    @Test(expected = DeterminizationBudgetExceededException.class)
+    public void stateLimitThrows() {
+        DeterminizationBudget budget =
+            new DeterminizationBudget(1000, Long.MAX_VALUE,
+                                      Duration.ofMinutes(1), Policy.FAIL);
+
+        NondeterministicFiniteAutomaton.compile("(a|b)*a" + "(a|b)".repeat(20))
+                                       .convertToDeterministicFiniteAutomaton(
+                                           budget,
+                                           pool);
+    }
+
+    @Test
+    public void fallsBackToNfa() {
+        DeterminizationBudget budget =
+            new DeterminizationBudget(Integer.MAX_VALUE, Long.MAX_VALUE,
+                                      Duration.ZERO, Policy.NFA);
+
+        RegularExpressionMatcher matcher =
+            RegexToolkit.compile("(a|b)*a" + "(a|b)".repeat(20),
+                                 null,
+                                 budget,
+                                 pool);
+
+        assertTrue(matcher instanceof NondeterministicFiniteAutomaton);
+    }
+
+    /**
+     * Lists the states in the order of IDs with their acceptance and
+     * transitions, so that equal descriptions imply identical DFAs.
+     */
+    private static String describe(DeterministicFiniteAutomaton dfa) {
+        List<DeterministicFiniteAutomatonState> states =
+            new ArrayList<>(dfa.getAllStates());
+
+        states.sort(Comparator.comparingInt(
+            DeterministicFiniteAutomatonState::getStateId));
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("initial ")
+          .append(dfa.getInitialState().getStateId())
+          .append('\n');
+
+        for (DeterministicFiniteAutomatonState state : states) {
+            sb.append(state.getStateId());
+
+            if (dfa.getAcceptingStates().contains(state)) {
+                sb.append(" accepting");
+            }
+
+            for (TransitionFunctionEntry entry
+                    : state.getTransitionFunction()) {
+
+                sb.append(' ')
+                  .append(entry.getCharacterRange().getMinimumCodePoint())
+                  .append('-')
+                  .append(entry.getCharacterRange().getMaximumCodePoint())
+                  .append("->")
+                  .append(entry.getGoalState().getStateId());
+            }
+
+            sb.append('\n');
+        }
+
+        return sb.toString();
+    }
+
+    private static String keywordAlternation(int count) {
+        StringBuilder sb = new StringBuilder();
+
+        for (int i = 0; i < count; ++i) {
+            if (i > 0) {
+                sb.append('|');
+            }
+
+            sb.append(keyword(i));
+        }
+
+        return sb.toString();
+    }
+
+    private static String keyword(int i) {
+        return "kw" + Integer.toString(i * 7919, 36) + "z";
+    }
+}
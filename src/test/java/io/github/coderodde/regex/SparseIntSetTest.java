@@ -0,0 +1,48 @@
+package io.github.coderodde.regex;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SparseIntSetTest {
+
+    @Test
+    public void addContainsAndClear() {
+        SparseIntSet set = new SparseIntSet(10);
+
+        assertTrue(set.isEmpty());
+        assertTrue(set.add(7));
+        assertTrue(set.add(2));
+        assertFalse(set.add(7));
+
+        assertEquals(2, set.size());
+        assertTrue(set.contains(7));
+        assertTrue(set.contains(2));
+        assertFalse(set.contains(0));
+
+        set.clear();
+
+        assertTrue(set.isEmpty());
+        assertFalse(set.contains(7));
+        assertTrue(set.add(7));
+    }
+
+    @Test
+    public void keepsInsertionOrder() {
+        SparseIntSet set = new SparseIntSet(5);
+
+        set.add(4);
+        set.add(0);
+        set.add(3);
+
+        assertEquals(4, set.get(0));
+        assertEquals(0, set.get(1));
+        assertEquals(3, set.get(2));
+
+        set.truncate(1);
+
+        assertEquals(1, set.size());
+        assertTrue(set.contains(4));
+        assertFalse(set.contains(0));
+        assertFalse(set.contains(3));
+    }
+}
@@ -0,0 +1,145 @@
+package io.github.coderodde.regex;
+
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class SubsetTableTest {
+
+    @Test
+    public void internsSubsetsRegardlessOfOrder() {
+        SubsetTable table = new SubsetTable();
+
+        assertEquals(0, table.getOrAdd(setOf(3, 1, 2)));
+        assertEquals(1, table.getOrAdd(setOf(1, 2)));
+        assertEquals(0, table.getOrAdd(setOf(2, 3, 1)));
+        assertEquals(2, table.getOrAdd(setOf()));
+        assertEquals(1, table.getOrAdd(setOf(2, 1)));
+        assertEquals(3, table.size());
+
+        SparseIntSet set = new SparseIntSet(10);
+        table.getSubset(0, set);
+
+        assertEquals(3, set.size());
+        assertTrue(set.contains(1));
+        assertTrue(set.contains(2));
+        assertTrue(set.contains(3));
+    }
+
+    @Test
+    public void growsAndClears() {
+        SubsetTable table = new SubsetTable();
+
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals(i, table.getOrAdd(setOf(i, i + 1)));
+        }
+
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals(i, table.getOrAdd(setOf(i + 1, i)));
+        }
+
+        table.clear();
+
+        assertEquals(0, table.size());
+        assertEquals(0, table.getOrAdd(setOf(500, 501)));
+    }
+
+    @Test
+    public void agreesWithRandomSubsets() {
+        Random random = new Random(7L);
+        SubsetTable table = new SubsetTable();
+        SparseIntSet set = new SparseIntSet(64);
+        SparseIntSet loaded = new SparseIntSet(64);
+
+        for (int i = 0; i < 2000; ++i) {
+            long bits = random.nextLong() & random.nextLong();
+            set.clear();
+
+            for (int state = 63; state >= 0; --state) {
+                if ((bits & (1L << state)) != 0L) {
+                    set.add(state);
+                }
+            }
+
+            int id = table.getOrAdd(set);
+            table.getSubset(id, loaded);
+
+            assertEquals(set.size(), loaded.size());
+
+            for (int j = 0; j < loaded.size(); ++j) {
+                assertTrue(set.contains(loaded.get(j)));
+            }
+        }
+    }
+
+    @Test
+    public void findsReleasedSubsets() {
+        SubsetTable table = new SubsetTable();
+        SparseIntSet loaded = new SparseIntSet(1002);
+
+        for (int i = 0; i < 1000; ++i) {
+            assertEquals(i, table.getOrAdd(setOf(i, i + 1, i % 7)));
+        }
+
+        for (int i = 0; i < 1000; ++i) {
+            table.getSubset(i, loaded);
+
+            assertTrue(loaded.contains(i));
+            assertTrue(loaded.contains(i + 1));
+            assertTrue(loaded.contains(i % 7));
+
+            table.releaseBelow(i + 1);
+
+            assertEquals(i / 2, table.getOrAdd(setOf(i / 2 % 7,
+                                                     i / 2 + 1,
+                                                     i / 2)));
+
+            assertEquals(1000 + i, table.getOrAdd(setOf(i, i + 2, 1001)));
+        }
+
+        assertEquals(2000, table.size());
+        assertEquals(1999, table.getOrAdd(setOf(999, 1001)));
+    }
+
+    @Test
+    public void internsSequencesInOrder() {
+        SubsetTable table = new SubsetTable();
+        int[] target = new int[3];
+
+        assertEquals(0, table.getOrAdd(new int[]{ 1, 2, 3 }, 3));
+        assertEquals(1, table.getOrAdd(new int[]{ 3, 2, 1 }, 3));
+        assertEquals(2, table.getOrAdd(new int[]{ 1, 2, 3 }, 2));
+        assertEquals(0, table.getOrAdd(new int[]{ 1, 2, 3, 4 }, 3));
+        assertEquals(3, table.size());
+
+        assertEquals(3, table.getSequence(1, target));
+        assertArrayEquals(new int[]{ 3, 2, 1 }, target);
+
+        table.releaseBelow(2);
+
+        assertEquals(1, table.getOrAdd(new int[]{ 3, 2, 1 }, 3));
+        assertEquals(2, table.getSequence(2, target));
+        assertEquals(1, target[0]);
+        assertEquals(2, target[1]);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void throwsOnLoadingReleasedSubset() {
+        SubsetTable table = new SubsetTable();
+
+        table.getOrAdd(setOf(1));
+        table.getOrAdd(setOf(2));
+        table.releaseBelow(1);
+        table.getSubset(0, new SparseIntSet(3));
+    }
+
+    private static SparseIntSet setOf(int... elements) {
+        SparseIntSet set = new SparseIntSet(1002);
+
+        for (int element : elements) {
+            set.add(element);
+        }
+
+        return set;
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.coderodde.regex;
+
+import static io.github.coderodde.regex.HopcroftMinimizerTest.assertSamePartition;
+import static io.github.coderodde.regex.HopcroftMinimizerTest.computeBlocksNaively;
+import static io.github.coderodde.regex.HopcroftMinimizerTest.createRandomDfa;
+import io.github.coderodde.regex.DeterministicFiniteAutomaton.MinimizationAlgorithm;
+import java.util.Arrays;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+public class ValmariLehtinenMinimizerTest {
+
+    @Test
+    public void agreesWithNaiveRefinementOnRandomDfas() {
+        Random random = new Random(21L);
+
+        for (int iteration = 0; iteration < 300; ++iteration) {
+            IndexedDeterministicFiniteAutomaton dfa =
+                createRandomDfa(random,
+                                1 + random.nextInt(30),
+                                1 + random.nextInt(4));
+
+            int[] blocks = ValmariLehtinenMinimizer.computeBlocks(dfa);
+
+            assertSamePartition(computeBlocksNaively(dfa), blocks);
+        }
+    }
+
+    @Test
+    public void keepsExplicitDeadStates() {
+        DeterministicFiniteAutomaton dfa = new DeterministicFiniteAutomaton();
+        DeterministicFiniteAutomatonState a = dfa.createState();
+        DeterministicFiniteAutomatonState b = dfa.createState();
+        DeterministicFiniteAutomatonState dead = dfa.createState();
+
+        dfa.setInitialState(a);
+        dfa.addAcceptingState(b);
+        dfa.addTransition(a, 'a', b);
+        dfa.addTransition(a, 'b', dead);
+        dfa.addTransition(dead, new CodePointRange('a', 'b'), dead);
+
+        int[] blocks = ValmariLehtinenMinimizer.computeBlocks(
+            IndexedDeterministicFiniteAutomaton.of(dfa));
+
+        assertEquals(3, Arrays.stream(blocks).distinct().count());
+    }
+
+    @Test
+    public void handlesDfaWithoutTransitions() {
+        DeterministicFiniteAutomaton dfa = new DeterministicFiniteAutomaton();
+        dfa.setInitialState(dfa.createState());
+
+        assertArrayEquals(new int[]{ 0 },
+                          ValmariLehtinenMinimizer.computeBlocks(
+                              IndexedDeterministicFiniteAutomaton.of(dfa)));
+    }
+
+    @Test
+    public void minimizesKeywordAlternation() {
+        DeterministicFiniteAutomaton dfa =
+            NondeterministicFiniteAutomaton.compile("abc|abd|xbc|xbd|ab")
+                                           .convertToDeterministicFiniteAutomaton();
+
+        DeterministicFiniteAutomaton minimalDfa =
+            dfa.minimize(MinimizationAlgorithm.VALMARI_LEHTINEN);
+
+        assertEquals(6, minimalDfa.getNumberOfStates());
+        assertTrue(minimalDfa.matches("xbc"));
+        assertFalse(minimalDfa.matches("abx"));
+    }
+
+    @Test
+    public void agreesWithHopcroftOnUnicodeClasses() {
+        DeterministicFiniteAutomaton dfa =
+            NondeterministicFiniteAutomaton.compile(
+                "[Ѐ-ӿ]+x|[Ѐ-ѿ]+y|[a-zͰ-Ͽ]*z")
+                                           .convertToDeterministicFiniteAutomaton();
+
+        assertEquals(
+            dfa.minimize(MinimizationAlgorithm.HOPCROFT).getNumberOfStates(),
+            dfa.minimize(MinimizationAlgorithm.VALMARI_LEHTINEN)
+               .getNumberOfStates());
+    }
+}